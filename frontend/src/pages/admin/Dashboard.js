@@ -32,27 +32,34 @@ import {
 } from '@mui/icons-material';
 import { Link } from 'react-router-dom';
 import { motion } from 'framer-motion';
+import axios from 'axios';
 
-// Mock data for dashboard
-const mockData = {
-  stats: {
-    totalSales: 12580.45,
-    totalOrders: 156,
-    totalProducts: 48,
-    totalUsers: 237,
-    pendingOrders: 12,
-    lowStockProducts: 5
-  },
-  recentOrders: [
-    { id: 12345, customer: 'John Doe', date: '2023-06-15T14:30:00', total: 129.99, status: 'Delivered' },
-    { id: 12346, customer: 'Jane Smith', date: '2023-06-15T10:15:00', total: 79.50, status: 'Processing' },
-    { id: 12347, customer: 'Robert Johnson', date: '2023-06-14T16:45:00', total: 249.99, status: 'Shipped' }
-  ],
-  topProducts: [
-    { id: 1, name: 'Custom 3D Printed Vase', sales: 42, revenue: 1259.58 },
-    { id: 2, name: 'Graphic Design T-Shirt', sales: 38, revenue: 949.62 },
-    { id: 3, name: '3D Printed Planter', sales: 35, revenue: 979.65 }
-  ]
+// Maps GET /api/analytics/summary onto the shape the cards render
+const toDashboardData = (summary) => {
+  const { sales } = summary;
+  return {
+    stats: {
+      totalSales: sales.totalRevenue,
+      recentSales: sales.revenueByDay.reduce((sum, day) => sum + day.revenue, 0),
+      recentDays: sales.revenueByDay.length,
+      totalOrders: sales.totalOrders,
+      totalProducts: summary.totalProducts,
+      totalUsers: summary.totalUsers,
+      pendingOrders: sales.ordersByStatus.PENDING || 0,
+      lowStockProducts: summary.lowStockProducts
+    },
+    topProducts: sales.topProducts.map((product) => ({
+      id: product.productId,
+      name: product.name,
+      sales: product.units,
+      revenue: product.revenue
+    }))
+  };
+};
+
+const fetchSummary = async () => {
+  const response = await axios.get('/api/analytics/summary', { params: { days: 30, top: 5 } });
+  return toDashboardData(response.data);
 };
 
 const Dashboard = () => {
@@ -70,13 +77,10 @@ const Dashboard = () => {
     const fetchDashboardData = async () => {
       setLoading(true);
       try {
-        // Mock implementation
-        setTimeout(() => {
-          setData(mockData);
-          setLoading(false);
-        }, 800); // Simulate network delay
+        setData(await fetchSummary());
       } catch (err) {
         setError("Failed to load dashboard data. Please try again later.");
+      } finally {
         setLoading(false);
       }
     };
@@ -88,22 +92,11 @@ const Dashboard = () => {
   const handleRefresh = async () => {
     setRefreshing(true);
     try {
-      // Mock implementation
-      setTimeout(() => {
-        // Update some values to simulate fresh data
-        const updatedData = {
-          ...mockData,
-          stats: {
-            ...mockData.stats,
-            totalOrders: mockData.stats.totalOrders + 2,
-            pendingOrders: mockData.stats.pendingOrders + 1
-          }
-        };
-        setData(updatedData);
-        setRefreshing(false);
-      }, 800); // Simulate network delay
+      setData(await fetchSummary());
+      setError(null);
     } catch (err) {
       setError("Failed to refresh dashboard data. Please try again later.");
+    } finally {
       setRefreshing(false);
     }
   };
@@ -271,7 +264,7 @@ const Dashboard = () => {
                   {formatCurrency(data.stats.totalSales)}
                 </Typography>
                 <Typography variant="body2" color="success.main" sx={{ mt: 1 }}>
-                  +12.5% from last month
+                  {formatCurrency(data.stats.recentSales)} in the last {data.stats.recentDays} days
                 </Typography>
               </Paper>
             </motion.div>
@@ -391,8 +384,8 @@ const Dashboard = () => {
                 <Typography variant="h4" component="div" fontWeight="bold">
                   {data.stats.totalUsers}
                 </Typography>
-                <Typography variant="body2" color="success.main" sx={{ mt: 1 }}>
-                  +8.2% from last month
+                <Typography variant="body2" color="text.secondary" sx={{ mt: 1 }}>
+                  registered accounts
                 </Typography>
               </Paper>
             </motion.div>
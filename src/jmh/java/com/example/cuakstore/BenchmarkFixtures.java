@@ -0,0 +1,90 @@
+package com.example.cuakstore;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.example.cuakstore.model.Category;
+import com.example.cuakstore.model.Order;
+import com.example.cuakstore.model.OrderItem;
+import com.example.cuakstore.model.OrderStatus;
+import com.example.cuakstore.model.Product;
+import com.example.cuakstore.model.User;
+import com.example.cuakstore.security.jwt.JwtUtils;
+
+/**
+ * Builders shared by the benchmarks. Beans are wired by hand so the micro benchmarks do not
+ * pay for a Spring context; only {@code ProductServiceBenchmark} starts one.
+ */
+public final class BenchmarkFixtures {
+    public static final String JWT_SECRET =
+            "Y3Vha3N0b3JlLWJlbmNobWFyay1zZWNyZXQta2V5LXRoYXQtaXMtbG9uZy1lbm91Z2gtZm9yLWhzNTEyLXNpZ25pbmctMTIzNDU2Nzg5MA==";
+
+    private BenchmarkFixtures() {
+    }
+
+    public static JwtUtils jwtUtils(int verifiedCacheSize) {
+        JwtUtils jwtUtils = new JwtUtils();
+        setField(jwtUtils, "jwtSecret", JWT_SECRET);
+        setField(jwtUtils, "jwtExpirationMs", 3_600_000);
+        setField(jwtUtils, "verifiedCacheSize", verifiedCacheSize);
+        setField(jwtUtils, "verifiedCacheTtlMs", 300_000L);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    public static Category category(long id) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName("Category " + id);
+        category.setDescription("Description of category " + id);
+        return category;
+    }
+
+    public static Product product(long id, Category category) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setDescription("A reasonably long description for product " + id + " used in benchmarks");
+        product.setPrice(new BigDecimal("19.99").add(BigDecimal.valueOf(id % 100)));
+        product.setImageUrl("https://cdn.example.com/products/" + id + ".jpg");
+        product.setStockQuantity(100);
+        product.setCategory(category);
+        product.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, 0));
+        product.setUpdatedAt(LocalDateTime.of(2024, 6, 1, 12, 0));
+        return product;
+    }
+
+    public static Order order(long id, int itemCount) {
+        User user = new User("bench", "bench@cuakstore.com", "secret");
+        user.setId(1L);
+
+        Order order = new Order();
+        order.setId(id);
+        order.setUser(user);
+        order.setOrderDate(LocalDateTime.of(2024, 6, 1, 12, 0));
+        order.setStatus(OrderStatus.PAID);
+        order.setShippingAddress("Calle Falsa 123");
+        order.setPaymentId("PAY-" + id);
+        order.setPaymentStatus("approved");
+
+        Category category = category(1);
+        for (int i = 0; i < itemCount; i++) {
+            OrderItem item = new OrderItem(product(i + 1, category), i % 5 + 1);
+            item.setId((long) i + 1);
+            order.addOrderItem(item);
+        }
+        order.calculateTotalAmount();
+        return order;
+    }
+
+    public static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + name + " on " + target.getClass().getSimpleName(), e);
+        }
+    }
+}
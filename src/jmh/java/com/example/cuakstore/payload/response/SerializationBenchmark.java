@@ -0,0 +1,67 @@
+package com.example.cuakstore.payload.response;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.cuakstore.BenchmarkFixtures;
+import com.example.cuakstore.model.Category;
+import com.example.cuakstore.model.Order;
+import com.example.cuakstore.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Jackson output for the graphs the API returns. The mapper is configured like Spring MVC's,
+ * and entity-to-DTO mapping is included where the controllers do it per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+    private ObjectMapper objectMapper;
+    private Product product;
+    private List<Product> productPage;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        Category category = BenchmarkFixtures.category(1);
+        product = BenchmarkFixtures.product(1, category);
+        productPage = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            productPage.add(BenchmarkFixtures.product(i, category));
+        }
+        order = BenchmarkFixtures.order(1L, 10);
+    }
+
+    @Benchmark
+    public byte[] productEntity() throws Exception {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] productResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(ProductResponse.from(product));
+    }
+
+    @Benchmark
+    public byte[] productResponsePage() throws Exception {
+        return objectMapper.writeValueAsBytes(ProductResponse.fromAll(productPage));
+    }
+
+    @Benchmark
+    public byte[] orderResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(OrderResponse.from(order));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.cuakstore.security.jwt;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.example.cuakstore.BenchmarkFixtures;
+import com.example.cuakstore.repository.UserRepository;
+import com.example.cuakstore.security.services.UserDetailsImpl;
+import com.example.cuakstore.security.services.UserInvalidationRegistry;
+
+/**
+ * Whole {@link AuthTokenFilter} pass for a request carrying a valid bearer token, including
+ * building the authentication and its web details. Mock request creation is part of the score;
+ * the user version lookup is stubbed, so its round trip to the primary is not.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AuthTokenFilterBenchmark {
+    private AuthTokenFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        JwtUtils jwtUtils = BenchmarkFixtures.jwtUtils(10_000);
+
+        // Claims are trusted: the user is still at the version the token was issued with
+        UserRepository userRepository = (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(), new Class<?>[] {UserRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findVersionById")) {
+                        return Optional.of(0L);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        UserInvalidationRegistry registry = new UserInvalidationRegistry();
+        BenchmarkFixtures.setField(registry, "userRepository", userRepository);
+        BenchmarkFixtures.setField(registry, "versionCacheSize", 10_000);
+        BenchmarkFixtures.setField(registry, "versionCacheTtlMs", 5_000L);
+        registry.init();
+
+        filter = new AuthTokenFilter();
+        BenchmarkFixtures.setField(filter, "jwtUtils", jwtUtils);
+        BenchmarkFixtures.setField(filter, "userInvalidationRegistry", registry);
+
+        UserDetailsImpl principal = UserDetailsImpl.build(1L, "bench", "bench@cuakstore.com", List.of("ROLE_USER"), 0L);
+        authorization = "Bearer " + jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @Benchmark
+    public Authentication authenticatedRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/user");
+        request.addHeader("Authorization", authorization);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
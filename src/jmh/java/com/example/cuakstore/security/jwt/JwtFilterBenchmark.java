@@ -0,0 +1,69 @@
+package com.example.cuakstore.security.jwt;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import com.example.cuakstore.BenchmarkFixtures;
+import com.example.cuakstore.security.services.UserDetailsImpl;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Token-to-principal path of {@link AuthTokenFilter}. {@code legacy} reproduces the old
+ * {@code JwtUtils}: a fresh key and parser per call, and the token verified twice per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtFilterBenchmark {
+    private JwtUtils uncachedJwtUtils;
+    private JwtUtils cachedJwtUtils;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        uncachedJwtUtils = BenchmarkFixtures.jwtUtils(0);
+        cachedJwtUtils = BenchmarkFixtures.jwtUtils(10_000);
+
+        UserDetailsImpl principal = UserDetailsImpl.build(1L, "bench", "bench@cuakstore.com", List.of("ROLE_USER"), 0L);
+        token = cachedJwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @Benchmark
+    public String legacy() {
+        Jwts.parserBuilder().setSigningKey(legacyKey()).build().parseClaimsJws(token);
+        return Jwts.parserBuilder().setSigningKey(legacyKey()).build()
+                .parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public UserDetailsImpl singleParse() {
+        Claims claims = uncachedJwtUtils.parseAndValidateJwtToken(token);
+        return uncachedJwtUtils.getUserDetailsFromClaims(claims);
+    }
+
+    @Benchmark
+    public UserDetailsImpl cachedParse() {
+        Claims claims = cachedJwtUtils.parseAndValidateJwtToken(token);
+        return cachedJwtUtils.getUserDetailsFromClaims(claims);
+    }
+
+    private static SecretKey legacyKey() {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(BenchmarkFixtures.JWT_SECRET));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.cuakstore.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import com.example.cuakstore.CuakStoreApplication;
+import com.example.cuakstore.model.Category;
+import com.example.cuakstore.model.Product;
+import com.example.cuakstore.payload.response.CursorPage;
+import com.example.cuakstore.payload.response.ProductResponse;
+import com.example.cuakstore.repository.CategoryRepository;
+import com.example.cuakstore.repository.ProductRepository;
+import com.example.cuakstore.search.ProductSearchIndex;
+
+/**
+ * {@link ProductService} reads through the real Spring context and repositories, on an
+ * embedded H2 database seeded with {@code productCount} products.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductServiceBenchmark {
+    private static final String[] WORDS = {"Mug", "Poster", "Keychain", "Sticker", "Shirt", "Cap", "Print", "Lamp"};
+
+    @Param({"5000"})
+    private int productCount;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductRepository productRepository;
+    private List<Long> ids;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(CuakStoreApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+
+        CategoryRepository categoryRepository = context.getBean(CategoryRepository.class);
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Category category = new Category();
+            category.setName("Benchmark category " + i);
+            categories.add(categoryRepository.save(category));
+        }
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < productCount; i++) {
+            Product product = new Product();
+            product.setName(WORDS[i % WORDS.length] + " " + WORDS[(i / WORDS.length) % WORDS.length] + " " + i);
+            product.setDescription("Benchmark product number " + i);
+            product.setPrice(BigDecimal.valueOf(5 + i % 200));
+            product.setStockQuantity(100);
+            product.setCategory(categories.get(i % categories.size()));
+            products.add(product);
+        }
+        ids = productRepository.saveAll(products).stream().map(Product::getId).toList();
+        context.getBean(ProductSearchIndex.class).rebuild();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<ProductResponse> getProductByIdCached() {
+        return productService.getProductById(nextId());
+    }
+
+    @Benchmark
+    public Optional<Product> findProductByIdUncached() {
+        return productRepository.findById(nextId());
+    }
+
+    @Benchmark
+    public Page<Product> getAllProductsPage() {
+        return productService.getAllProducts(PageRequest.of(10, 20));
+    }
+
+    @Benchmark
+    public CursorPage<Product> getProductsByCursor() {
+        return productService.getProductsByCursor("name", null, 20);
+    }
+
+    @Benchmark
+    public List<Product> searchProductsByName() {
+        return productService.searchProductsByName("keychain mug");
+    }
+
+    private Long nextId() {
+        Long id = ids.get(next);
+        next = (next + 1) % ids.size();
+        return id;
+    }
+}
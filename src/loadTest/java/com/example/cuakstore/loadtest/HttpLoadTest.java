@@ -0,0 +1,219 @@
+package com.example.cuakstore.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop HTTP load generator: every client sends a request, waits for the response and
+ * sends the next one. Clients run on virtual threads so 5000 of them cost little on the
+ * load generator side. Latencies recorded during warm-up are discarded.
+ *
+ * <p>Usage: {@code HttpLoadTest <label> <clients> <warmupSeconds> <durationSeconds> <baseUrl>
+ * <productId> <target>...}, where each target is {@code "<METHOD> <path> [json body]"}. Before
+ * the run a fresh user is signed up and signed in, and one order for {@code productId} is
+ * created. Every request carries that user's token, and {@code ${orderBody}} (a one-item order
+ * for {@code productId}), {@code ${username}}, {@code ${password}}, {@code ${productId}} and
+ * {@code ${orderId}} are replaced in paths and bodies, in that order. Targets are
+ * spread round-robin over the clients. Prints one summary line per run.
+ */
+public class HttpLoadTest {
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    // The amounts only have to pass validation; the order total is computed from the items
+    private static final String ORDER_BODY = "{\"orderDate\":\"2024-01-01T00:00:00\",\"totalAmount\":1,"
+            + "\"shippingAddress\":\"Load test\",\"orderItems\":[{\"product\":{\"id\":${productId}},"
+            + "\"quantity\":1,\"price\":1}]}";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 7) {
+            System.err.println("Usage: HttpLoadTest <label> <clients> <warmupSeconds> <durationSeconds> <baseUrl> <productId> <target>...");
+            System.exit(2);
+        }
+        String label = args[0];
+        int clients = Integer.parseInt(args[1]);
+        Duration warmup = Duration.ofSeconds(Long.parseLong(args[2]));
+        Duration duration = Duration.ofSeconds(Long.parseLong(args[3]));
+        String baseUrl = args[4];
+        String productId = args[5];
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        String username = "lt_" + UUID.randomUUID().toString().substring(0, 8);
+        String password = UUID.randomUUID().toString();
+        Map<String, String> variables = new LinkedHashMap<>();
+        variables.put("orderBody", ORDER_BODY);
+        variables.put("username", username);
+        variables.put("password", password);
+        variables.put("productId", productId);
+        setUp(httpClient, baseUrl, null, "POST /api/auth/signup "
+                + "{\"username\":\"${username}\",\"email\":\"${username}@loadtest.local\",\"password\":\"${password}\"}",
+                variables, null);
+        String token = setUp(httpClient, baseUrl, null, "POST /api/auth/signin "
+                + "{\"username\":\"${username}\",\"password\":\"${password}\"}", variables, TOKEN);
+        variables.put("orderId", setUp(httpClient, baseUrl, token, "POST /api/orders ${orderBody}", variables, ID));
+
+        List<HttpRequest> targets = new ArrayList<>();
+        for (int i = 6; i < args.length; i++) {
+            targets.add(request(baseUrl, token, args[i], variables));
+        }
+
+        long startNanos = System.nanoTime();
+        long measureFrom = startNanos + warmup.toNanos();
+        long stopAt = measureFrom + duration.toNanos();
+
+        AtomicLong errors = new AtomicLong();
+        List<LatencyRecorder> recorders = new ArrayList<>(clients);
+        CountDownLatch done = new CountDownLatch(clients);
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                LatencyRecorder recorder = new LatencyRecorder();
+                recorders.add(recorder);
+                HttpRequest request = targets.get(i % targets.size());
+                clientThreads.submit(() -> {
+                    try {
+                        runClient(httpClient, request, recorder, errors, measureFrom, stopAt);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        }
+
+        long total = recorders.stream().mapToLong(LatencyRecorder::size).sum();
+        long[] latencies = new long[(int) total];
+        int offset = 0;
+        for (LatencyRecorder recorder : recorders) {
+            offset = recorder.copyTo(latencies, offset);
+        }
+        Arrays.sort(latencies);
+
+        double seconds = duration.toNanos() / 1e9;
+        System.out.printf("%s clients=%d requests=%d errors=%d throughput=%.0f req/s p50=%.1f ms p99=%.1f ms p999=%.1f ms max=%.1f ms%n",
+                label, clients, total, errors.get(), total / seconds,
+                percentile(latencies, 0.50), percentile(latencies, 0.99),
+                percentile(latencies, 0.999), latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6);
+    }
+
+    /**
+     * Sends one set-up request, failing the run unless it succeeds, and returns the first
+     * group of {@code extract} in the response body.
+     */
+    private static String setUp(HttpClient httpClient, String baseUrl, String token, String target,
+                                Map<String, String> variables, Pattern extract) throws Exception {
+        HttpRequest request = request(baseUrl, token, target, variables);
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(request.method() + " " + request.uri() + " failed during set-up with "
+                    + response.statusCode() + ": " + response.body());
+        }
+        if (extract == null) {
+            return null;
+        }
+        Matcher matcher = extract.matcher(response.body());
+        if (!matcher.find()) {
+            throw new IllegalStateException(request.uri() + " returned no " + extract + ": " + response.body());
+        }
+        return matcher.group(1);
+    }
+
+    private static HttpRequest request(String baseUrl, String token, String target, Map<String, String> variables) {
+        String[] parts = substitute(target, variables).split(" ", 3);
+        if (parts.length < 2) {
+            throw new IllegalArgumentException("Target must be \"<METHOD> <path> [json body]\": " + target);
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + parts[1]))
+                .timeout(Duration.ofSeconds(30))
+                .method(parts[0], parts.length == 3
+                        ? HttpRequest.BodyPublishers.ofString(parts[2])
+                        : HttpRequest.BodyPublishers.noBody());
+        if (parts.length == 3) {
+            builder.header("Content-Type", "application/json");
+        }
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private static String substitute(String text, Map<String, String> variables) {
+        for (Map.Entry<String, String> variable : variables.entrySet()) {
+            text = text.replace("${" + variable.getKey() + "}", variable.getValue());
+        }
+        return text;
+    }
+
+    private static void runClient(HttpClient httpClient, HttpRequest request, LatencyRecorder recorder,
+                                  AtomicLong errors, long measureFrom, long stopAt) {
+        long now;
+        while ((now = System.nanoTime()) < stopAt) {
+            boolean ok;
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                ok = response.statusCode() < 400;
+            } catch (Exception e) {
+                ok = false;
+            }
+            long end = System.nanoTime();
+            if (now < measureFrom) {
+                continue;
+            }
+            if (ok) {
+                recorder.record(end - now);
+            } else {
+                errors.incrementAndGet();
+            }
+        }
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    /**
+     * Latencies of one client in nanoseconds; only touched by that client's thread until the run ends.
+     */
+    private static final class LatencyRecorder {
+        private long[] values = new long[1024];
+        private int size;
+
+        void record(long latencyNanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = latencyNanos;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int copyTo(long[] target, int offset) {
+            System.arraycopy(values, 0, target, offset, size);
+            return offset + size;
+        }
+    }
+}
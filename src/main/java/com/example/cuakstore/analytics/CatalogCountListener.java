@@ -0,0 +1,44 @@
+package com.example.cuakstore.analytics;
+
+import com.example.cuakstore.model.Product;
+import com.example.cuakstore.model.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Entity listener on {@link Product} and {@link User} that keeps the catalog and customer
+ * counts in {@link SalesAnalytics} current. An entity listener rather than the change events
+ * because it also sees imported products and the products removed with their category.
+ * Bulk stock updates bypass it; those are covered by the order events.
+ */
+public class CatalogCountListener {
+    @Autowired
+    private SalesAnalytics salesAnalytics;
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        if (entity instanceof Product product) {
+            salesAnalytics.productSaved(product.getId(), product.getStockQuantity());
+        } else if (entity instanceof User) {
+            salesAnalytics.userAdded();
+        }
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        if (entity instanceof Product product) {
+            salesAnalytics.productSaved(product.getId(), product.getStockQuantity());
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof Product product) {
+            salesAnalytics.productRemoved(product.getId());
+        } else if (entity instanceof User) {
+            salesAnalytics.userRemoved();
+        }
+    }
+}
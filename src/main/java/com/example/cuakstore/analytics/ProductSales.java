@@ -0,0 +1,6 @@
+package com.example.cuakstore.analytics;
+
+import java.math.BigDecimal;
+
+public record ProductSales(Long productId, String name, long units, BigDecimal revenue) {
+}
@@ -0,0 +1,380 @@
+package com.example.cuakstore.analytics;
+
+import com.example.cuakstore.config.ReplicaRoutingDataSource;
+import com.example.cuakstore.event.OrderStatusChangedEvent;
+import com.example.cuakstore.model.Order;
+import com.example.cuakstore.model.OrderItem;
+import com.example.cuakstore.model.OrderStatus;
+import com.example.cuakstore.repository.ArchivedOrderRepository;
+import com.example.cuakstore.repository.OrderItemRepository;
+import com.example.cuakstore.repository.OrderRepository;
+import com.example.cuakstore.repository.ProductRepository;
+import com.example.cuakstore.repository.UserRepository;
+import com.example.cuakstore.service.HotStockService;
+import com.example.cuakstore.service.InventoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory sales rollups for the admin dashboard: order counts per status, revenue per day and
+ * units and revenue per product. They are loaded with GROUP BY queries over the live and archived
+ * orders at startup and then kept current from {@link OrderStatusChangedEvent}s, so reading them never touches the orders
+ * table. Only committed changes are applied. A periodic reload corrects drift from changes that
+ * publish no event (order deletion) or were made by another instance.
+ *
+ * <p>The catalog and customer counts are kept the same way: available stock per product,
+ * moved by the stock each order status change reserves or releases and reset by
+ * {@link CatalogCountListener} when a product is written, and the number of users.
+ * Available stock includes this instance's hot product budget, so a hot product whose stock
+ * sits in memory is not counted as low.
+ *
+ * <p>Revenue counts orders that are paid and not cancelled or refunded.
+ */
+@Component
+public class SalesAnalytics {
+    public static final Set<OrderStatus> REVENUE_STATUSES =
+            EnumSet.of(OrderStatus.PAID, OrderStatus.PROCESSING, OrderStatus.SHIPPED, OrderStatus.DELIVERED);
+    private static final Logger logger = LoggerFactory.getLogger(SalesAnalytics.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HotStockService hotStockService;
+
+    @Value("${analytics.low-stock-threshold:5}")
+    private int lowStockThreshold;
+
+    private final AtomicReference<Rollups> rollups = new AtomicReference<>(new Rollups());
+    // Locks rather than synchronized, which would pin a virtual thread's carrier while it
+    // waits; reloadLock is held across the reload queries
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private final ReentrantLock deltaLock = new ReentrantLock();
+    // Deltas committed while a reload runs; null when none is running. Guarded by deltaLock
+    private List<Consumer<Rollups>> deltasDuringReload;
+
+    /**
+     * Rebuilds the rollups from the database. The queries share one snapshot, so a change
+     * committed after the first of them is missing from the loaded rollups; its delta is
+     * recorded while the reload runs and replayed onto them before they replace the current
+     * ones. A change committing in the instant before the first query may be counted twice
+     * until the next reload.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${analytics.reload-ms:3600000}", fixedDelayString = "${analytics.reload-ms:3600000}")
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void reload() {
+        reloadLock.lock();
+        try {
+            loadRollups();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private void loadRollups() {
+        List<Consumer<Rollups>> recorded = new ArrayList<>();
+        underDeltaLock(() -> deltasDuringReload = recorded);
+        Rollups loaded = new Rollups();
+        try {
+            // From the primary: deltas are replayed against what it has committed, not a replica's
+            ReplicaRoutingDataSource.readFromPrimary(() -> {
+                // Archived orders still count; the archive job moves rows without publishing events
+                addStatusCounts(loaded, orderRepository.countByStatus());
+                addStatusCounts(loaded, archivedOrderRepository.countByStatus());
+                addRevenueByDay(loaded, orderRepository.sumRevenueByDay(REVENUE_STATUSES));
+                addRevenueByDay(loaded, archivedOrderRepository.sumRevenueByDay(REVENUE_STATUSES));
+                addProductSales(loaded, orderItemRepository.sumSalesByProduct(REVENUE_STATUSES));
+                addProductSales(loaded, archivedOrderRepository.sumSalesByProduct(REVENUE_STATUSES));
+                for (Object[] row : productRepository.findStockLevels()) {
+                    Long productId = (Long) row[0];
+                    putStock(loaded, productId, ((Number) row[1]).intValue() + budgetOf(productId));
+                }
+                loaded.users.set(userRepository.count());
+                return loaded;
+            });
+        } catch (RuntimeException e) {
+            underDeltaLock(() -> deltasDuringReload = null);
+            throw e;
+        }
+        underDeltaLock(() -> {
+            recorded.forEach(delta -> delta.accept(loaded));
+            deltasDuringReload = null;
+            rollups.set(loaded);
+        });
+        logger.info("Sales analytics loaded: {} days, {} products sold, {} in the catalog",
+                loaded.revenueByDay.size(), loaded.productSales.size(), loaded.stockByProduct.size());
+    }
+
+    private static void addStatusCounts(Rollups target, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            if (row[0] != null) {
+                target.ordersByStatus.get((OrderStatus) row[0]).addAndGet(((Number) row[1]).longValue());
+            }
+        }
+    }
+
+    private static void addRevenueByDay(Rollups target, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            target.revenueByDay.merge((LocalDate) row[0], (BigDecimal) row[1], BigDecimal::add);
+            target.totalRevenue.accumulateAndGet((BigDecimal) row[1], BigDecimal::add);
+        }
+    }
+
+    private static void addProductSales(Rollups target, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            Long productId = (Long) row[0];
+            target.productSales.merge(productId, new ProductSales(productId, (String) row[1],
+                    ((Number) row[2]).longValue(), (BigDecimal) row[3]), (existing, more) -> new ProductSales(
+                    productId, more.name(), existing.units() + more.units(), existing.revenue().add(more.revenue())));
+        }
+    }
+
+    /**
+     * Computes the change while the order's items are still loadable (inside the publishing
+     * transaction) and applies it once that transaction commits.
+     */
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        Order order = event.order();
+        OrderStatus previous = event.previousStatus();
+        OrderStatus current = event.newStatus();
+        boolean wasRevenue = previous != null && REVENUE_STATUSES.contains(previous);
+        boolean isRevenue = current != null && REVENUE_STATUSES.contains(current);
+        int sign = wasRevenue == isRevenue ? 0 : (isRevenue ? 1 : -1);
+
+        LocalDate day = order.getOrderDate() != null ? order.getOrderDate().toLocalDate() : LocalDate.now();
+        BigDecimal amount = order.getTotalAmount() != null ? order.getTotalAmount() : BigDecimal.ZERO;
+        List<ProductSales> itemDeltas = new ArrayList<>();
+        if (sign != 0) {
+            for (OrderItem item : order.getOrderItems()) {
+                if (item.getProduct() != null) {
+                    BigDecimal revenue = item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+                    itemDeltas.add(new ProductSales(item.getProduct().getId(), item.getProduct().getName(),
+                            (long) sign * item.getQuantity(), sign > 0 ? revenue : revenue.negate()));
+                }
+            }
+        }
+
+        // Mirrors InventoryService: stock is taken when an order starts holding it and given back when it stops
+        boolean held = InventoryService.holdsStock(previous);
+        boolean holds = InventoryService.holdsStock(current);
+        int stockSign = held == holds ? 0 : (holds ? -1 : 1);
+        Map<Long, Integer> stockDeltas = new HashMap<>();
+        if (stockSign != 0) {
+            for (OrderItem item : order.getOrderItems()) {
+                if (item.getProduct() != null) {
+                    stockDeltas.merge(item.getProduct().getId(), stockSign * item.getQuantity(), Integer::sum);
+                }
+            }
+        }
+
+        Consumer<Rollups> delta = target -> {
+            if (previous != null) {
+                target.ordersByStatus.get(previous).decrementAndGet();
+            }
+            if (current != null) {
+                target.ordersByStatus.get(current).incrementAndGet();
+            }
+            if (sign != 0) {
+                BigDecimal signedAmount = sign > 0 ? amount : amount.negate();
+                target.revenueByDay.merge(day, signedAmount, BigDecimal::add);
+                target.totalRevenue.accumulateAndGet(signedAmount, BigDecimal::add);
+                for (ProductSales itemDelta : itemDeltas) {
+                    target.productSales.merge(itemDelta.productId(), itemDelta, (existing, change) -> new ProductSales(
+                            existing.productId(), change.name(), existing.units() + change.units(),
+                            existing.revenue().add(change.revenue())));
+                }
+            }
+            stockDeltas.forEach((productId, change) -> addStock(target, productId, change));
+        };
+        applyAfterCommit(delta);
+    }
+
+    /**
+     * Records the stock a product was written with, plus any hot budget, once the write commits.
+     */
+    public void productSaved(Long productId, int stockQuantity) {
+        applyAfterCommit(target -> putStock(target, productId, stockQuantity + budgetOf(productId)));
+    }
+
+    public void productRemoved(Long productId) {
+        applyAfterCommit(target -> putStock(target, productId, null));
+    }
+
+    public void userAdded() {
+        applyAfterCommit(target -> target.users.incrementAndGet());
+    }
+
+    public void userRemoved() {
+        applyAfterCommit(target -> target.users.decrementAndGet());
+    }
+
+    public long productCount() {
+        return rollups.get().stockByProduct.size();
+    }
+
+    /**
+     * Products whose available stock is below {@code analytics.low-stock-threshold}.
+     */
+    public long lowStockProductCount() {
+        return rollups.get().lowStockProducts.get();
+    }
+
+    public long userCount() {
+        return rollups.get().users.get();
+    }
+
+    private void applyAfterCommit(Consumer<Rollups> delta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(delta);
+                }
+            });
+        } else {
+            apply(delta);
+        }
+    }
+
+    private void apply(Consumer<Rollups> delta) {
+        underDeltaLock(() -> {
+            delta.accept(rollups.get());
+            if (deltasDuringReload != null) {
+                deltasDuringReload.add(delta);
+            }
+        });
+    }
+
+    /**
+     * Sets a product's available stock, or drops the product when {@code stock} is
+     * {@code null}, and moves the low-stock count if it crossed the threshold. Runs with
+     * {@code deltaLock} held or on rollups nobody else sees yet.
+     */
+    private void putStock(Rollups target, Long productId, Integer stock) {
+        Integer previous = stock != null
+                ? target.stockByProduct.put(productId, stock)
+                : target.stockByProduct.remove(productId);
+        target.lowStockProducts.addAndGet((isLow(stock) ? 1 : 0) - (isLow(previous) ? 1 : 0));
+    }
+
+    private void addStock(Rollups target, Long productId, int change) {
+        Integer stock = target.stockByProduct.get(productId);
+        if (stock != null) {
+            putStock(target, productId, stock + change);
+        }
+    }
+
+    private boolean isLow(Integer stock) {
+        return stock != null && stock < lowStockThreshold;
+    }
+
+    private int budgetOf(Long productId) {
+        return Math.toIntExact(hotStockService.getBudget(productId));
+    }
+
+    private void underDeltaLock(Runnable action) {
+        deltaLock.lock();
+        try {
+            action.run();
+        } finally {
+            deltaLock.unlock();
+        }
+    }
+
+    /**
+     * Dashboard figures: revenue for the last {@code days} days (today included) and the
+     * {@code top} best-selling products by units.
+     */
+    public SalesSummary summary(int days, int top) {
+        Rollups current = rollups.get();
+
+        Map<OrderStatus, Long> ordersByStatus = new EnumMap<>(OrderStatus.class);
+        long totalOrders = 0;
+        for (Map.Entry<OrderStatus, AtomicLong> entry : current.ordersByStatus.entrySet()) {
+            ordersByStatus.put(entry.getKey(), entry.getValue().get());
+            totalOrders += entry.getValue().get();
+        }
+
+        LocalDate today = LocalDate.now();
+        List<SalesSummary.DailyRevenue> revenueByDay = new ArrayList<>(days);
+        for (LocalDate day = today.minusDays(days - 1L); !day.isAfter(today); day = day.plusDays(1)) {
+            revenueByDay.add(new SalesSummary.DailyRevenue(day, current.revenueByDay.getOrDefault(day, BigDecimal.ZERO)));
+        }
+
+        // Bounded heap: keeps the top N without sorting every product
+        Comparator<ProductSales> byUnits = Comparator.comparingLong(ProductSales::units)
+                .thenComparing(ProductSales::productId, Comparator.reverseOrder());
+        PriorityQueue<ProductSales> best = new PriorityQueue<>(top + 1, byUnits);
+        for (ProductSales sales : current.productSales.values()) {
+            if (sales.units() <= 0) {
+                continue;
+            }
+            best.add(sales);
+            if (best.size() > top) {
+                best.poll();
+            }
+        }
+        List<ProductSales> topProducts = new ArrayList<>(best);
+        topProducts.sort(byUnits.reversed());
+
+        return new SalesSummary(current.totalRevenue.get(), totalOrders, ordersByStatus, revenueByDay, topProducts);
+    }
+
+    private static class Rollups {
+        private final Map<OrderStatus, AtomicLong> ordersByStatus = new EnumMap<>(OrderStatus.class);
+        private final ConcurrentSkipListMap<LocalDate, BigDecimal> revenueByDay = new ConcurrentSkipListMap<>();
+        private final Map<Long, ProductSales> productSales = new ConcurrentHashMap<>();
+        private final AtomicReference<BigDecimal> totalRevenue = new AtomicReference<>(BigDecimal.ZERO);
+        private final Map<Long, Integer> stockByProduct = new ConcurrentHashMap<>();
+        private final AtomicLong lowStockProducts = new AtomicLong();
+        private final AtomicLong users = new AtomicLong();
+
+        Rollups() {
+            for (OrderStatus status : OrderStatus.values()) {
+                ordersByStatus.put(status, new AtomicLong());
+            }
+        }
+    }
+}
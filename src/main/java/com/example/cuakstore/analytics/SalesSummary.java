@@ -0,0 +1,15 @@
+package com.example.cuakstore.analytics;
+
+import com.example.cuakstore.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public record SalesSummary(BigDecimal totalRevenue, long totalOrders, Map<OrderStatus, Long> ordersByStatus,
+                           List<DailyRevenue> revenueByDay, List<ProductSales> topProducts) {
+
+    public record DailyRevenue(LocalDate date, BigDecimal revenue) {
+    }
+}
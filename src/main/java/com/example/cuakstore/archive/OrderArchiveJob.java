@@ -0,0 +1,126 @@
+package com.example.cuakstore.archive;
+
+import com.example.cuakstore.model.OrderStatus;
+import com.example.cuakstore.repository.ArchivedOrderRepository;
+import com.example.cuakstore.repository.OrderItemRepository;
+import com.example.cuakstore.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves finished orders (delivered, cancelled or refunded) older than
+ * {@code archive.orders.min-age-days} from {@code orders}/{@code order_items} into the archive
+ * tables, so the hot tables and their indexes only hold orders that can still change.
+ *
+ * <p>Each chunk is locked, copied with set-based inserts and deleted in one transaction, with
+ * a pause between chunks to leave room for regular traffic. A run stops when a chunk comes
+ * back short. Moving orders between tiers publishes no events: nothing about the order
+ * changes, and readers ({@code OrderService}, {@code SalesAnalytics}) look at both tiers.
+ */
+@Component
+public class OrderArchiveJob {
+    public static final Set<OrderStatus> ARCHIVABLE_STATUSES =
+            EnumSet.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED, OrderStatus.REFUNDED);
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiveJob.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${archive.orders.enabled:true}")
+    private boolean enabled;
+
+    @Value("${archive.orders.min-age-days:180}")
+    private long minAgeDays;
+
+    @Value("${archive.orders.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${archive.orders.pause-ms:200}")
+    private long pauseMs;
+
+    private final List<String> archivableStatuses = ARCHIVABLE_STATUSES.stream().map(Enum::name).toList();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${archive.orders.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (enabled) {
+            run();
+        }
+    }
+
+    /**
+     * Archives every eligible order, chunk by chunk. Returns the number of orders moved, or -1
+     * when a run is already in progress in this instance.
+     */
+    public int run() {
+        if (!running.compareAndSet(false, true)) {
+            return -1;
+        }
+        try {
+            return archiveAll(LocalDateTime.now().minusDays(minAgeDays));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int archiveAll(LocalDateTime placedBefore) {
+        int moved = 0;
+        while (true) {
+            Integer chunk = transactionTemplate.execute(status -> moveChunk(placedBefore));
+            moved += chunk;
+            if (chunk < chunkSize) {
+                break;
+            }
+            try {
+                Thread.sleep(pauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (moved > 0) {
+            logger.info("Archived {} orders placed before {}", moved, placedBefore);
+        }
+        return moved;
+    }
+
+    private int moveChunk(LocalDateTime placedBefore) {
+        List<Long> ids = orderRepository.lockArchivableIds(archivableStatuses, placedBefore, chunkSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedOrderRepository.copyOrders(ids, LocalDateTime.now());
+        archivedOrderRepository.copyOrderItems(ids);
+        orderItemRepository.deleteByOrderIds(ids);
+        orderRepository.deleteAllByIdInBatch(ids);
+        return ids.size();
+    }
+}
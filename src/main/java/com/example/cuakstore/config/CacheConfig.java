@@ -0,0 +1,35 @@
+package com.example.cuakstore.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCT_LIST = "productList";
+    public static final String PRODUCTS_BY_CATEGORY = "productsByCategory";
+
+    @Value("${catalog.cache.spec}")
+    private String catalogCacheSpec;
+
+    /**
+     * Bounded read-through cache for the catalog. Evictions issued inside a transaction
+     * are deferred until commit so a concurrent read cannot repopulate a stale entry.
+     */
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.from(catalogCacheSpec).recordStats());
+        cacheManager.setCacheNames(List.of(PRODUCTS, PRODUCT_LIST, PRODUCTS_BY_CATEGORY));
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.cuakstore.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured datasource with a primary pool plus one pool per replica URL
+ * in {@code datasource.replicas.urls}, routed by {@link ReplicaRoutingDataSource}. Every
+ * {@code @Transactional(readOnly = true)} method then reads from a replica. Each pool reports
+ * the {@code hikaricp.connections.*} metrics under its own {@code pool} tag.
+ *
+ * <p>Every pool takes the {@code spring.datasource.hikari.*} settings; the replica ones then
+ * override the pool size and connection timeouts. A session that reads from a replica stops
+ * putting entities and query results into the second-level cache until its transaction ends.
+ */
+@Configuration
+@ConditionalOnExpression("!'${datasource.replicas.urls:}'.isBlank()")
+public class ReadReplicaConfig {
+    @Value("${datasource.replicas.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${datasource.replicas.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${datasource.replicas.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${datasource.replicas.pool-size:10}")
+    private int replicaPoolSize;
+
+    @Value("${datasource.replicas.read-your-writes-ms:5000}")
+    private long readYourWritesMs;
+
+    @Value("${datasource.replicas.retry-after-ms:30000}")
+    private long retryAfterMs;
+
+    @Value("${datasource.replicas.max-lag-ms:5000}")
+    private long maxLagMs;
+
+    @Value("${datasource.replicas.lag-query:}")
+    private String lagQuery;
+
+    /**
+     * The builder only carries the url, driver and credentials, so the Hikari settings are
+     * bound here as the auto-configured pool would have them.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primary, DataSourceProperties properties,
+                                                             MeterRegistry meterRegistry,
+                                                             ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        MicrometerMetricsTrackerFactory metrics = new MicrometerMetricsTrackerFactory(meterRegistry);
+
+        primary.setPoolName("primary");
+        primary.setMetricsTrackerFactory(metrics);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            primary.copyStateTo(replica);
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(replicaUrls.get(i).trim());
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            // Fail fast so a dead replica is skipped instead of stalling the request
+            replica.setConnectionTimeout(2000);
+            replica.setInitializationFailTimeout(-1);
+            replica.setMetricsTrackerFactory(metrics);
+            replicas.put(replica.getPoolName(), replica);
+        }
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+                primary, replicas, Duration.ofMillis(readYourWritesMs), meterRegistry);
+        routing.setRetryAfter(Duration.ofMillis(retryAfterMs));
+        routing.setMaxLag(Duration.ofMillis(maxLagMs));
+        routing.setLagQuery(lagQuery);
+        routing.setReplicaReadListener(() -> skipSecondLevelCachePuts(entityManagerFactory.getIfAvailable()));
+        return routing;
+    }
+
+    /**
+     * What a replica returns may be behind the primary, so the session that read it keeps
+     * reading the second-level cache but stops writing to it for the rest of the transaction.
+     */
+    private static void skipSecondLevelCachePuts(EntityManagerFactory entityManagerFactory) {
+        if (entityManagerFactory == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(entityManagerFactory);
+        if (holder == null) {
+            return;
+        }
+        Session session = holder.getEntityManager().unwrap(Session.class);
+        CacheMode previous = session.getCacheMode();
+        if (!previous.isPutEnabled()) {
+            return;
+        }
+        session.setCacheMode(CacheMode.GET);
+        // An open-session-in-view session outlives the transaction
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (session.isOpen()) {
+                    session.setCacheMode(previous);
+                }
+            }
+        });
+    }
+
+    /**
+     * The datasource JPA and everything else uses. The lazy proxy defers fetching a physical
+     * connection until the first statement, by which point the transaction's read-only flag
+     * is known.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.cuakstore.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sends connections for read-only transactions to a replica and everything else to the
+ * primary. Must sit behind a {@code LazyConnectionDataSourceProxy}: the transaction manager
+ * asks for a connection before the transaction is marked read-only, so the real one is only
+ * fetched when the first statement runs.
+ *
+ * <p>Replicas are picked round-robin. A replica that refuses a connection, fails the periodic
+ * health check or lags further behind than {@code maxLag} is skipped for {@code retryAfter};
+ * with no replica available reads fall back to the primary. After an authenticated user
+ * commits a write their reads stay on the primary for {@code readYourWritesWindow}, so they
+ * see their own change even if the replicas have not applied it yet.
+ *
+ * <p>Loads whose result outlives the request (caches, in-memory indexes) run inside
+ * {@link #readFromPrimary}, so a lagging replica never seeds them with old data. Everything
+ * else read from a replica is reported to the {@code replicaReadListener}.
+ *
+ * <p>Routing decisions are counted in {@code datasource.routing.connections} (tagged with the
+ * pool and the reason); replica state is exposed as {@code datasource.replica.available} and
+ * {@code datasource.replica.lag}.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private static final String PRIMARY = "primary";
+    private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+
+    private final Pool primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Cache<String, Boolean> recentWriters;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryWrites;
+    private final Counter primaryReadYourWrites;
+    private final Counter primaryFailovers;
+    private final Counter primaryForced;
+
+    private Duration retryAfter = Duration.ofSeconds(30);
+    private Duration maxLag = Duration.ofSeconds(5);
+    private String lagQuery;
+    private Runnable replicaReadListener = () -> { };
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    Duration readYourWritesWindow, MeterRegistry meterRegistry) {
+        this.primary = new Pool(PRIMARY, primary);
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWritesWindow)
+                .maximumSize(100_000)
+                .build();
+        this.primaryWrites = routed(meterRegistry, PRIMARY, "write");
+        this.primaryReadYourWrites = routed(meterRegistry, PRIMARY, "read-your-writes");
+        this.primaryFailovers = routed(meterRegistry, PRIMARY, "failover");
+        this.primaryForced = routed(meterRegistry, PRIMARY, "forced");
+        replicas.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource, routed(meterRegistry, name, "read"));
+            Gauge.builder("datasource.replica.available", replica, r -> r.isAvailable() ? 1 : 0)
+                    .description("Whether the replica currently receives reads")
+                    .tag("pool", name)
+                    .register(meterRegistry);
+            TimeGauge.builder("datasource.replica.lag", replica, TimeUnit.MILLISECONDS, r -> r.lagMs)
+                    .description("Replication lag reported by the last health check")
+                    .tag("pool", name)
+                    .register(meterRegistry);
+            this.replicas.add(replica);
+        });
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    public void setMaxLag(Duration maxLag) {
+        this.maxLag = maxLag;
+    }
+
+    /**
+     * Query run against each replica by the health check, returning its lag in milliseconds
+     * (e.g. from {@code pg_last_xact_replay_timestamp()} on Postgres). Without one, replicas
+     * are only checked for connectivity.
+     */
+    public void setLagQuery(String lagQuery) {
+        this.lagQuery = lagQuery;
+    }
+
+    /**
+     * Called on the reading thread each time a connection is taken from a replica, e.g. to keep
+     * what it reads out of shared caches.
+     */
+    public void setReplicaReadListener(Runnable replicaReadListener) {
+        this.replicaReadListener = replicaReadListener;
+    }
+
+    /**
+     * Runs {@code reads} with every connection it fetches taken from the primary. The first
+     * statement of the transaction must run inside it: a connection already fetched keeps its
+     * pool. Has no effect without replicas.
+     */
+    public static <T> T readFromPrimary(Supplier<T> reads) {
+        if (PRIMARY_READS.get() != null) {
+            return reads.get();
+        }
+        PRIMARY_READS.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            PRIMARY_READS.remove();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWriterOnCommit();
+            primaryWrites.increment();
+            return source.open(primary.target);
+        }
+        if (PRIMARY_READS.get() != null) {
+            primaryForced.increment();
+            return source.open(primary.target);
+        }
+        String user = currentUser();
+        if (user != null && recentWriters.getIfPresent(user) != null) {
+            primaryReadYourWrites.increment();
+            return source.open(primary.target);
+        }
+
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(1, replicas.size()));
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.isAvailable()) {
+                continue;
+            }
+            try {
+                Connection connection = source.open(replica.target);
+                replica.reads.increment();
+                replicaReadListener.run();
+                return connection;
+            } catch (SQLException e) {
+                replica.markDown(retryAfter);
+                logger.warn("Replica {} refused a connection, skipping it for {}: {}", replica.name, retryAfter, e.getMessage());
+            }
+        }
+        primaryFailovers.increment();
+        return source.open(primary.target);
+    }
+
+    private void rememberWriterOnCommit() {
+        String user = currentUser();
+        if (user == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(user, Boolean.TRUE);
+            }
+        });
+    }
+
+    /**
+     * Marks each replica up or down from a connectivity check and, when a lag query is set,
+     * from its replication lag.
+     */
+    @Scheduled(fixedDelayString = "${datasource.replicas.health-check-ms:5000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.target.getConnection()) {
+                if (lagQuery != null && !lagQuery.isBlank()) {
+                    replica.lagMs = queryLag(connection);
+                    if (replica.lagMs > maxLag.toMillis()) {
+                        if (replica.isAvailable()) {
+                            logger.warn("Replica {} is {} ms behind, sending its reads elsewhere", replica.name, replica.lagMs);
+                        }
+                        replica.markDown(retryAfter);
+                        continue;
+                    }
+                } else if (!connection.isValid(1)) {
+                    replica.markDown(retryAfter);
+                    continue;
+                }
+                if (!replica.isAvailable()) {
+                    logger.info("Replica {} is healthy again", replica.name);
+                }
+                replica.markUp();
+            } catch (SQLException e) {
+                if (replica.isAvailable()) {
+                    logger.warn("Replica {} failed its health check: {}", replica.name, e.getMessage());
+                }
+                replica.markDown(retryAfter);
+            }
+        }
+    }
+
+    private long queryLag(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        close(primary.target);
+        for (Replica replica : replicas) {
+            close(replica.target);
+        }
+    }
+
+    private static void close(DataSource dataSource) throws Exception {
+        if (dataSource instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private static Counter routed(MeterRegistry meterRegistry, String pool, String reason) {
+        return Counter.builder("datasource.routing.connections")
+                .description("Connections handed out by the read/write router")
+                .tag("pool", pool)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection open(DataSource dataSource) throws SQLException;
+    }
+
+    private static class Pool {
+        final String name;
+        final DataSource target;
+
+        Pool(String name, DataSource target) {
+            this.name = name;
+            this.target = target;
+        }
+    }
+
+    private static final class Replica extends Pool {
+        final Counter reads;
+        volatile long downUntil;
+        volatile long lagMs;
+
+        Replica(String name, DataSource target, Counter reads) {
+            super(name, target);
+            this.reads = reads;
+        }
+
+        boolean isAvailable() {
+            return System.currentTimeMillis() >= downUntil;
+        }
+
+        void markDown(Duration retryAfter) {
+            downUntil = System.currentTimeMillis() + retryAfter.toMillis();
+        }
+
+        void markUp() {
+            downUntil = 0;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.cuakstore.controller;
+
+import com.example.cuakstore.analytics.SalesAnalytics;
+import com.example.cuakstore.analytics.SalesSummary;
+import com.example.cuakstore.payload.response.MessageResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+    @Autowired
+    private SalesAnalytics salesAnalytics;
+
+    /**
+     * Dashboard summary, read entirely from the in-memory rollups.
+     */
+    @GetMapping("/summary")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('OWNER')")
+    public ResponseEntity<?> getSummary(
+            @RequestParam(defaultValue = "30") int days,
+            @RequestParam(defaultValue = "5") int top) {
+        if (days < 1 || days > 366 || top < 1 || top > 100) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("days must be between 1 and 366 and top between 1 and 100"));
+        }
+
+        SalesSummary sales = salesAnalytics.summary(days, top);
+        Map<String, Object> response = new HashMap<>();
+        response.put("sales", sales);
+        response.put("totalProducts", salesAnalytics.productCount());
+        response.put("lowStockProducts", salesAnalytics.lowStockProductCount());
+        response.put("totalUsers", salesAnalytics.userCount());
+        return ResponseEntity.ok(response);
+    }
+}
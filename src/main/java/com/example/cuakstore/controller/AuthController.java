@@ -8,8 +8,11 @@ import java.util.stream.Collectors;
 import jakarta.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -30,6 +33,7 @@ import com.example.cuakstore.payload.response.MessageResponse;
 import com.example.cuakstore.repository.RoleRepository;
 import com.example.cuakstore.repository.UserRepository;
 import com.example.cuakstore.security.jwt.JwtUtils;
+import com.example.cuakstore.security.services.PasswordHashingRejectedException;
 import com.example.cuakstore.security.services.UserDetailsImpl;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -54,8 +58,19 @@ public class AuthController {
     @PostMapping("/signin")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
 
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
+        } catch (PasswordHashingRejectedException e) {
+            return tooBusy(e);
+        } catch (InternalAuthenticationServiceException e) {
+            // Rejections during user lookup come back wrapped by the authentication provider
+            if (e.getCause() instanceof PasswordHashingRejectedException rejected) {
+                return tooBusy(rejected);
+            }
+            throw e;
+        }
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String jwt = jwtUtils.generateJwtToken(authentication);
@@ -87,9 +102,15 @@ public class AuthController {
         }
 
         // Create new user's account
+        String encodedPassword;
+        try {
+            encodedPassword = encoder.encode(signUpRequest.getPassword());
+        } catch (PasswordHashingRejectedException e) {
+            return tooBusy(e);
+        }
         User user = new User(signUpRequest.getUsername(), 
                              signUpRequest.getEmail(),
-                             encoder.encode(signUpRequest.getPassword()));
+                             encodedPassword);
 
         Set<String> strRoles = signUpRequest.getRoles();
         Set<Role> roles = new HashSet<>();
@@ -124,4 +145,10 @@ public class AuthController {
 
         return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
     }
+
+    private ResponseEntity<MessageResponse> tooBusy(PasswordHashingRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new MessageResponse(e.getMessage()));
+    }
 }
\ No newline at end of file
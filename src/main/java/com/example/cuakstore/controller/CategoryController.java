@@ -1,10 +1,13 @@
 package com.example.cuakstore.controller;
 
 import com.example.cuakstore.model.Category;
+import com.example.cuakstore.payload.response.CategoryResponse;
 import com.example.cuakstore.payload.response.MessageResponse;
+import com.example.cuakstore.service.CatalogVersionService;
 import com.example.cuakstore.service.CategoryService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -20,27 +23,39 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
     @GetMapping
-    public ResponseEntity<List<Category>> getAllCategories() {
-        List<Category> categories = categoryService.getAllCategories();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<?> getAllCategories(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalGet.respond(ifNoneMatch, catalogVersionService.catalogETag(),
+                catalogVersionService.collectionCacheControl(), () -> {
+                    List<Category> categories = categoryService.getAllCategories();
+                    return ResponseEntity.ok(CategoryResponse.fromAll(categories));
+                });
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getCategoryById(@PathVariable Long id) {
-        Optional<Category> category = categoryService.getCategoryById(id);
-        if (category.isPresent()) {
-            return ResponseEntity.ok(category.get());
-        } else {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(new MessageResponse("Category not found with id: " + id));
-        }
+    public ResponseEntity<?> getCategoryById(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalGet.respond(ifNoneMatch, catalogVersionService.categoryETag(id),
+                catalogVersionService.entityCacheControl(), () -> {
+                    Optional<Category> category = categoryService.getCategoryById(id);
+                    if (category.isPresent()) {
+                        return ResponseEntity.ok(CategoryResponse.from(category.get()));
+                    } else {
+                        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                                .body(new MessageResponse("Category not found with id: " + id));
+                    }
+                });
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Category>> searchCategories(@RequestParam String name) {
-        List<Category> categories = categoryService.searchCategoriesByName(name);
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<?> searchCategories(@RequestParam String name, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalGet.respond(ifNoneMatch, catalogVersionService.catalogETag(),
+                catalogVersionService.collectionCacheControl(), () -> {
+                    List<Category> categories = categoryService.searchCategoriesByName(name);
+                    return ResponseEntity.ok(CategoryResponse.fromAll(categories));
+                });
     }
 
     @PostMapping
@@ -52,7 +67,7 @@ public class CategoryController {
         }
         
         Category createdCategory = categoryService.createCategory(category);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdCategory);
+        return ResponseEntity.status(HttpStatus.CREATED).body(CategoryResponse.from(createdCategory));
     }
 
     @PutMapping("/{id}")
@@ -72,7 +87,7 @@ public class CategoryController {
         
         category.setId(id);
         Category updatedCategory = categoryService.updateCategory(category);
-        return ResponseEntity.ok(updatedCategory);
+        return ResponseEntity.ok(CategoryResponse.from(updatedCategory));
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,61 @@
+package com.example.cuakstore.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET for catalog reads. The ETag is computed before the handler body runs, so a
+ * matching {@code If-None-Match} is answered with {@code 304} without querying or serializing
+ * anything. Only successful responses carry the validator and caching headers.
+ */
+final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    static ResponseEntity<?> respond(String ifNoneMatch, String etag, CacheControl cacheControl,
+                                     Supplier<? extends ResponseEntity<?>> handler) {
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+
+        ResponseEntity<?> response = handler.get();
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        headers.setETag(etag);
+        headers.setCacheControl(cacheControl);
+        return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+    }
+
+    /**
+     * Weak comparison as required for {@code If-None-Match} (RFC 9110, section 13.1.2). A bare
+     * {@code *} is not honoured: whether the entity exists is only known after the lookup.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (stripWeak(tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
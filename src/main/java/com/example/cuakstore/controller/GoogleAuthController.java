@@ -5,17 +5,22 @@ import com.example.cuakstore.model.Role;
 import com.example.cuakstore.model.User;
 import com.example.cuakstore.payload.request.GoogleAuthRequest;
 import com.example.cuakstore.payload.response.JwtResponse;
+import com.example.cuakstore.payload.response.MessageResponse;
 import com.example.cuakstore.repository.RoleRepository;
 import com.example.cuakstore.repository.UserRepository;
 import com.example.cuakstore.security.jwt.JwtUtils;
+import com.example.cuakstore.security.services.PasswordHashingRejectedException;
 import com.example.cuakstore.security.services.UserDetailsImpl;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken.Payload;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
 import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.jackson2.JacksonFactory;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken; // Import this
@@ -59,14 +64,20 @@ public class GoogleAuthController {
     @Autowired
     private JwtUtils jwtUtils;
 
+    // Thread-safe, and keeps Google's signing keys cached between logins
+    private GoogleIdTokenVerifier verifier;
+
+    @PostConstruct
+    public void init() {
+        verifier = new GoogleIdTokenVerifier.Builder(new NetHttpTransport(), JacksonFactory.getDefaultInstance()) // Use default JacksonFactory instance
+                .setAudience(Collections.singletonList(googleClientId))
+                .build();
+    }
+
     @PostMapping("/google")
     public ResponseEntity<?> authenticateWithGoogle(@RequestBody GoogleAuthRequest authRequest) {
         try {
             // Verify the Google ID token
-            GoogleIdTokenVerifier verifier = new GoogleIdTokenVerifier.Builder(new NetHttpTransport(), JacksonFactory.getDefaultInstance()) // Use default JacksonFactory instance
-                    .setAudience(Collections.singletonList(googleClientId))
-                    .build();
-
             GoogleIdToken idToken = verifier.verify(authRequest.getCredential());
             if (idToken == null) {
                 return ResponseEntity.badRequest().body("Invalid Google ID token");
@@ -131,6 +142,10 @@ public class GoogleAuthController {
             // Log the exception for better debugging
             // logger.error("Error verifying Google token", e);
             return ResponseEntity.status(500).body("Error verifying Google token: " + e.getMessage());
+        } catch (PasswordHashingRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(new MessageResponse(e.getMessage()));
         } catch (RuntimeException e) {
             // Catch potential RuntimeExceptions like "Role not found"
             // logger.error("Error during Google authentication", e);
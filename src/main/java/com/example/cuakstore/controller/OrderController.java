@@ -3,8 +3,13 @@ package com.example.cuakstore.controller;
 import com.example.cuakstore.model.Order;
 import com.example.cuakstore.model.OrderStatus;
 import com.example.cuakstore.model.User;
+import com.example.cuakstore.payload.response.CursorPage;
 import com.example.cuakstore.payload.response.MessageResponse;
+import com.example.cuakstore.payload.response.OrderResponse;
 import com.example.cuakstore.repository.UserRepository;
+import com.example.cuakstore.service.InsufficientStockException;
+import com.example.cuakstore.service.OrderExportFormat;
+import com.example.cuakstore.service.OrderExportService;
 import com.example.cuakstore.service.OrderService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,12 +17,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -30,19 +39,22 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderExportService orderExportService;
+
     @Autowired
     private UserRepository userRepository;
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('OWNER')")
-    public ResponseEntity<List<Order>> getAllOrders() {
+    public ResponseEntity<List<OrderResponse>> getAllOrders() {
         List<Order> orders = orderService.getAllOrders();
-        return ResponseEntity.ok(orders);
+        return ResponseEntity.ok(OrderResponse.fromAll(orders));
     }
 
     @GetMapping("/paged")
     @PreAuthorize("hasRole('ADMIN') or hasRole('OWNER')")
-    public ResponseEntity<Page<Order>> getAllOrdersPaged(
+    public ResponseEntity<Page<OrderResponse>> getAllOrdersPaged(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
@@ -52,13 +64,57 @@ public class OrderController {
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
         Page<Order> orders = orderService.getAllOrders(pageable);
         
-        return ResponseEntity.ok(orders);
+        return ResponseEntity.ok(orders.map(OrderResponse::from));
+    }
+
+    @GetMapping("/cursor")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('OWNER')")
+    public ResponseEntity<?> getAllOrdersByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy) {
+        if (size < 1 || size > 100) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Page size must be between 1 and 100"));
+        }
+
+        try {
+            CursorPage<Order> orders = orderService.getOrdersByCursor(sortBy, cursor, size);
+            return ResponseEntity.ok(orders.map(OrderResponse::from));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Streams every matching order with its items as NDJSON or CSV. The body is written from a
+     * database cursor while the client reads it, so the whole table is never held in memory.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('OWNER')")
+    public ResponseEntity<?> exportOrders(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        OrderExportFormat exportFormat;
+        try {
+            exportFormat = OrderExportFormat.fromString(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+
+        StreamingResponseBody body = out -> orderExportService.export(exportFormat, status, from, to, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders." + exportFormat.getExtension() + "\"")
+                .body(body);
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN') or hasRole('OWNER')")
     public ResponseEntity<?> getOrderById(@PathVariable Long id) {
-        Optional<Order> order = orderService.getOrderById(id);
+        Optional<Order> order = orderService.getOrderWithItems(id);
         if (order.isPresent()) {
             // Check if the user is the owner of the order or has admin/owner role
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -67,7 +123,7 @@ public class OrderController {
             if (order.get().getUser().getUsername().equals(currentUsername) || 
                 authentication.getAuthorities().stream()
                     .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN") || a.getAuthority().equals("ROLE_OWNER"))) {
-                return ResponseEntity.ok(order.get());
+                return ResponseEntity.ok(OrderResponse.from(order.get()));
             } else {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(new MessageResponse("You don't have permission to view this order"));
@@ -84,7 +140,7 @@ public class OrderController {
         Optional<User> user = userRepository.findById(userId);
         if (user.isPresent()) {
             List<Order> orders = orderService.getOrdersByUser(user.get());
-            return ResponseEntity.ok(orders);
+            return ResponseEntity.ok(OrderResponse.fromAll(orders));
         } else {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(new MessageResponse("User not found with id: " + userId));
@@ -100,7 +156,7 @@ public class OrderController {
         Optional<User> user = userRepository.findByUsername(currentUsername);
         if (user.isPresent()) {
             List<Order> orders = orderService.getOrdersByUser(user.get());
-            return ResponseEntity.ok(orders);
+            return ResponseEntity.ok(OrderResponse.fromAll(orders));
         } else {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(new MessageResponse("User not found"));
@@ -109,9 +165,9 @@ public class OrderController {
 
     @GetMapping("/status/{status}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('OWNER')")
-    public ResponseEntity<List<Order>> getOrdersByStatus(@PathVariable OrderStatus status) {
+    public ResponseEntity<List<OrderResponse>> getOrdersByStatus(@PathVariable OrderStatus status) {
         List<Order> orders = orderService.getOrdersByStatus(status);
-        return ResponseEntity.ok(orders);
+        return ResponseEntity.ok(OrderResponse.fromAll(orders));
     }
 
     @PostMapping
@@ -128,8 +184,15 @@ public class OrderController {
         
         order.setUser(user.get());
         order.setStatus(OrderStatus.PENDING);
-        Order createdOrder = orderService.createOrder(order);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdOrder);
+        try {
+            Order createdOrder = orderService.createOrder(order);
+            return ResponseEntity.status(HttpStatus.CREATED).body(OrderResponse.from(createdOrder));
+        } catch (InsufficientStockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new MessageResponse(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
     }
 
     @PutMapping("/{id}/status")
@@ -143,8 +206,16 @@ public class OrderController {
                     .body(new MessageResponse("Order not found with id: " + id));
         }
         
-        Order updatedOrder = orderService.updateOrderStatus(id, status);
-        return ResponseEntity.ok(updatedOrder);
+        try {
+            Order updatedOrder = orderService.updateOrderStatus(id, status);
+            return ResponseEntity.ok(OrderResponse.from(updatedOrder));
+        } catch (InsufficientStockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new MessageResponse(e.getMessage()));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new MessageResponse("Order " + id + " was modified concurrently, please retry"));
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -2,11 +2,13 @@ package com.example.cuakstore.controller;
 
 import com.example.cuakstore.model.Order;
 import com.example.cuakstore.payload.response.MessageResponse;
+import com.example.cuakstore.payment.PaymentGatewayUnavailableException;
+import com.example.cuakstore.payment.PaymentNotificationService;
+import com.example.cuakstore.payment.PaymentPreference;
 import com.example.cuakstore.service.OrderService;
 import com.example.cuakstore.service.PaymentService;
-import com.mercadopago.resources.payment.Payment;
-import com.mercadopago.resources.preference.Preference;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -20,12 +22,17 @@ import java.util.Optional;
 @RestController
 @RequestMapping("/api/payments")
 public class PaymentController {
+    private static final int PAYMENT_RETRY_AFTER_SECONDS = 30;
+
     @Autowired
     private PaymentService paymentService;
 
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private PaymentNotificationService paymentNotificationService;
+
     @PostMapping("/create-preference/{orderId}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN') or hasRole('OWNER')")
     public ResponseEntity<?> createPaymentPreference(@PathVariable Long orderId) {
@@ -37,33 +44,40 @@ public class PaymentController {
 
         Order order = orderOptional.get();
         try {
-            Preference preference = paymentService.createPreference(order);
+            PaymentPreference preference = paymentService.createPreference(order);
             
             Map<String, Object> response = new HashMap<>();
-            response.put("preferenceId", preference.getId());
-            response.put("initPoint", preference.getInitPoint());
-            response.put("sandboxInitPoint", preference.getSandboxInitPoint());
+            response.put("preferenceId", preference.id());
+            response.put("initPoint", preference.initPoint());
+            response.put("sandboxInitPoint", preference.sandboxInitPoint());
             
             return ResponseEntity.ok(response);
+        } catch (PaymentGatewayUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(PAYMENT_RETRY_AFTER_SECONDS))
+                    .body(new MessageResponse("Payments are temporarily unavailable, please try again shortly"));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new MessageResponse("Error creating payment preference: " + e.getMessage()));
         }
     }
 
+    /**
+     * Mercado Pago webhook. The notification is stored and acknowledged right away; the
+     * payment is fetched and applied to its order in the background.
+     */
     @PostMapping("/webhook")
     public ResponseEntity<?> handlePaymentWebhook(
             @RequestParam(required = false) String type,
-            @RequestParam(required = false) String data_id) {
-        
-        if ("payment".equals(type) && data_id != null) {
-            try {
-                Payment payment = paymentService.processPayment(data_id);
-                return ResponseEntity.ok(new MessageResponse("Payment processed successfully"));
-            } catch (Exception e) {
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(new MessageResponse("Error processing payment: " + e.getMessage()));
+            @RequestParam(required = false) String data_id,
+            @RequestParam(name = "data.id", required = false) String dataId) {
+        String paymentId = data_id != null ? data_id : dataId;
+        if ("payment".equals(type) && paymentId != null) {
+            if (!paymentId.matches("\\d{1,20}")) {
+                return ResponseEntity.badRequest().body(new MessageResponse("Invalid payment id"));
             }
+            paymentNotificationService.enqueue(paymentId);
+            return ResponseEntity.ok(new MessageResponse("Payment notification queued"));
         }
         
         return ResponseEntity.ok(new MessageResponse("Webhook received"));
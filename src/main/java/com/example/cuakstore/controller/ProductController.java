@@ -2,23 +2,38 @@ package com.example.cuakstore.controller;
 
 import com.example.cuakstore.model.Category;
 import com.example.cuakstore.model.Product;
+import com.example.cuakstore.payload.response.CursorPage;
 import com.example.cuakstore.payload.response.MessageResponse;
+import com.example.cuakstore.payload.response.ProductImportResponse;
+import com.example.cuakstore.payload.response.ProductResponse;
+import com.example.cuakstore.search.Suggestion;
+import com.example.cuakstore.search.SuggestionService;
+import com.example.cuakstore.service.CatalogVersionService;
 import com.example.cuakstore.service.CategoryService;
+import com.example.cuakstore.service.HotStockService;
+import com.example.cuakstore.service.ProductImportService;
 import com.example.cuakstore.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -30,61 +45,123 @@ public class ProductController {
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private HotStockService hotStockService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<?> getAllProducts(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalGet.respond(ifNoneMatch, catalogVersionService.catalogETag(),
+                catalogVersionService.collectionCacheControl(), () -> {
+                    List<ProductResponse> products = productService.getAllProducts();
+                    return ResponseEntity.ok(withBudgets(products));
+                });
     }
 
     @GetMapping("/paged")
-    public ResponseEntity<Page<Product>> getAllProductsPaged(
+    public ResponseEntity<?> getAllProductsPaged(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "asc") String direction) {
-        
-        Sort.Direction sortDirection = direction.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
-        Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
-        Page<Product> products = productService.getAllProducts(pageable);
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
-        return ResponseEntity.ok(products);
+        return ConditionalGet.respond(ifNoneMatch, catalogVersionService.catalogETag(),
+                catalogVersionService.collectionCacheControl(), () -> {
+                    Sort.Direction sortDirection = direction.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+                    Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
+                    Page<Product> products = productService.getAllProducts(pageable);
+
+                    return ResponseEntity.ok(products.map(ProductResponse::from).map(hotStockService::withBudget));
+                });
     }
 
-    @GetMapping("/{id}")
-    public ResponseEntity<?> getProductById(@PathVariable Long id) {
-        Optional<Product> product = productService.getProductById(id);
-        if (product.isPresent()) {
-            return ResponseEntity.ok(product.get());
-        } else {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(new MessageResponse("Product not found with id: " + id));
+    @GetMapping("/cursor")
+    public ResponseEntity<?> getAllProductsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (size < 1 || size > 100) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Page size must be between 1 and 100"));
         }
+
+        return ConditionalGet.respond(ifNoneMatch, catalogVersionService.catalogETag(),
+                catalogVersionService.collectionCacheControl(), () -> {
+                    try {
+                        CursorPage<Product> products = productService.getProductsByCursor(sortBy, cursor, size);
+                        return ResponseEntity.ok(products.map(ProductResponse::from).map(hotStockService::withBudget));
+                    } catch (IllegalArgumentException e) {
+                        return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+                    }
+                });
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getProductById(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalGet.respond(ifNoneMatch, catalogVersionService.productETag(id),
+                catalogVersionService.entityCacheControl(), () -> {
+                    Optional<ProductResponse> product = productService.getProductById(id);
+                    if (product.isPresent()) {
+                        return ResponseEntity.ok(hotStockService.withBudget(product.get()));
+                    } else {
+                        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                                .body(new MessageResponse("Product not found with id: " + id));
+                    }
+                });
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<?> getProductsByCategory(@PathVariable Long categoryId) {
-        Optional<Category> category = categoryService.getCategoryById(categoryId);
-        if (category.isPresent()) {
-            List<Product> products = productService.getProductsByCategory(category.get());
-            return ResponseEntity.ok(products);
-        } else {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(new MessageResponse("Category not found with id: " + categoryId));
-        }
+    public ResponseEntity<?> getProductsByCategory(@PathVariable Long categoryId, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalGet.respond(ifNoneMatch, catalogVersionService.catalogETag(),
+                catalogVersionService.collectionCacheControl(), () -> {
+                    Optional<Category> category = categoryService.getCategoryById(categoryId);
+                    if (category.isPresent()) {
+                        List<ProductResponse> products = productService.getProductsByCategory(category.get());
+                        return ResponseEntity.ok(withBudgets(products));
+                    } else {
+                        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                                .body(new MessageResponse("Category not found with id: " + categoryId));
+                    }
+                });
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam String name) {
-        List<Product> products = productService.searchProductsByName(name);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<?> searchProducts(@RequestParam String name, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalGet.respond(ifNoneMatch, catalogVersionService.catalogETag(),
+                catalogVersionService.collectionCacheControl(), () -> {
+                    List<Product> products = productService.searchProductsByName(name);
+                    return ResponseEntity.ok(withBudgets(ProductResponse.fromAll(products)));
+                });
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Suggestion>> suggestProducts(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<Suggestion> suggestions = suggestionService.suggest(prefix, limit);
+        return ResponseEntity.ok(suggestions);
     }
 
     @GetMapping("/price-range")
-    public ResponseEntity<List<Product>> getProductsByPriceRange(
+    public ResponseEntity<?> getProductsByPriceRange(
             @RequestParam BigDecimal minPrice,
-            @RequestParam BigDecimal maxPrice) {
-        List<Product> products = productService.getProductsByPriceRange(minPrice, maxPrice);
-        return ResponseEntity.ok(products);
+            @RequestParam BigDecimal maxPrice,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalGet.respond(ifNoneMatch, catalogVersionService.catalogETag(),
+                catalogVersionService.collectionCacheControl(), () -> {
+                    List<Product> products = productService.getProductsByPriceRange(minPrice, maxPrice);
+                    return ResponseEntity.ok(withBudgets(ProductResponse.fromAll(products)));
+                });
     }
 
     @PostMapping
@@ -100,7 +177,28 @@ public class ProductController {
         }
         
         Product createdProduct = productService.createProduct(product);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdProduct);
+        return ResponseEntity.status(HttpStatus.CREATED).body(ProductResponse.from(createdProduct));
+    }
+
+    /**
+     * Bulk import from a CSV (header row with name, description, price, imageUrl, stockQuantity,
+     * category) or a JSON array of the same fields. The request body is read as a stream; the
+     * response lists how many rows were imported and why the others were rejected.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE})
+    @PreAuthorize("hasRole('OWNER')")
+    public ResponseEntity<?> importProducts(HttpServletRequest request) {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        try (InputStream body = request.getInputStream()) {
+            ProductImportResponse result = MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                    ? productImportService.importJson(body)
+                    : productImportService.importCsv(body);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Could not read upload: " + e.getMessage()));
+        }
     }
 
     @PutMapping("/{id}")
@@ -122,7 +220,7 @@ public class ProductController {
         
         product.setId(id);
         Product updatedProduct = productService.updateProduct(product);
-        return ResponseEntity.ok(updatedProduct);
+        return ResponseEntity.ok(ProductResponse.from(updatedProduct));
     }
 
     @DeleteMapping("/{id}")
@@ -136,4 +234,34 @@ public class ProductController {
         productService.deleteProduct(id);
         return ResponseEntity.ok(new MessageResponse("Product deleted successfully"));
     }
+
+    @GetMapping("/hot")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('OWNER')")
+    public ResponseEntity<Map<Long, Long>> getHotProductBudgets() {
+        return ResponseEntity.ok(hotStockService.getBudgets());
+    }
+
+    @PutMapping("/{id}/hot")
+    @PreAuthorize("hasRole('OWNER')")
+    public ResponseEntity<?> markProductHot(@PathVariable Long id) {
+        if (!hotStockService.markHot(id)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new MessageResponse("Product not found with id: " + id));
+        }
+        return ResponseEntity.ok(new MessageResponse("Product marked as hot"));
+    }
+
+    @DeleteMapping("/{id}/hot")
+    @PreAuthorize("hasRole('OWNER')")
+    public ResponseEntity<?> unmarkProductHot(@PathVariable Long id) {
+        if (!hotStockService.unmarkHot(id)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new MessageResponse("Product is not marked as hot: " + id));
+        }
+        return ResponseEntity.ok(new MessageResponse("Product is no longer hot"));
+    }
+
+    private List<ProductResponse> withBudgets(List<ProductResponse> products) {
+        return products.stream().map(hotStockService::withBudget).collect(Collectors.toList());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.example.cuakstore.event;
+
+import com.example.cuakstore.model.Category;
+
+/**
+ * Published by {@code CategoryService} whenever a category is created, updated or deleted.
+ * {@code category} is {@code null} for deletions.
+ */
+public record CategoryChangedEvent(Long categoryId, Category category) {
+
+    public static CategoryChangedEvent saved(Category category) {
+        return new CategoryChangedEvent(category.getId(), category);
+    }
+
+    public static CategoryChangedEvent deleted(Long categoryId) {
+        return new CategoryChangedEvent(categoryId, null);
+    }
+
+    public boolean isDeleted() {
+        return category == null;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.cuakstore.event;
+
+import com.example.cuakstore.model.Order;
+import com.example.cuakstore.model.OrderStatus;
+
+/**
+ * Published by {@code OrderService} inside the transaction that creates an order or changes
+ * its status. {@code previousStatus} is {@code null} for a newly created order.
+ * {@code stockReserved} is set when the publisher already reserved stock for the new status.
+ */
+public record OrderStatusChangedEvent(Order order, OrderStatus previousStatus, boolean stockReserved) {
+
+    public OrderStatusChangedEvent(Order order, OrderStatus previousStatus) {
+        this(order, previousStatus, false);
+    }
+
+    public OrderStatus newStatus() {
+        return order.getStatus();
+    }
+}
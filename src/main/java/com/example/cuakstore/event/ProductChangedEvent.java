@@ -0,0 +1,22 @@
+package com.example.cuakstore.event;
+
+import com.example.cuakstore.model.Product;
+
+/**
+ * Published by {@code ProductService} whenever a product is created, updated or deleted.
+ * {@code product} is {@code null} for deletions.
+ */
+public record ProductChangedEvent(Long productId, Product product) {
+
+    public static ProductChangedEvent saved(Product product) {
+        return new ProductChangedEvent(product.getId(), product);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(productId, null);
+    }
+
+    public boolean isDeleted() {
+        return product == null;
+    }
+}
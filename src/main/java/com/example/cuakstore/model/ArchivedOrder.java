@@ -0,0 +1,81 @@
+package com.example.cuakstore.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A finished order moved out of {@code orders} by {@code OrderArchiveJob}. Archived orders are
+ * read-only; {@link #toOrder()} gives callers the same shape as a live order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Immutable
+@Table(name = "orders_archive")
+public class ArchivedOrder {
+    @Id
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    private LocalDateTime orderDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private OrderStatus status;
+
+    private BigDecimal totalAmount;
+
+    private String shippingAddress;
+
+    private String paymentId;
+
+    private String paymentStatus;
+
+    private Long version;
+
+    private LocalDateTime archivedAt;
+
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @OneToMany(mappedBy = "order")
+    private Set<ArchivedOrderItem> orderItems = new HashSet<>();
+
+    /**
+     * Detached copy as an {@link Order}. It is not managed, so changes to it are not saved.
+     */
+    public Order toOrder() {
+        Order order = new Order();
+        order.setId(id);
+        order.setUser(user);
+        order.setOrderDate(orderDate);
+        order.setStatus(status);
+        order.setTotalAmount(totalAmount);
+        order.setShippingAddress(shippingAddress);
+        order.setPaymentId(paymentId);
+        order.setPaymentStatus(paymentStatus);
+        order.setVersion(version);
+        for (ArchivedOrderItem archivedItem : orderItems) {
+            OrderItem item = new OrderItem();
+            item.setId(archivedItem.getId());
+            item.setProduct(archivedItem.getProduct());
+            item.setQuantity(archivedItem.getQuantity());
+            item.setPrice(archivedItem.getPrice());
+            order.addOrderItem(item);
+        }
+        return order;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.cuakstore.model;
+
+/**
+ * Hibernate second-level cache regions. Each one is declared in {@code ehcache.xml}; a region
+ * missing from that file fails startup instead of silently getting an unbounded cache.
+ */
+public final class CacheRegions {
+    public static final String ROLES = "roles";
+    public static final String CATEGORIES = "categories";
+    public static final String REFERENCE_QUERIES = "reference-queries";
+
+    private CacheRegions() {
+    }
+}
@@ -1,10 +1,13 @@
 package com.example.cuakstore.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -41,6 +44,20 @@ public class Order {
 
     private String paymentStatus;
 
+    // Set when the order needs a person to look at it, e.g. a payment approved after the
+    // order was cancelled and its stock sold; such orders are never archived. Server-side only
+    @JsonIgnore
+    private String reviewReason;
+
+    // Existing rows get 0 when the column is added; new orders are stamped on insert. Never
+    // taken from request bodies: a client-supplied version would make a new order look detached
+    @JsonIgnore
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0 not null")
+    private Long version;
+
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
     private Set<OrderItem> orderItems = new HashSet<>();
 
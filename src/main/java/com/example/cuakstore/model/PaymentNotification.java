@@ -0,0 +1,63 @@
+package com.example.cuakstore.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A payment webhook waiting to be processed. There is one row per payment id: repeated
+ * notifications for the same payment reopen or flag the existing row instead of adding more.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "payment_notifications",
+       uniqueConstraints = @UniqueConstraint(columnNames = "paymentId"),
+       indexes = @Index(name = "idx_payment_notifications_due", columnList = "status, nextAttemptAt"))
+public class PaymentNotification {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank
+    @Column(nullable = false, length = 64)
+    private String paymentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private PaymentNotificationStatus status;
+
+    private int attempts;
+
+    // Another notification arrived while this one was being processed
+    private boolean redeliver;
+
+    @NotNull
+    private LocalDateTime receivedAt;
+
+    private LocalDateTime nextAttemptAt;
+
+    private LocalDateTime lockedUntil;
+
+    // Set by each claim; only the worker holding it may record the outcome
+    @Column(length = 36)
+    private String leaseId;
+
+    private LocalDateTime processedAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    public PaymentNotification(String paymentId, LocalDateTime receivedAt) {
+        this.paymentId = paymentId;
+        this.status = PaymentNotificationStatus.PENDING;
+        this.receivedAt = receivedAt;
+        this.nextAttemptAt = receivedAt;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.cuakstore.model;
+
+public enum PaymentNotificationStatus {
+    PENDING,
+    PROCESSING,
+    DONE,
+    FAILED
+}
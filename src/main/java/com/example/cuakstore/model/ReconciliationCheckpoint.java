@@ -0,0 +1,44 @@
+package com.example.cuakstore.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * How far a batch job has got through its keyset, so a restarted instance resumes after the
+ * last committed chunk instead of starting over. The row also carries the lease of the
+ * instance currently running the job.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "reconciliation_checkpoints")
+public class ReconciliationCheckpoint {
+    @Id
+    @Column(length = 50)
+    private String jobName;
+
+    // Highest id processed in the current pass; 0 when a new pass starts
+    private long lastId;
+
+    private LocalDateTime passStartedAt;
+
+    private LocalDateTime updatedAt;
+
+    // Held by the instance running the job until lockedUntil; extended with every chunk
+    @Column(length = 36)
+    private String leaseId;
+
+    private LocalDateTime lockedUntil;
+
+    public ReconciliationCheckpoint(String jobName, long lastId, LocalDateTime passStartedAt, LocalDateTime updatedAt) {
+        this.jobName = jobName;
+        this.lastId = lastId;
+        this.passStartedAt = passStartedAt;
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.cuakstore.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset pagination. Encodes the sort key name, the
+ * sort value of the last row returned and its id, so the next page can be fetched
+ * with a seek predicate on {@code (sortKey, id)} instead of an OFFSET.
+ */
+public final class KeysetCursor {
+    private static final String SEPARATOR = "|";
+
+    private final String sortKey;
+    private final Long id;
+    private final String value;
+
+    private KeysetCursor(String sortKey, Long id, String value) {
+        this.sortKey = sortKey;
+        this.id = id;
+        this.value = value;
+    }
+
+    public static KeysetCursor of(String sortKey, Long id, Object value) {
+        return new KeysetCursor(sortKey, id, String.valueOf(value));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new KeysetCursor(parts[0], Long.parseLong(parts[1]), parts[2]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public String encode() {
+        String raw = sortKey + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getSortKey() {
+        return sortKey;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getValue() {
+        return value;
+    }
+}
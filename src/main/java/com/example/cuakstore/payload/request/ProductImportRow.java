@@ -0,0 +1,66 @@
+package com.example.cuakstore.payload.request;
+
+import java.math.BigDecimal;
+
+/**
+ * One product of a bulk import. {@code category} is the category name, resolved on import.
+ */
+public class ProductImportRow {
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private String imageUrl;
+    private Integer stockQuantity;
+    private String category;
+
+    public ProductImportRow() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(Integer stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+}
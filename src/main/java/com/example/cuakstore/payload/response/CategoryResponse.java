@@ -0,0 +1,38 @@
+package com.example.cuakstore.payload.response;
+
+import com.example.cuakstore.model.Category;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class CategoryResponse {
+    private final Long id;
+    private final String name;
+    private final String description;
+
+    public CategoryResponse(Long id, String name, String description) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+    }
+
+    public static CategoryResponse from(Category category) {
+        return new CategoryResponse(category.getId(), category.getName(), category.getDescription());
+    }
+
+    public static List<CategoryResponse> fromAll(List<Category> categories) {
+        return categories.stream().map(CategoryResponse::from).collect(Collectors.toList());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
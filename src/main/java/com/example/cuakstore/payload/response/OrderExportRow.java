@@ -0,0 +1,16 @@
+package com.example.cuakstore.payload.response;
+
+import com.example.cuakstore.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One order line as read by the export query: the order columns repeated for each of its
+ * items. Orders without items produce a single row with null item columns.
+ */
+public record OrderExportRow(Long orderId, Long userId, String username, LocalDateTime orderDate,
+                             OrderStatus status, BigDecimal totalAmount, String shippingAddress,
+                             String paymentId, String paymentStatus, Long itemId, Long productId,
+                             String productName, Integer quantity, BigDecimal price) {
+}
@@ -0,0 +1,58 @@
+package com.example.cuakstore.payload.response;
+
+import com.example.cuakstore.model.OrderItem;
+
+import java.math.BigDecimal;
+
+public class OrderItemResponse {
+    private final Long id;
+    private final Long productId;
+    private final String productName;
+    private final Integer quantity;
+    private final BigDecimal price;
+    private final BigDecimal subtotal;
+
+    public OrderItemResponse(Long id, Long productId, String productName, Integer quantity,
+                             BigDecimal price, BigDecimal subtotal) {
+        this.id = id;
+        this.productId = productId;
+        this.productName = productName;
+        this.quantity = quantity;
+        this.price = price;
+        this.subtotal = subtotal;
+    }
+
+    public static OrderItemResponse from(OrderItem item) {
+        return new OrderItemResponse(
+                item.getId(),
+                item.getProduct() != null ? item.getProduct().getId() : null,
+                item.getProduct() != null ? item.getProduct().getName() : null,
+                item.getQuantity(),
+                item.getPrice(),
+                item.getSubtotal());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public BigDecimal getSubtotal() {
+        return subtotal;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.cuakstore.payload.response;
+
+import com.example.cuakstore.model.Order;
+import com.example.cuakstore.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Read model for orders. Built from an order whose user, items and item products were
+ * fetched up front, so serializing it never triggers lazy loading.
+ */
+public class OrderResponse {
+    private final Long id;
+    private final Long userId;
+    private final String username;
+    private final LocalDateTime orderDate;
+    private final OrderStatus status;
+    private final BigDecimal totalAmount;
+    private final String shippingAddress;
+    private final String paymentId;
+    private final String paymentStatus;
+    private final List<OrderItemResponse> items;
+
+    public OrderResponse(Long id, Long userId, String username, LocalDateTime orderDate, OrderStatus status,
+                         BigDecimal totalAmount, String shippingAddress, String paymentId, String paymentStatus,
+                         List<OrderItemResponse> items) {
+        this.id = id;
+        this.userId = userId;
+        this.username = username;
+        this.orderDate = orderDate;
+        this.status = status;
+        this.totalAmount = totalAmount;
+        this.shippingAddress = shippingAddress;
+        this.paymentId = paymentId;
+        this.paymentStatus = paymentStatus;
+        this.items = items;
+    }
+
+    public static OrderResponse from(Order order) {
+        List<OrderItemResponse> items = order.getOrderItems().stream()
+                .map(OrderItemResponse::from)
+                .sorted(Comparator.comparing(OrderItemResponse::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .collect(Collectors.toList());
+
+        return new OrderResponse(
+                order.getId(),
+                order.getUser() != null ? order.getUser().getId() : null,
+                order.getUser() != null ? order.getUser().getUsername() : null,
+                order.getOrderDate(),
+                order.getStatus(),
+                order.getTotalAmount(),
+                order.getShippingAddress(),
+                order.getPaymentId(),
+                order.getPaymentStatus(),
+                items);
+    }
+
+    public static List<OrderResponse> fromAll(List<Order> orders) {
+        return orders.stream().map(OrderResponse::from).collect(Collectors.toList());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public String getShippingAddress() {
+        return shippingAddress;
+    }
+
+    public String getPaymentId() {
+        return paymentId;
+    }
+
+    public String getPaymentStatus() {
+        return paymentStatus;
+    }
+
+    public List<OrderItemResponse> getItems() {
+        return items;
+    }
+}
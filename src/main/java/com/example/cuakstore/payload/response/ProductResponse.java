@@ -0,0 +1,99 @@
+package com.example.cuakstore.payload.response;
+
+import com.example.cuakstore.model.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Read model for products. Carries the category as a flat {@link CategoryResponse} and
+ * never touches the product's order history.
+ */
+public class ProductResponse {
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final BigDecimal price;
+    private final String imageUrl;
+    private final Integer stockQuantity;
+    private final CategoryResponse category;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+
+    public ProductResponse(Long id, String name, String description, BigDecimal price, String imageUrl,
+                           Integer stockQuantity, CategoryResponse category, LocalDateTime createdAt,
+                           LocalDateTime updatedAt) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.imageUrl = imageUrl;
+        this.stockQuantity = stockQuantity;
+        this.category = category;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    public static ProductResponse from(Product product) {
+        return new ProductResponse(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getImageUrl(),
+                product.getStockQuantity(),
+                product.getCategory() != null ? CategoryResponse.from(product.getCategory()) : null,
+                product.getCreatedAt(),
+                product.getUpdatedAt());
+    }
+
+    public static List<ProductResponse> fromAll(List<Product> products) {
+        return products.stream().map(ProductResponse::from).collect(Collectors.toList());
+    }
+
+    /**
+     * Copy with a different stock figure; everything else is shared.
+     */
+    public ProductResponse withStockQuantity(Integer stockQuantity) {
+        return new ProductResponse(id, name, description, price, imageUrl, stockQuantity, category,
+                createdAt, updatedAt);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public CategoryResponse getCategory() {
+        return category;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.cuakstore.payment;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.math.BigDecimal;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Mercado Pago REST API client. Each operation has its own read timeout, bulkhead (cap on
+ * concurrent calls, rejecting immediately when full) and circuit breaker. The breaker opens
+ * when too many recent calls failed or were slow, rejects calls while open, and after
+ * {@code wait-open-ms} lets a few probe calls through in half-open state to decide whether
+ * to close again. 4xx answers are the caller's problem and do not count as failures.
+ *
+ * <p>Metrics: {@code mercadopago.requests} (by operation and outcome) plus the resilience4j
+ * circuit breaker and bulkhead meters.
+ */
+@Component
+public class MercadoPagoPaymentGateway implements PaymentGateway {
+    static final String PAYMENTS = "mercadopago-payments";
+    static final String PREFERENCES = "mercadopago-preferences";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${mercadopago.access.token}")
+    private String accessToken;
+
+    @Value("${mercadopago.base-url:https://api.mercadopago.com}")
+    private String baseUrl;
+
+    @Value("${mercadopago.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${mercadopago.payments.timeout-ms:3000}")
+    private long paymentsTimeoutMs;
+
+    @Value("${mercadopago.preferences.timeout-ms:5000}")
+    private long preferencesTimeoutMs;
+
+    @Value("${mercadopago.bulkhead.max-concurrent-calls:20}")
+    private int maxConcurrentCalls;
+
+    @Value("${mercadopago.circuit-breaker.window-size:20}")
+    private int windowSize;
+
+    @Value("${mercadopago.circuit-breaker.minimum-calls:10}")
+    private int minimumCalls;
+
+    @Value("${mercadopago.circuit-breaker.failure-rate-threshold:50}")
+    private float failureRateThreshold;
+
+    @Value("${mercadopago.circuit-breaker.slow-call-ms:2000}")
+    private long slowCallMs;
+
+    @Value("${mercadopago.circuit-breaker.wait-open-ms:30000}")
+    private long waitOpenMs;
+
+    @Value("${mercadopago.circuit-breaker.half-open-calls:3}")
+    private int halfOpenCalls;
+
+    private RestClient paymentsClient;
+    private RestClient preferencesClient;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private BulkheadRegistry bulkheadRegistry;
+
+    @PostConstruct
+    public void init() {
+        // One JDK HttpClient (and connection pool) shared by both operations
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        paymentsClient = restClient(httpClient, paymentsTimeoutMs);
+        preferencesClient = restClient(httpClient, preferencesTimeoutMs);
+
+        circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(windowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallMs))
+                .slowCallRateThreshold(failureRateThreshold)
+                .waitDurationInOpenState(Duration.ofMillis(waitOpenMs))
+                .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                .ignoreExceptions(HttpClientErrorException.class, BulkheadFullException.class)
+                .build());
+        bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(meterRegistry);
+    }
+
+    @Override
+    public PaymentInfo getPayment(String paymentId) {
+        PaymentResponse payment = call(PAYMENTS, () -> paymentsClient.get()
+                .uri("/v1/payments/{id}", paymentId)
+                .retrieve()
+                .body(PaymentResponse.class), "payment " + paymentId);
+        return new PaymentInfo(String.valueOf(payment.id()), payment.status(), payment.externalReference());
+    }
+
+    @Override
+    public PaymentPreference createPreference(String title, BigDecimal amount, String externalReference) {
+        PreferenceRequest request = new PreferenceRequest(
+                List.of(new PreferenceItem(title, 1, amount)), externalReference);
+        PreferenceResponse preference = call(PREFERENCES, () -> preferencesClient.post()
+                .uri("/checkout/preferences")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(request)
+                .retrieve()
+                .body(PreferenceResponse.class), "preference");
+        return new PaymentPreference(preference.id(), preference.initPoint(), preference.sandboxInitPoint());
+    }
+
+    CircuitBreaker circuitBreaker(String operation) {
+        return circuitBreakerRegistry.circuitBreaker(operation);
+    }
+
+    /**
+     * Runs {@code request} through the operation's bulkhead and circuit breaker. A 2xx answer
+     * without a body counts as a failed call.
+     */
+    private <T> T call(String operation, Supplier<T> request, String resource) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(operation);
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(operation);
+        Supplier<T> guarded = CircuitBreaker.decorateSupplier(circuitBreaker,
+                Bulkhead.decorateSupplier(bulkhead, () -> {
+                    T body = request.get();
+                    if (body == null) {
+                        throw new PaymentGatewayException("Mercado Pago returned no " + resource);
+                    }
+                    return body;
+                }));
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return guarded.get();
+        } catch (CallNotPermittedException e) {
+            outcome = "circuit_open";
+            throw new PaymentGatewayUnavailableException("Mercado Pago is unavailable (circuit open)", e);
+        } catch (BulkheadFullException e) {
+            outcome = "bulkhead_full";
+            throw new PaymentGatewayUnavailableException("Too many concurrent Mercado Pago calls", e);
+        } catch (HttpClientErrorException e) {
+            outcome = "client_error";
+            throw new PaymentGatewayException("Mercado Pago rejected the request: " + e.getStatusCode(), e);
+        } catch (RestClientException e) {
+            outcome = "error";
+            throw new PaymentGatewayException("Mercado Pago call failed: " + e.getMessage(), e);
+        } catch (PaymentGatewayException e) {
+            outcome = "empty_response";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("mercadopago.requests")
+                    .description("Mercado Pago API calls")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private RestClient restClient(HttpClient httpClient, long readTimeoutMs) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return RestClient.builder()
+                .baseUrl(baseUrl)
+                .requestFactory(requestFactory)
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                .build();
+    }
+
+    record PreferenceItem(String title, int quantity, @JsonProperty("unit_price") BigDecimal unitPrice) {
+    }
+
+    record PreferenceRequest(List<PreferenceItem> items,
+                             @JsonProperty("external_reference") String externalReference) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record PreferenceResponse(String id,
+                              @JsonProperty("init_point") String initPoint,
+                              @JsonProperty("sandbox_init_point") String sandboxInitPoint) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record PaymentResponse(Long id, String status,
+                           @JsonProperty("external_reference") String externalReference) {
+    }
+}
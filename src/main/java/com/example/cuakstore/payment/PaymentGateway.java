@@ -0,0 +1,14 @@
+package com.example.cuakstore.payment;
+
+import java.math.BigDecimal;
+
+/**
+ * Access to the payment provider, kept behind an interface so tests can run without
+ * reaching Mercado Pago.
+ */
+public interface PaymentGateway {
+
+    PaymentInfo getPayment(String paymentId);
+
+    PaymentPreference createPreference(String title, BigDecimal amount, String externalReference);
+}
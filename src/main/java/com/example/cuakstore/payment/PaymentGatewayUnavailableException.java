@@ -0,0 +1,11 @@
+package com.example.cuakstore.payment;
+
+/**
+ * The call was not attempted because the gateway is considered down (open circuit) or is
+ * already handling as many calls as allowed. Callers should fail fast and retry later.
+ */
+public class PaymentGatewayUnavailableException extends PaymentGatewayException {
+    public PaymentGatewayUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
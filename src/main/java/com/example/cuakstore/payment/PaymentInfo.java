@@ -0,0 +1,7 @@
+package com.example.cuakstore.payment;
+
+/**
+ * The parts of a gateway payment the store acts on.
+ */
+public record PaymentInfo(String id, String status, String externalReference) {
+}
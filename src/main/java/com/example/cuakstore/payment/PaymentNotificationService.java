@@ -0,0 +1,152 @@
+package com.example.cuakstore.payment;
+
+import com.example.cuakstore.model.PaymentNotification;
+import com.example.cuakstore.model.PaymentNotificationStatus;
+import com.example.cuakstore.repository.PaymentNotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Durable queue of payment webhooks, stored in {@code payment_notifications}. Webhooks are
+ * acknowledged as soon as they are recorded here; {@link PaymentNotificationWorker} does the
+ * actual processing.
+ */
+@Service
+public class PaymentNotificationService {
+    private static final Logger logger = LoggerFactory.getLogger(PaymentNotificationService.class);
+
+    @Autowired
+    private PaymentNotificationRepository notificationRepository;
+
+    @Value("${payments.notifications.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${payments.notifications.backoff-base-ms:2000}")
+    private long backoffBaseMs;
+
+    @Value("${payments.notifications.backoff-max-ms:600000}")
+    private long backoffMaxMs;
+
+    /**
+     * Records a notification for the payment. A payment that is already queued costs one
+     * indexed lookup and nothing else; one that was already handled is queued again, since
+     * Mercado Pago notifies on every status change; one being processed right now is flagged
+     * to run once more afterwards.
+     */
+    public void enqueue(String paymentId) {
+        Optional<PaymentNotification> existing = notificationRepository.findByPaymentId(paymentId);
+        if (existing.isEmpty()) {
+            try {
+                notificationRepository.save(new PaymentNotification(paymentId, LocalDateTime.now()));
+                return;
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent delivery for the same payment inserted it first
+                existing = notificationRepository.findByPaymentId(paymentId);
+            }
+        }
+        existing.ifPresent(this::requeue);
+    }
+
+    private void requeue(PaymentNotification notification) {
+        String paymentId = notification.getPaymentId();
+        switch (notification.getStatus()) {
+            case PENDING -> {
+                // Already waiting for a worker
+            }
+            case PROCESSING -> {
+                if (notificationRepository.markRedeliver(paymentId, PaymentNotificationStatus.PROCESSING) == 0) {
+                    // Finished in the meantime
+                    reopen(paymentId);
+                }
+            }
+            case DONE, FAILED -> reopen(paymentId);
+        }
+    }
+
+    private void reopen(String paymentId) {
+        notificationRepository.reopen(paymentId,
+                EnumSet.of(PaymentNotificationStatus.DONE, PaymentNotificationStatus.FAILED),
+                PaymentNotificationStatus.PENDING, LocalDateTime.now());
+    }
+
+    /**
+     * Records that the claim identified by {@code leaseId} processed the notification. A
+     * notification redelivered in the meantime goes back to the queue instead of being
+     * finished. Nothing is written when the lease was lost, since the row then belongs to
+     * whoever claimed it next.
+     */
+    @Transactional
+    public void markDone(Long notificationId, String leaseId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (notificationRepository.complete(notificationId, leaseId,
+                PaymentNotificationStatus.PROCESSING, PaymentNotificationStatus.DONE, now) == 1) {
+            return;
+        }
+        if (notificationRepository.requeueRedelivered(notificationId, leaseId,
+                PaymentNotificationStatus.PROCESSING, PaymentNotificationStatus.PENDING, now) == 0) {
+            logger.warn("Payment notification {} was processed after its lease expired; leaving it to its new owner",
+                    notificationId);
+        }
+    }
+
+    /**
+     * Records a failed attempt by the claim identified by {@code leaseId}, scheduling a retry
+     * with backoff or giving up after {@code max-attempts}. Nothing is written when the lease
+     * was lost.
+     */
+    @Transactional
+    public void markFailed(Long notificationId, String leaseId, Exception error) {
+        Optional<PaymentNotification> claimed = notificationRepository.findById(notificationId)
+                .filter(notification -> leaseId.equals(notification.getLeaseId()));
+        if (claimed.isEmpty()) {
+            logger.warn("Payment notification {} failed after its lease expired; leaving it to its new owner: {}",
+                    notificationId, error.getMessage());
+            return;
+        }
+        PaymentNotification notification = claimed.get();
+        int attempts = notification.getAttempts() + 1;
+        String lastError = truncate(String.valueOf(error.getMessage()));
+        boolean givingUp = attempts >= maxAttempts;
+        int updated = givingUp
+                ? notificationRepository.fail(notificationId, leaseId, PaymentNotificationStatus.PROCESSING,
+                        PaymentNotificationStatus.FAILED, attempts, notification.getNextAttemptAt(), lastError)
+                : notificationRepository.fail(notificationId, leaseId, PaymentNotificationStatus.PROCESSING,
+                        PaymentNotificationStatus.PENDING, attempts,
+                        LocalDateTime.now().plusNanos(backoffMillis(attempts) * 1_000_000), lastError);
+        if (updated == 0) {
+            logger.warn("Payment notification {} lost its lease while recording a failure: {}",
+                    notificationId, error.getMessage());
+        } else if (givingUp) {
+            logger.error("Giving up on payment notification {} after {} attempts: {}",
+                    notification.getPaymentId(), attempts, error.getMessage());
+        } else {
+            logger.warn("Payment notification {} failed (attempt {}), retrying: {}",
+                    notification.getPaymentId(), attempts, error.getMessage());
+        }
+    }
+
+    /**
+     * Exponential backoff with up to 20% jitter, so retries of a burst spread out.
+     */
+    private long backoffMillis(int attempts) {
+        long delay = backoffBaseMs << Math.min(attempts - 1, 30);
+        if (delay <= 0 || delay > backoffMaxMs) {
+            delay = backoffMaxMs;
+        }
+        return delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+}
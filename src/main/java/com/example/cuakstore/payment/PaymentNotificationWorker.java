@@ -0,0 +1,121 @@
+package com.example.cuakstore.payment;
+
+import com.example.cuakstore.model.PaymentNotification;
+import com.example.cuakstore.model.PaymentNotificationStatus;
+import com.example.cuakstore.repository.PaymentNotificationRepository;
+import com.example.cuakstore.service.PaymentService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains {@code payment_notifications} with a fixed worker pool. Rows are claimed with a
+ * conditional update, so several instances can poll the same table; a claim carries a lease,
+ * and rows whose lease ran out (the instance died mid-way) go back to the queue. Each claim
+ * gets its own lease id, and the outcome is only recorded while the row still carries it.
+ */
+@Component
+public class PaymentNotificationWorker {
+    private static final Logger logger = LoggerFactory.getLogger(PaymentNotificationWorker.class);
+
+    @Autowired
+    private PaymentNotificationRepository notificationRepository;
+
+    @Autowired
+    private PaymentNotificationService notificationService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Value("${payments.notifications.workers:4}")
+    private int workers;
+
+    @Value("${payments.notifications.lease-ms:120000}")
+    private long leaseMs;
+
+    private ExecutorService executor;
+    private Semaphore capacity;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "payment-notification-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        capacity = new Semaphore(workers);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Scheduled(fixedDelayString = "${payments.notifications.poll-ms:1000}")
+    public void poll() {
+        LocalDateTime now = LocalDateTime.now();
+        int released = notificationRepository.releaseExpiredLocks(
+                PaymentNotificationStatus.PROCESSING, PaymentNotificationStatus.PENDING, now);
+        if (released > 0) {
+            logger.warn("Requeued {} payment notifications whose processing lease expired", released);
+        }
+
+        int free = capacity.availablePermits();
+        if (free == 0) {
+            return;
+        }
+
+        List<Long> due = notificationRepository.findDueIds(PaymentNotificationStatus.PENDING, now, PageRequest.of(0, free));
+        for (Long id : due) {
+            if (!capacity.tryAcquire()) {
+                return;
+            }
+            String leaseId = UUID.randomUUID().toString();
+            int claimed = notificationRepository.claim(id, PaymentNotificationStatus.PENDING,
+                    PaymentNotificationStatus.PROCESSING, now.plusNanos(leaseMs * 1_000_000), leaseId);
+            if (claimed == 0) {
+                // Another instance got there first
+                capacity.release();
+                continue;
+            }
+            executor.execute(() -> {
+                try {
+                    process(id, leaseId);
+                } finally {
+                    capacity.release();
+                }
+            });
+        }
+    }
+
+    private void process(Long notificationId, String leaseId) {
+        Optional<PaymentNotification> notification = notificationRepository.findById(notificationId);
+        if (notification.isEmpty()) {
+            return;
+        }
+        try {
+            paymentService.processPayment(notification.get().getPaymentId());
+            notificationService.markDone(notificationId, leaseId);
+        } catch (Exception e) {
+            notificationService.markFailed(notificationId, leaseId, e);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.cuakstore.payment;
+
+/**
+ * A checkout preference created at the payment provider.
+ */
+public record PaymentPreference(String id, String initPoint, String sandboxInitPoint) {
+}
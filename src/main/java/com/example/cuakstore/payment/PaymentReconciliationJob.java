@@ -0,0 +1,270 @@
+package com.example.cuakstore.payment;
+
+import com.example.cuakstore.model.OrderStatus;
+import com.example.cuakstore.model.ReconciliationCheckpoint;
+import com.example.cuakstore.repository.OrderRepository;
+import com.example.cuakstore.repository.ReconciliationCheckpointRepository;
+import com.example.cuakstore.service.OrderService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Catches up on payment webhooks that never arrived. Walks the PENDING orders that have a
+ * payment id in keyset chunks, asks the gateway for each payment with bounded parallelism,
+ * and applies the chunk's changes in one transaction together with the checkpoint. A pass
+ * that is interrupted (restart, gateway outage) resumes after the last committed chunk.
+ *
+ * <p>Only one instance runs a pass at a time: it first takes a lease on the checkpoint row
+ * with a conditional update, and every chunk commit extends the lease and fails (rolling the
+ * chunk back) if another instance took it over in the meantime.
+ */
+@Component
+public class PaymentReconciliationJob {
+    static final String JOB_NAME = "payment-reconciliation";
+    private static final Logger logger = LoggerFactory.getLogger(PaymentReconciliationJob.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ReconciliationCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PaymentGateway paymentGateway;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${payments.reconciliation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${payments.reconciliation.chunk-size:100}")
+    private int chunkSize;
+
+    @Value("${payments.reconciliation.concurrency:4}")
+    private int concurrency;
+
+    // Leave recent orders to the webhook; their payment may simply not have settled yet
+    @Value("${payments.reconciliation.min-age-ms:600000}")
+    private long minAgeMs;
+
+    // Must outlast the slowest chunk; a crashed instance blocks the job for at most this long
+    @Value("${payments.reconciliation.lease-ms:600000}")
+    private long leaseMs;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private ExecutorService executor;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "payment-reconciliation-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Scheduled(fixedDelayString = "${payments.reconciliation.interval-ms:900000}",
+               initialDelayString = "${payments.reconciliation.initial-delay-ms:60000}")
+    public void scheduledRun() {
+        if (enabled) {
+            run();
+        }
+    }
+
+    /**
+     * Runs (or resumes) one pass over the pending orders. Returns the number of orders whose
+     * payment status changed, or -1 when a pass is already running in this instance or on
+     * another one, or this instance lost the lease mid-pass.
+     */
+    public int run() {
+        if (!running.compareAndSet(false, true)) {
+            return -1;
+        }
+        String leaseId = UUID.randomUUID().toString();
+        try {
+            if (!acquireLease(leaseId)) {
+                logger.info("Payment reconciliation is running on another instance, skipping this run");
+                return -1;
+            }
+            return runPass(leaseId);
+        } catch (LeaseLostException e) {
+            logger.warn("Payment reconciliation lost its lease to another instance, stopping this pass");
+            return -1;
+        } finally {
+            checkpointRepository.releaseLease(JOB_NAME, leaseId);
+            running.set(false);
+        }
+    }
+
+    private boolean acquireLease(String leaseId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!checkpointRepository.existsById(JOB_NAME)) {
+            try {
+                checkpointRepository.save(new ReconciliationCheckpoint(JOB_NAME, 0L, now, now));
+            } catch (DataIntegrityViolationException e) {
+                // Another instance created the row first; the lease decides who runs
+            }
+        }
+        return checkpointRepository.acquireLease(JOB_NAME, leaseId, now, leaseUntil()) == 1;
+    }
+
+    private int runPass(String leaseId) {
+        ReconciliationCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME).orElseThrow();
+        if (checkpoint.getLastId() > 0) {
+            logger.info("Resuming payment reconciliation after order {}", checkpoint.getLastId());
+        }
+        LocalDateTime placedBefore = LocalDateTime.now().minusNanos(minAgeMs * 1_000_000);
+
+        int checked = 0;
+        int changed = 0;
+        while (true) {
+            List<PendingPayment> chunk = orderRepository.findPendingPaymentsAfter(
+                    OrderStatus.PENDING, checkpoint.getLastId(), placedBefore, PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            Map<Long, PaymentInfo> updates;
+            try {
+                updates = fetchChanged(chunk);
+            } catch (PaymentGatewayUnavailableException e) {
+                // Stop here; the checkpoint still points before this chunk
+                logger.warn("Payment reconciliation paused at order {}: {}", checkpoint.getLastId(), e.getMessage());
+                return changed;
+            }
+
+            checkpoint.setLastId(chunk.get(chunk.size() - 1).orderId());
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            changed += commitChunk(updates, checkpoint, leaseId);
+            checked += chunk.size();
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+        }
+
+        logger.info("Payment reconciliation pass finished: {} orders checked, {} updated", checked, changed);
+        checkpoint.setLastId(0L);
+        checkpoint.setPassStartedAt(LocalDateTime.now());
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        saveProgress(checkpoint, leaseId);
+        return changed;
+    }
+
+    /**
+     * Looks the chunk's payments up in parallel, at most {@code concurrency} at a time, and
+     * returns those whose status differs from what the order has recorded.
+     */
+    private Map<Long, PaymentInfo> fetchChanged(List<PendingPayment> chunk) {
+        List<Future<PaymentInfo>> lookups = new ArrayList<>(chunk.size());
+        for (PendingPayment pending : chunk) {
+            lookups.add(executor.submit(() -> paymentGateway.getPayment(pending.paymentId())));
+        }
+
+        Map<Long, PaymentInfo> changed = new HashMap<>();
+        PaymentGatewayUnavailableException unavailable = null;
+        for (int i = 0; i < chunk.size(); i++) {
+            PendingPayment pending = chunk.get(i);
+            try {
+                PaymentInfo payment = lookups.get(i).get();
+                if (payment.status() != null && !payment.status().equals(pending.paymentStatus())) {
+                    changed.put(pending.orderId(), payment);
+                }
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof PaymentGatewayUnavailableException gatewayDown) {
+                    unavailable = gatewayDown;
+                } else {
+                    // One bad payment must not hold up the rest; the next pass retries it
+                    logger.warn("Could not reconcile payment {} of order {}: {}",
+                            pending.paymentId(), pending.orderId(), e.getCause().getMessage());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                lookups.forEach(lookup -> lookup.cancel(true));
+                throw new PaymentGatewayUnavailableException("Reconciliation interrupted", e);
+            }
+        }
+        if (unavailable != null) {
+            throw unavailable;
+        }
+        return changed;
+    }
+
+    /**
+     * Applies the chunk's updates and advances the checkpoint atomically. If a webhook touched
+     * one of the orders meanwhile, the batch is rolled back and the orders are applied one by one.
+     */
+    private int commitChunk(Map<Long, PaymentInfo> updates, ReconciliationCheckpoint checkpoint, String leaseId) {
+        try {
+            Integer changed = transactionTemplate.execute(status -> {
+                // Checked first: the update locks the checkpoint row until the chunk commits
+                saveProgress(checkpoint, leaseId);
+                return updates.isEmpty() ? 0 : orderService.applyPayments(updates);
+            });
+            return changed == null ? 0 : changed;
+        } catch (OptimisticLockingFailureException e) {
+            int changed = 0;
+            for (Map.Entry<Long, PaymentInfo> update : updates.entrySet()) {
+                try {
+                    changed += orderService.applyPayments(Map.of(update.getKey(), update.getValue()));
+                } catch (OptimisticLockingFailureException again) {
+                    logger.info("Order {} changed during reconciliation, leaving it for the next pass", update.getKey());
+                }
+            }
+            saveProgress(checkpoint, leaseId);
+            return changed;
+        }
+    }
+
+    private void saveProgress(ReconciliationCheckpoint checkpoint, String leaseId) {
+        int updated = checkpointRepository.saveProgress(JOB_NAME, leaseId, checkpoint.getLastId(),
+                checkpoint.getPassStartedAt(), checkpoint.getUpdatedAt(), leaseUntil());
+        if (updated == 0) {
+            throw new LeaseLostException();
+        }
+    }
+
+    private LocalDateTime leaseUntil() {
+        return LocalDateTime.now().plusNanos(leaseMs * 1_000_000);
+    }
+
+    private static class LeaseLostException extends RuntimeException {
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.cuakstore.payment;
+
+/**
+ * The payment columns of an order still waiting for its payment to settle.
+ */
+public record PendingPayment(Long orderId, String paymentId, String paymentStatus) {
+}
@@ -0,0 +1,57 @@
+package com.example.cuakstore.repository;
+
+import com.example.cuakstore.model.ArchivedOrder;
+import com.example.cuakstore.model.OrderStatus;
+import com.example.cuakstore.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+    @EntityGraph(attributePaths = {"user", "orderItems", "orderItems.product"})
+    Optional<ArchivedOrder> findWithItemsById(Long id);
+
+    @EntityGraph(attributePaths = {"user", "orderItems", "orderItems.product"})
+    @Query("select o from ArchivedOrder o where o.user = :user")
+    List<ArchivedOrder> findByUserWithItems(@Param("user") User user);
+
+    List<ArchivedOrder> findByUser(User user, Pageable pageable);
+
+    long countByUser(User user);
+
+    @Query("select o.status, count(o) from ArchivedOrder o group by o.status")
+    List<Object[]> countByStatus();
+
+    @Query("select cast(o.orderDate as LocalDate), sum(o.totalAmount) from ArchivedOrder o " +
+           "where o.status in :statuses group by cast(o.orderDate as LocalDate)")
+    List<Object[]> sumRevenueByDay(@Param("statuses") Collection<OrderStatus> statuses);
+
+    @Query("select p.id, p.name, sum(oi.quantity), sum(oi.price * oi.quantity) from ArchivedOrderItem oi " +
+           "join oi.order o join oi.product p where o.status in :statuses group by p.id, p.name")
+    List<Object[]> sumSalesByProduct(@Param("statuses") Collection<OrderStatus> statuses);
+
+    // Set-based copies from the hot tables; the caller deletes the originals in the same transaction
+    @Modifying
+    @Query(value = "insert into orders_archive (id, user_id, order_date, status, total_amount, shipping_address, " +
+                   "payment_id, payment_status, version, archived_at) " +
+                   "select id, user_id, order_date, status, total_amount, shipping_address, " +
+                   "payment_id, payment_status, version, :archivedAt from orders where id in (:ids)",
+           nativeQuery = true)
+    int copyOrders(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Modifying
+    @Query(value = "insert into order_items_archive (id, order_id, product_id, quantity, price) " +
+                   "select id, order_id, product_id, quantity, price from order_items where order_id in (:orderIds)",
+           nativeQuery = true)
+    int copyOrderItems(@Param("orderIds") Collection<Long> orderIds);
+}
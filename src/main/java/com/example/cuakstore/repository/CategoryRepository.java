@@ -1,17 +1,42 @@
 package com.example.cuakstore.repository;
 
+import com.example.cuakstore.model.CacheRegions;
 import com.example.cuakstore.model.Category;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+    @Override
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HINT_CACHE_REGION, value = CacheRegions.REFERENCE_QUERIES)})
+    List<Category> findAll();
+
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HINT_CACHE_REGION, value = CacheRegions.REFERENCE_QUERIES)})
     Optional<Category> findByName(String name);
     
     List<Category> findByNameContainingIgnoreCase(String name);
     
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HINT_CACHE_REGION, value = CacheRegions.REFERENCE_QUERIES)})
     boolean existsByName(String name);
+
+    @Query("select max(c.updatedAt), count(c) from Category c")
+    List<Object[]> findCatalogStamp();
+
+    // A list, not an Optional: rows from before updated_at existed hold null
+    @Query("select c.updatedAt from Category c where c.id = :id")
+    List<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
 }
\ No newline at end of file
@@ -2,10 +2,15 @@ package com.example.cuakstore.repository;
 
 import com.example.cuakstore.model.Order;
 import com.example.cuakstore.model.OrderItem;
+import com.example.cuakstore.model.OrderStatus;
 import com.example.cuakstore.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,4 +22,15 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrderAndProduct(Order order, Product product);
     
     void deleteByOrder(Order order);
-}
\ No newline at end of file
+
+    @Query("select oi.product.id, sum(oi.quantity) from OrderItem oi where oi.product is not null group by oi.product.id")
+    List<Object[]> sumQuantityByProduct();
+
+    @Query("select p.id, p.name, sum(oi.quantity), sum(oi.price * oi.quantity) from OrderItem oi " +
+           "join oi.order o join oi.product p where o.status in :statuses group by p.id, p.name")
+    List<Object[]> sumSalesByProduct(@Param("statuses") Collection<OrderStatus> statuses);
+
+    @Modifying
+    @Query("delete from OrderItem oi where oi.order.id in :orderIds")
+    int deleteByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -3,13 +3,25 @@ package com.example.cuakstore.repository;
 import com.example.cuakstore.model.Order;
 import com.example.cuakstore.model.OrderStatus;
 import com.example.cuakstore.model.User;
+import com.example.cuakstore.payload.response.OrderExportRow;
+import com.example.cuakstore.payment.PendingPayment;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -28,4 +40,65 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserAndStatus(User user, OrderStatus status);
     
     Page<Order> findByUserAndStatus(User user, OrderStatus status, Pageable pageable);
-}
\ No newline at end of file
+
+    @EntityGraph(attributePaths = {"user", "user.roles", "orderItems", "orderItems.product", "orderItems.product.category"})
+    @Query("select o from Order o")
+    List<Order> findAllWithItems();
+
+    @EntityGraph(attributePaths = {"user", "user.roles", "orderItems", "orderItems.product", "orderItems.product.category"})
+    Optional<Order> findWithItemsById(Long id);
+
+    @EntityGraph(attributePaths = {"user", "user.roles", "orderItems", "orderItems.product", "orderItems.product.category"})
+    List<Order> findWithItemsByIdIn(Collection<Long> ids);
+
+    @EntityGraph(attributePaths = {"user", "user.roles", "orderItems", "orderItems.product", "orderItems.product.category"})
+    @Query("select o from Order o where o.user = :user")
+    List<Order> findByUserWithItems(@Param("user") User user);
+
+    @EntityGraph(attributePaths = {"user", "user.roles", "orderItems", "orderItems.product", "orderItems.product.category"})
+    @Query("select o from Order o where o.status = :status")
+    List<Order> findByStatusWithItems(@Param("status") OrderStatus status);
+
+    @Query("select o from Order o")
+    List<Order> findSlice(Pageable pageable);
+
+    @Query("select o from Order o where o.id < :id order by o.id desc")
+    List<Order> findNextById(@Param("id") Long id, Pageable pageable);
+
+    @Query("select o from Order o where o.orderDate < :orderDate or (o.orderDate = :orderDate and o.id < :id) " +
+           "order by o.orderDate desc, o.id desc")
+    List<Order> findNextByOrderDate(@Param("orderDate") LocalDateTime orderDate, @Param("id") Long id, Pageable pageable);
+
+    // Keyset over the primary key; selects only the payment columns, not whole entities
+    @Query("select new com.example.cuakstore.payment.PendingPayment(o.id, o.paymentId, o.paymentStatus) " +
+           "from Order o where o.status = :status and o.paymentId is not null " +
+           "and o.id > :afterId and o.orderDate < :placedBefore order by o.id")
+    List<PendingPayment> findPendingPaymentsAfter(@Param("status") OrderStatus status, @Param("afterId") Long afterId,
+                                                  @Param("placedBefore") LocalDateTime placedBefore, Pageable pageable);
+
+    // Forward-only cursor for exports. Rows are DTOs, so nothing accumulates in the persistence context
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.cuakstore.payload.response.OrderExportRow(" +
+           "o.id, u.id, u.username, o.orderDate, o.status, o.totalAmount, o.shippingAddress, o.paymentId, " +
+           "o.paymentStatus, i.id, p.id, p.name, i.quantity, i.price) " +
+           "from Order o join o.user u left join o.orderItems i left join i.product p " +
+           "where (:status is null or o.status = :status) " +
+           "and o.orderDate >= :from and o.orderDate < :to " +
+           "order by o.id, i.id")
+    Stream<OrderExportRow> streamForExport(@Param("status") OrderStatus status,
+                                           @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("select o.status, count(o) from Order o group by o.status")
+    List<Object[]> countByStatus();
+
+    @Query("select cast(o.orderDate as LocalDate), sum(o.totalAmount) from Order o " +
+           "where o.status in :statuses group by cast(o.orderDate as LocalDate)")
+    List<Object[]> sumRevenueByDay(@Param("statuses") Collection<OrderStatus> statuses);
+
+    // Oldest finished orders first. The rows stay locked until the archive move commits, so a
+    // concurrent status change waits and then fails its version check instead of being lost.
+    @Query(value = "select id from orders where status in (:statuses) and order_date < :placedBefore " +
+                   "and review_reason is null order by id limit :limit for update", nativeQuery = true)
+    List<Long> lockArchivableIds(@Param("statuses") Collection<String> statuses,
+                                 @Param("placedBefore") LocalDateTime placedBefore, @Param("limit") int limit);
+}
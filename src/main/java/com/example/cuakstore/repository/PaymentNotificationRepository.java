@@ -0,0 +1,109 @@
+package com.example.cuakstore.repository;
+
+import com.example.cuakstore.model.PaymentNotification;
+import com.example.cuakstore.model.PaymentNotificationStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PaymentNotificationRepository extends JpaRepository<PaymentNotification, Long> {
+    Optional<PaymentNotification> findByPaymentId(String paymentId);
+
+    long countByStatus(PaymentNotificationStatus status);
+
+    @Query("select n.id from PaymentNotification n " +
+           "where n.status = :status and n.nextAttemptAt <= :now order by n.nextAttemptAt")
+    List<Long> findDueIds(@Param("status") PaymentNotificationStatus status,
+                          @Param("now") LocalDateTime now,
+                          Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("update PaymentNotification n set n.status = :to, n.lockedUntil = :lockedUntil, n.leaseId = :leaseId " +
+           "where n.id = :id and n.status = :from")
+    int claim(@Param("id") Long id,
+              @Param("from") PaymentNotificationStatus from,
+              @Param("to") PaymentNotificationStatus to,
+              @Param("lockedUntil") LocalDateTime lockedUntil,
+              @Param("leaseId") String leaseId);
+
+    /**
+     * Finishes a claimed notification, unless the lease was lost or another notification for
+     * the payment arrived while it was processed.
+     */
+    @Transactional
+    @Modifying
+    @Query("update PaymentNotification n set n.status = :to, n.processedAt = :now, n.lockedUntil = null, " +
+           "n.leaseId = null, n.lastError = null " +
+           "where n.id = :id and n.status = :from and n.leaseId = :leaseId and n.redeliver = false")
+    int complete(@Param("id") Long id,
+                 @Param("leaseId") String leaseId,
+                 @Param("from") PaymentNotificationStatus from,
+                 @Param("to") PaymentNotificationStatus to,
+                 @Param("now") LocalDateTime now);
+
+    /**
+     * Puts a claimed notification back in the queue for the redelivery that arrived while it
+     * was processed, unless the lease was lost.
+     */
+    @Transactional
+    @Modifying
+    @Query("update PaymentNotification n set n.status = :to, n.redeliver = false, n.nextAttemptAt = :now, " +
+           "n.lockedUntil = null, n.leaseId = null, n.lastError = null " +
+           "where n.id = :id and n.status = :from and n.leaseId = :leaseId and n.redeliver = true")
+    int requeueRedelivered(@Param("id") Long id,
+                           @Param("leaseId") String leaseId,
+                           @Param("from") PaymentNotificationStatus from,
+                           @Param("to") PaymentNotificationStatus to,
+                           @Param("now") LocalDateTime now);
+
+    /**
+     * Records a failed attempt on a claimed notification, unless the lease was lost.
+     */
+    @Transactional
+    @Modifying
+    @Query("update PaymentNotification n set n.status = :to, n.attempts = :attempts, n.redeliver = false, " +
+           "n.nextAttemptAt = :nextAttemptAt, n.lockedUntil = null, n.leaseId = null, n.lastError = :lastError " +
+           "where n.id = :id and n.status = :from and n.leaseId = :leaseId")
+    int fail(@Param("id") Long id,
+             @Param("leaseId") String leaseId,
+             @Param("from") PaymentNotificationStatus from,
+             @Param("to") PaymentNotificationStatus to,
+             @Param("attempts") int attempts,
+             @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+             @Param("lastError") String lastError);
+
+    @Transactional
+    @Modifying
+    @Query("update PaymentNotification n set n.status = :to, n.nextAttemptAt = :now, n.leaseId = null " +
+           "where n.status = :from and n.lockedUntil < :now")
+    int releaseExpiredLocks(@Param("from") PaymentNotificationStatus from,
+                            @Param("to") PaymentNotificationStatus to,
+                            @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("update PaymentNotification n set n.status = :to, n.attempts = 0, n.nextAttemptAt = :now, " +
+           "n.lastError = null where n.paymentId = :paymentId and n.status in :from")
+    int reopen(@Param("paymentId") String paymentId,
+               @Param("from") Collection<PaymentNotificationStatus> from,
+               @Param("to") PaymentNotificationStatus to,
+               @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("update PaymentNotification n set n.redeliver = true " +
+           "where n.paymentId = :paymentId and n.status = :status")
+    int markRedeliver(@Param("paymentId") String paymentId,
+                      @Param("status") PaymentNotificationStatus status);
+}
@@ -4,27 +4,97 @@ import com.example.cuakstore.model.Category;
 import com.example.cuakstore.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<Product> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Page<Product> findAll(Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<Product> findAllById(Iterable<Long> ids);
+
+    @EntityGraph(attributePaths = "category")
     List<Product> findByCategory(Category category);
     
+    @EntityGraph(attributePaths = "category")
     Page<Product> findByCategory(Category category, Pageable pageable);
     
     List<Product> findByNameContainingIgnoreCase(String name);
     
     Page<Product> findByNameContainingIgnoreCase(String name, Pageable pageable);
     
+    @EntityGraph(attributePaths = "category")
     List<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
     
+    @EntityGraph(attributePaths = "category")
     Page<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
+
+    long countByStockQuantityLessThan(Integer threshold);
     
     List<Product> findByCategoryAndNameContainingIgnoreCase(Category category, String name);
     
     Page<Product> findByCategoryAndNameContainingIgnoreCase(Category category, String name, Pageable pageable);
+
+    @EntityGraph(attributePaths = "category")
+    @Query("select p from Product p")
+    List<Product> findSlice(Pageable pageable);
+
+    @EntityGraph(attributePaths = "category")
+    @Query("select p from Product p where p.id > :id order by p.id asc")
+    List<Product> findNextById(@Param("id") Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = "category")
+    @Query("select p from Product p where p.name > :name or (p.name = :name and p.id > :id) " +
+           "order by p.name asc, p.id asc")
+    List<Product> findNextByName(@Param("name") String name, @Param("id") Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = "category")
+    @Query("select p from Product p where p.price > :price or (p.price = :price and p.id > :id) " +
+           "order by p.price asc, p.id asc")
+    List<Product> findNextByPrice(@Param("price") BigDecimal price, @Param("id") Long id, Pageable pageable);
+
+    @Query("select p.id, p.stockQuantity from Product p")
+    List<Object[]> findStockLevels();
+
+    @Query("select p.id, p.name, c.id from Product p left join p.category c")
+    List<Object[]> findSuggestionRows();
+
+    // Persisted state behind the catalog ETags (see CatalogVersionService); one row each
+    @Query("select max(coalesce(p.updatedAt, p.createdAt)), count(p), max(p.stockUpdatedAt) from Product p")
+    List<Object[]> findCatalogStamp();
+
+    @Query("select coalesce(p.updatedAt, p.createdAt), p.stockQuantity, c.updatedAt " +
+           "from Product p left join p.category c where p.id = :id")
+    List<Object[]> findStampById(@Param("id") Long id);
+
+    @Query("select p.stockQuantity from Product p where p.id = :id")
+    Optional<Integer> findStockQuantityById(@Param("id") Long id);
+
+    // Pending changes go out first and the persistence context is cleared afterwards, so no
+    // managed Product keeps a stock count the update has made stale
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.stockQuantity = p.stockQuantity - :quantity, p.stockUpdatedAt = local datetime " +
+           "where p.id = :id and p.stockQuantity >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.stockQuantity = p.stockQuantity + :quantity, p.stockUpdatedAt = local datetime " +
+           "where p.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("quantity") int quantity);
 }
\ No newline at end of file
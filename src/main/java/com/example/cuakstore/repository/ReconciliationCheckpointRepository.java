@@ -0,0 +1,44 @@
+package com.example.cuakstore.repository;
+
+import com.example.cuakstore.model.ReconciliationCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ReconciliationCheckpointRepository extends JpaRepository<ReconciliationCheckpoint, String> {
+    @Transactional
+    @Modifying
+    @Query("update ReconciliationCheckpoint c set c.leaseId = :leaseId, c.lockedUntil = :lockedUntil " +
+           "where c.jobName = :jobName and (c.lockedUntil is null or c.lockedUntil < :now)")
+    int acquireLease(@Param("jobName") String jobName,
+                     @Param("leaseId") String leaseId,
+                     @Param("now") LocalDateTime now,
+                     @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    /**
+     * Records progress and extends the lease, unless another instance holds it by now.
+     */
+    @Transactional
+    @Modifying
+    @Query("update ReconciliationCheckpoint c set c.lastId = :lastId, c.passStartedAt = :passStartedAt, " +
+           "c.updatedAt = :updatedAt, c.lockedUntil = :lockedUntil " +
+           "where c.jobName = :jobName and c.leaseId = :leaseId")
+    int saveProgress(@Param("jobName") String jobName,
+                     @Param("leaseId") String leaseId,
+                     @Param("lastId") long lastId,
+                     @Param("passStartedAt") LocalDateTime passStartedAt,
+                     @Param("updatedAt") LocalDateTime updatedAt,
+                     @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    @Transactional
+    @Modifying
+    @Query("update ReconciliationCheckpoint c set c.leaseId = null, c.lockedUntil = null " +
+           "where c.jobName = :jobName and c.leaseId = :leaseId")
+    int releaseLease(@Param("jobName") String jobName, @Param("leaseId") String leaseId);
+}
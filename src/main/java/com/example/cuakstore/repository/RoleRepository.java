@@ -1,13 +1,21 @@
 package com.example.cuakstore.repository;
 
 import com.example.cuakstore.model.ERole;
+import com.example.cuakstore.model.CacheRegions;
 import com.example.cuakstore.model.Role;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Integer> {
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HINT_CACHE_REGION, value = CacheRegions.REFERENCE_QUERIES)})
     Optional<Role> findByName(ERole name);
 }
\ No newline at end of file
@@ -0,0 +1,199 @@
+package com.example.cuakstore.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Immutable, array-backed prefix index for type-ahead. Every word start of a suggestion's
+ * text becomes a key (so "key" finds "Custom Logo Keychain"); keys are sorted and packed
+ * into one {@code char[]}, which makes a prefix a contiguous key range found by binary
+ * search. A min-rank segment tree over that range yields the k most popular entries in
+ * O(k log n) without materializing the range. This keeps the footprint at a few ints per
+ * key instead of one object per trie node.
+ */
+public final class PrefixCompletionIndex {
+    private static final int MAX_KEY_LENGTH = 32;
+
+    static final Comparator<Suggestion> RANKING = Comparator
+            .comparingLong(Suggestion::popularity).reversed()
+            .thenComparingInt(suggestion -> suggestion.text().length())
+            .thenComparing(Suggestion::text);
+
+    private final Suggestion[] entries;
+    private final char[] keyChars;
+    private final int[] keyOffsets;
+    private final int[] keyEntries;
+    private final int[] rankTree;
+    private final int leafBase;
+
+    private PrefixCompletionIndex(Suggestion[] entries, char[] keyChars, int[] keyOffsets,
+                                  int[] keyEntries, int[] rankTree, int leafBase) {
+        this.entries = entries;
+        this.keyChars = keyChars;
+        this.keyOffsets = keyOffsets;
+        this.keyEntries = keyEntries;
+        this.rankTree = rankTree;
+        this.leafBase = leafBase;
+    }
+
+    public static PrefixCompletionIndex empty() {
+        return build(List.of());
+    }
+
+    public static PrefixCompletionIndex build(List<Suggestion> suggestions) {
+        Suggestion[] entries = suggestions.toArray(new Suggestion[0]);
+        Arrays.sort(entries, RANKING);
+
+        List<Key> keys = new ArrayList<>();
+        for (int entry = 0; entry < entries.length; entry++) {
+            for (String key : keysOf(entries[entry].text())) {
+                keys.add(new Key(key, entry));
+            }
+        }
+        // Entries are already sorted by popularity, so the entry index doubles as its rank.
+        keys.sort(Comparator.comparing(Key::text).thenComparingInt(Key::entry));
+
+        int keyCount = keys.size();
+        int[] keyOffsets = new int[keyCount + 1];
+        int[] keyEntries = new int[keyCount];
+        int totalChars = 0;
+        for (Key key : keys) {
+            totalChars += key.text().length();
+        }
+        char[] keyChars = new char[totalChars];
+        int offset = 0;
+        for (int i = 0; i < keyCount; i++) {
+            Key key = keys.get(i);
+            key.text().getChars(0, key.text().length(), keyChars, offset);
+            keyOffsets[i] = offset;
+            keyEntries[i] = key.entry();
+            offset += key.text().length();
+        }
+        keyOffsets[keyCount] = offset;
+
+        int leafBase = Integer.highestOneBit(Math.max(1, keyCount - 1)) << 1;
+        int[] rankTree = new int[2 * leafBase];
+        Arrays.fill(rankTree, Integer.MAX_VALUE);
+        System.arraycopy(keyEntries, 0, rankTree, leafBase, keyCount);
+        for (int node = leafBase - 1; node > 0; node--) {
+            rankTree[node] = Math.min(rankTree[2 * node], rankTree[2 * node + 1]);
+        }
+
+        return new PrefixCompletionIndex(entries, keyChars, keyOffsets, keyEntries, rankTree, leafBase);
+    }
+
+    /**
+     * The distinct keys a suggestion's text is found under: one per word start.
+     */
+    static List<String> keysOf(String text) {
+        List<String> tokens = TextAnalyzer.tokenize(text);
+        Set<String> keys = new LinkedHashSet<>();
+        for (int start = 0; start < tokens.size(); start++) {
+            String key = String.join(" ", tokens.subList(start, tokens.size()));
+            keys.add(key.substring(0, Math.min(key.length(), MAX_KEY_LENGTH)));
+        }
+        return new ArrayList<>(keys);
+    }
+
+    /**
+     * The form a typed prefix is compared in; empty when it has nothing to match on.
+     */
+    static String prefixKey(String prefix) {
+        String key = String.join(" ", TextAnalyzer.tokenize(prefix));
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    public List<Suggestion> lookup(String prefix, int limit) {
+        String key = prefixKey(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        int from = firstKeyNotBelow(key, false);
+        int to = firstKeyNotBelow(key, true);
+        if (from >= to) {
+            return List.of();
+        }
+
+        // Seed the queue with the canonical nodes covering [from, to); every descendant of
+        // those nodes lies inside the range, so popping by minimum rank is exact.
+        PriorityQueue<Long> queue = new PriorityQueue<>();
+        for (int low = from + leafBase, high = to + leafBase; low < high; low >>>= 1, high >>>= 1) {
+            if ((low & 1) == 1) {
+                offer(queue, low++);
+            }
+            if ((high & 1) == 1) {
+                offer(queue, --high);
+            }
+        }
+
+        List<Suggestion> result = new ArrayList<>(Math.min(limit, 16));
+        int lastRank = -1;
+        while (!queue.isEmpty() && result.size() < limit) {
+            int node = (int) (long) queue.poll();
+            if (node >= leafBase) {
+                int rank = rankTree[node];
+                // Ranks pop in ascending order, so duplicates of an entry arrive back to back.
+                if (rank != lastRank) {
+                    result.add(entries[rank]);
+                    lastRank = rank;
+                }
+            } else {
+                offer(queue, 2 * node);
+                offer(queue, 2 * node + 1);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    private void offer(PriorityQueue<Long> queue, int node) {
+        int rank = rankTree[node];
+        if (rank != Integer.MAX_VALUE) {
+            queue.add(((long) rank << 32) | node);
+        }
+    }
+
+    /**
+     * Binary search for the first key whose first {@code prefix.length()} characters compare
+     * {@code >= prefix} (or {@code > prefix} when {@code strict}).
+     */
+    private int firstKeyNotBelow(String prefix, boolean strict) {
+        int low = 0;
+        int high = keyEntries.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int comparison = comparePrefix(mid, prefix);
+            if (comparison < 0 || (strict && comparison == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int comparePrefix(int keyIndex, String prefix) {
+        int start = keyOffsets[keyIndex];
+        int length = keyOffsets[keyIndex + 1] - start;
+        int common = Math.min(length, prefix.length());
+        for (int i = 0; i < common; i++) {
+            int difference = keyChars[start + i] - prefix.charAt(i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length < prefix.length() ? -1 : 0;
+    }
+
+    private record Key(String text, int entry) {
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.cuakstore.search;
+
+import com.example.cuakstore.config.ReplicaRoutingDataSource;
+import com.example.cuakstore.event.CategoryChangedEvent;
+import com.example.cuakstore.event.ProductChangedEvent;
+import com.example.cuakstore.model.Product;
+import com.example.cuakstore.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over product name, description and category name. Terms are
+ * kept sorted so a query token also matches every indexed term it is a prefix of, and
+ * results are ranked with a saturated, field-weighted tf-idf score. The index is built
+ * once on startup and then kept current from {@link ProductChangedEvent}s, and from
+ * {@link CategoryChangedEvent}s for the category name indexed with each product.
+ *
+ * <p>Changes that arrive while a rebuild is loading are applied to the live index and
+ * replayed onto the new one before it is swapped in, so a rebuild never brings back a
+ * product as it was before the change. Products are read from the primary, as a lagging
+ * replica could miss changes the events already reported.
+ */
+@Component
+public class ProductSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float CATEGORY_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final float PREFIX_MATCH_FACTOR = 0.5f;
+    private static final float TF_SATURATION = 1.2f;
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // One rebuild at a time; a lock rather than synchronized, which would pin a virtual
+    // thread's carrier while the rebuild waits on the database
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> documentTerms = new HashMap<>();
+    private final Map<Long, Long> documentCategories = new HashMap<>();
+    // Products changed since the running rebuild started, null for removals; guarded by lock
+    private Map<Long, Product> changedDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            rebuildIndex();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuildIndex() {
+        TreeMap<String, Map<Long, Float>> newPostings = new TreeMap<>();
+        Map<Long, Set<String>> newDocumentTerms = new HashMap<>();
+        Map<Long, Long> newDocumentCategories = new HashMap<>();
+
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<Product> chunk = ReplicaRoutingDataSource.readFromPrimary(
+                () -> productRepository.findSlice(PageRequest.of(0, REBUILD_CHUNK_SIZE, Sort.by("id"))));
+        while (!chunk.isEmpty()) {
+            for (Product product : chunk) {
+                addDocument(newPostings, newDocumentTerms, newDocumentCategories, product);
+            }
+            Long lastId = chunk.get(chunk.size() - 1).getId();
+            chunk = ReplicaRoutingDataSource.readFromPrimary(
+                    () -> productRepository.findNextById(lastId, PageRequest.of(0, REBUILD_CHUNK_SIZE)));
+        }
+
+        int replayed;
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            postings.putAll(newPostings);
+            documentTerms.clear();
+            documentTerms.putAll(newDocumentTerms);
+            documentCategories.clear();
+            documentCategories.putAll(newDocumentCategories);
+            replayed = changedDuringRebuild.size();
+            changedDuringRebuild.forEach((id, product) -> {
+                removeDocument(id);
+                if (product != null) {
+                    addDocument(postings, documentTerms, documentCategories, product);
+                }
+            });
+            changedDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Product search index built with {} products and {} terms ({} changes replayed)",
+                newDocumentTerms.size(), newPostings.size(), replayed);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.productId());
+        } else {
+            index(event.product());
+        }
+    }
+
+    /**
+     * Re-indexes the products of a renamed category and drops those deleted with one.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.isDeleted()) {
+            List<Long> orphans;
+            lock.readLock().lock();
+            try {
+                orphans = documentCategories.entrySet().stream()
+                        .filter(entry -> entry.getValue().equals(event.categoryId()))
+                        .map(Map.Entry::getKey)
+                        .toList();
+            } finally {
+                lock.readLock().unlock();
+            }
+            orphans.forEach(this::remove);
+        } else {
+            ReplicaRoutingDataSource.readFromPrimary(() -> productRepository.findByCategory(event.category()))
+                    .forEach(this::index);
+        }
+    }
+
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(product.getId());
+            addDocument(postings, documentTerms, documentCategories, product);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(product.getId(), product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(productId, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of products matching every token of {@code query}, best match first.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> tokens = TextAnalyzer.tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Float> scores = null;
+        lock.readLock().lock();
+        try {
+            int documentCount = documentTerms.size();
+            for (String token : tokens) {
+                Map<Long, Float> tokenScores = scoreToken(token, documentCount);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((id, score) -> score + tokenScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<Long, Float> ranked = scores;
+        return ranked.keySet().stream()
+                .sorted(Comparator.comparing((Long id) -> ranked.get(id)).reversed()
+                        .thenComparing(Comparator.naturalOrder()))
+                .limit(limit)
+                .toList();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Float> scoreToken(String token, int documentCount) {
+        Map<Long, Float> tokenScores = new HashMap<>();
+        NavigableMap<String, Map<Long, Float>> matches =
+                postings.subMap(token, true, token + Character.MAX_VALUE, false);
+        for (Map.Entry<String, Map<Long, Float>> match : matches.entrySet()) {
+            Map<Long, Float> termPostings = match.getValue();
+            float factor = match.getKey().equals(token) ? 1.0f : PREFIX_MATCH_FACTOR;
+            float idf = (float) Math.log(1.0 + (double) documentCount / termPostings.size());
+            for (Map.Entry<Long, Float> posting : termPostings.entrySet()) {
+                float tf = posting.getValue();
+                float score = factor * idf * (tf * (TF_SATURATION + 1)) / (tf + TF_SATURATION);
+                tokenScores.merge(posting.getKey(), score, Math::max);
+            }
+        }
+        return tokenScores;
+    }
+
+    private static void addDocument(TreeMap<String, Map<Long, Float>> postings, Map<Long, Set<String>> documentTerms,
+                                    Map<Long, Long> documentCategories, Product product) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, product.getName(), NAME_WEIGHT);
+        addField(weights, product.getDescription(), DESCRIPTION_WEIGHT);
+        if (product.getCategory() != null) {
+            addField(weights, product.getCategory().getName(), CATEGORY_WEIGHT);
+            documentCategories.put(product.getId(), product.getCategory().getId());
+        }
+
+        for (Map.Entry<String, Float> weight : weights.entrySet()) {
+            postings.computeIfAbsent(weight.getKey(), term -> new HashMap<>())
+                    .put(product.getId(), weight.getValue());
+        }
+        documentTerms.put(product.getId(), new HashSet<>(weights.keySet()));
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float fieldWeight) {
+        for (String token : TextAnalyzer.tokenize(text)) {
+            weights.merge(token, fieldWeight, Float::sum);
+        }
+    }
+
+    private void removeDocument(Long productId) {
+        documentCategories.remove(productId);
+        Set<String> terms = documentTerms.remove(productId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Float> termPostings = postings.get(term);
+            if (termPostings != null) {
+                termPostings.remove(productId);
+                if (termPostings.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
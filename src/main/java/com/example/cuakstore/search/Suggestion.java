@@ -0,0 +1,6 @@
+package com.example.cuakstore.search;
+
+public record Suggestion(String text, String type, Long id, long popularity) {
+    public static final String PRODUCT = "product";
+    public static final String CATEGORY = "category";
+}
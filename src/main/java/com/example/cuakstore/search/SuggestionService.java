@@ -0,0 +1,265 @@
+package com.example.cuakstore.search;
+
+import com.example.cuakstore.config.ReplicaRoutingDataSource;
+import com.example.cuakstore.event.CategoryChangedEvent;
+import com.example.cuakstore.event.ProductChangedEvent;
+import com.example.cuakstore.model.Category;
+import com.example.cuakstore.model.Product;
+import com.example.cuakstore.repository.CategoryRepository;
+import com.example.cuakstore.repository.OrderItemRepository;
+import com.example.cuakstore.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Type-ahead over product and category names ranked by popularity (units sold for products,
+ * products plus units sold for categories). Lookups go to an immutable
+ * {@link PrefixCompletionIndex} plus a small overlay of the catalog writes made since it was
+ * built, so a write is visible at once without rebuilding the index. Once the overlay holds
+ * {@code search.suggest.max-pending} changes they are folded into a fresh index in the
+ * background; popularity is recomputed from order history on a slower schedule, reading from
+ * the primary so a lagging replica cannot bring back names the overlay has moved past.
+ */
+@Service
+public class SuggestionService {
+    private static final Logger logger = LoggerFactory.getLogger(SuggestionService.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Value("${search.suggest.max-results:10}")
+    private int maxResults;
+
+    @Value("${search.suggest.max-pending:64}")
+    private int maxPending;
+
+    // Guarded by this; the snapshot is replaced as a whole so lookups see a consistent pair
+    private final Map<String, Suggestion> entries = new HashMap<>();
+    // Category of each suggested product, so a category deletion can drop the products it
+    // cascaded to; guarded by this
+    private final Map<Long, Long> productCategories = new HashMap<>();
+    private volatile Snapshot snapshot = new Snapshot(PrefixCompletionIndex.empty(), Map.of());
+
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "suggestion-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        Snapshot current = snapshot;
+        int wanted = Math.min(limit, maxResults);
+        if (current.overlay().isEmpty()) {
+            return current.index().lookup(prefix, wanted);
+        }
+        String key = PrefixCompletionIndex.prefixKey(prefix);
+        if (key.isEmpty() || wanted <= 0) {
+            return List.of();
+        }
+
+        // At most overlay.size() of the indexed hits can be superseded, so this many always suffice
+        List<Suggestion> merged = new ArrayList<>();
+        for (Suggestion indexed : current.index().lookup(prefix, wanted + current.overlay().size())) {
+            if (!current.overlay().containsKey(keyOf(indexed))) {
+                merged.add(indexed);
+            }
+        }
+        for (Pending pending : current.overlay().values()) {
+            if (pending.suggestion() != null && pending.keys().stream().anyMatch(k -> k.startsWith(key))) {
+                merged.add(pending.suggestion());
+            }
+        }
+        merged.sort(PrefixCompletionIndex.RANKING);
+        return merged.subList(0, Math.min(wanted, merged.size()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${search.suggest.refresh-ms:600000}",
+               fixedDelayString = "${search.suggest.refresh-ms:600000}")
+    public void reload() {
+        Map<Long, Long> unitsSold = new HashMap<>();
+        for (Object[] row : ReplicaRoutingDataSource.readFromPrimary(orderItemRepository::sumQuantityByProduct)) {
+            unitsSold.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+
+        Map<String, Suggestion> loaded = new HashMap<>();
+        Map<Long, Long> categoryPopularity = new HashMap<>();
+        Map<Long, Long> loadedCategories = new HashMap<>();
+        for (Object[] row : ReplicaRoutingDataSource.readFromPrimary(productRepository::findSuggestionRows)) {
+            Long productId = (Long) row[0];
+            Long categoryId = (Long) row[2];
+            long popularity = unitsSold.getOrDefault(productId, 0L);
+            loaded.put(productKey(productId),
+                    new Suggestion((String) row[1], Suggestion.PRODUCT, productId, popularity));
+            if (categoryId != null) {
+                categoryPopularity.merge(categoryId, popularity + 1, Long::sum);
+                loadedCategories.put(productId, categoryId);
+            }
+        }
+        for (Category category : ReplicaRoutingDataSource.readFromPrimary(categoryRepository::findAll)) {
+            loaded.put(categoryKey(category.getId()), new Suggestion(category.getName(), Suggestion.CATEGORY,
+                    category.getId(), categoryPopularity.getOrDefault(category.getId(), 0L)));
+        }
+
+        synchronized (this) {
+            // Writes that committed after the rows were read win over what was loaded
+            loaded.keySet().removeAll(snapshot.overlay().keySet());
+            entries.keySet().removeIf(key -> !loaded.containsKey(key) && !snapshot.overlay().containsKey(key));
+            entries.putAll(loaded);
+            loadedCategories.keySet().removeIf(id -> snapshot.overlay().containsKey(productKey(id)));
+            productCategories.keySet().removeIf(id -> !loadedCategories.containsKey(id)
+                    && !snapshot.overlay().containsKey(productKey(id)));
+            productCategories.putAll(loadedCategories);
+        }
+        rebuild();
+        logger.info("Suggestion index loaded with {} entries", snapshot.index().size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        String key = productKey(event.productId());
+        if (event.isDeleted()) {
+            setCategory(event.productId(), null);
+            apply(key, null);
+        } else {
+            Product product = event.product();
+            setCategory(product.getId(), product.getCategory() != null ? product.getCategory().getId() : null);
+            apply(key, new Suggestion(product.getName(), Suggestion.PRODUCT, product.getId(), popularityOf(key)));
+        }
+    }
+
+    /**
+     * Deleting a category also drops the suggestions of the products deleted with it.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        String key = categoryKey(event.categoryId());
+        if (event.isDeleted()) {
+            for (Long productId : removeProductsOf(event.categoryId())) {
+                apply(productKey(productId), null);
+            }
+            apply(key, null);
+        } else {
+            Category category = event.category();
+            apply(key, new Suggestion(category.getName(), Suggestion.CATEGORY, category.getId(), popularityOf(key)));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * Records a change in the entry set and the overlay; {@code suggestion} is {@code null}
+     * for removals.
+     */
+    private synchronized void apply(String key, Suggestion suggestion) {
+        if (suggestion == null) {
+            entries.remove(key);
+        } else {
+            entries.put(key, suggestion);
+        }
+        Map<String, Pending> overlay = new HashMap<>(snapshot.overlay());
+        overlay.put(key, new Pending(suggestion,
+                suggestion != null ? PrefixCompletionIndex.keysOf(suggestion.text()) : List.of()));
+        snapshot = new Snapshot(snapshot.index(), Map.copyOf(overlay));
+        if (overlay.size() >= maxPending) {
+            scheduleRebuild();
+        }
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildPending.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    /**
+     * Builds a new index from the current entries and drops the overlay changes it now
+     * contains; changes made while it was building stay in the overlay.
+     */
+    private void rebuild() {
+        List<Suggestion> suggestions;
+        Map<String, Pending> folded;
+        synchronized (this) {
+            suggestions = new ArrayList<>(entries.values());
+            folded = snapshot.overlay();
+        }
+        PrefixCompletionIndex built = PrefixCompletionIndex.build(suggestions);
+        synchronized (this) {
+            Map<String, Pending> remaining = new HashMap<>(snapshot.overlay());
+            folded.forEach(remaining::remove);
+            snapshot = new Snapshot(built, Map.copyOf(remaining));
+        }
+    }
+
+    private synchronized void setCategory(Long productId, Long categoryId) {
+        if (categoryId == null) {
+            productCategories.remove(productId);
+        } else {
+            productCategories.put(productId, categoryId);
+        }
+    }
+
+    private synchronized List<Long> removeProductsOf(Long categoryId) {
+        List<Long> removed = new ArrayList<>();
+        productCategories.entrySet().removeIf(entry -> {
+            if (entry.getValue().equals(categoryId)) {
+                removed.add(entry.getKey());
+                return true;
+            }
+            return false;
+        });
+        return removed;
+    }
+
+    private synchronized long popularityOf(String key) {
+        Suggestion existing = entries.get(key);
+        return existing != null ? existing.popularity() : 0L;
+    }
+
+    private static String productKey(Long id) {
+        return "p:" + id;
+    }
+
+    private static String categoryKey(Long id) {
+        return "c:" + id;
+    }
+
+    private static String keyOf(Suggestion suggestion) {
+        return Suggestion.CATEGORY.equals(suggestion.type()) ? categoryKey(suggestion.id()) : productKey(suggestion.id());
+    }
+
+    private record Snapshot(PrefixCompletionIndex index, Map<String, Pending> overlay) {
+    }
+
+    private record Pending(Suggestion suggestion, List<String> keys) {
+    }
+}
@@ -17,7 +17,11 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.example.cuakstore.security.services.UserDetailsImpl;
 import com.example.cuakstore.security.services.UserDetailsServiceImpl;
+import com.example.cuakstore.security.services.UserInvalidationRegistry;
+
+import io.jsonwebtoken.Claims;
 
 public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
@@ -26,6 +30,9 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private UserInvalidationRegistry userInvalidationRegistry;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     @Override
@@ -33,10 +40,9 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            Claims claims = jwt != null ? jwtUtils.parseAndValidateJwtToken(jwt) : null;
+            if (claims != null) {
+                UserDetails userDetails = resolveUserDetails(claims);
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails,
@@ -53,6 +59,19 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Trusts the principal signed into the token unless the user changed after it was issued,
+     * in which case the current roles are loaded from the database. A deleted user fails that
+     * load, leaving the request unauthenticated.
+     */
+    private UserDetails resolveUserDetails(Claims claims) {
+        UserDetailsImpl fromClaims = jwtUtils.getUserDetailsFromClaims(claims);
+        if (fromClaims != null && !userInvalidationRegistry.isInvalidated(fromClaims.getId(), fromClaims.getVersion())) {
+            return fromClaims;
+        }
+        return userDetailsService.loadUserByUsername(claims.getSubject());
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
@@ -1,14 +1,26 @@
 package com.example.cuakstore.security.jwt;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+
+import jakarta.annotation.PostConstruct;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import com.example.cuakstore.security.services.UserDetailsImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
@@ -21,38 +33,84 @@ import javax.crypto.SecretKey;
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    private static final String CLAIM_USER_ID = "id";
+    private static final String CLAIM_EMAIL = "email";
+    private static final String CLAIM_ROLES = "roles";
+    private static final String CLAIM_USER_VERSION = "ver";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private int jwtExpirationMs;
 
+    @Value("${jwt.verified-cache.size:10000}")
+    private int verifiedCacheSize;
+
+    @Value("${jwt.verified-cache.ttl-ms:300000}")
+    private long verifiedCacheTtlMs;
+
+    // Key and parser are immutable and thread-safe, so they are built once
+    private SecretKey key;
+    private JwtParser parser;
+
+    // Claims of recently verified tokens, keyed by the token's SHA-256 so raw tokens are not retained
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parserBuilder().setSigningKey(key).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfterWrite(Duration.ofMillis(verifiedCacheTtlMs))
+                .build();
+    }
+
     public String generateJwtToken(Authentication authentication) {
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
+        List<String> roles = userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
 
         return Jwts.builder()
                 .setSubject(userPrincipal.getUsername()) // Use setSubject
+                .claim(CLAIM_USER_ID, userPrincipal.getId())
+                .claim(CLAIM_EMAIL, userPrincipal.getEmail())
+                .claim(CLAIM_ROLES, roles)
+                .claim(CLAIM_USER_VERSION, userPrincipal.getVersion())
                 .setIssuedAt(new Date()) // Use setIssuedAt
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs)) // Use setExpiration
-                .signWith(key(), SignatureAlgorithm.HS512) // Specify the algorithm explicitly if needed, or signWith(key()) might infer
+                .signWith(key, SignatureAlgorithm.HS512) // Specify the algorithm explicitly if needed, or signWith(key()) might infer
                 .compact();
     }
 
-    private SecretKey key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
-    }
+    /**
+     * Verifies the token once and returns its claims, or {@code null} when the token is
+     * invalid or expired. A token seen recently is not verified again until its cache
+     * entry expires, but its expiration claim is still checked on every call.
+     */
+    public Claims parseAndValidateJwtToken(String authToken) {
+        if (authToken == null || authToken.isEmpty()) {
+            logger.error("JWT claims string is empty");
+            return null;
+        }
 
-    public String getUserNameFromJwtToken(String token) {
-        // Updated parser logic
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
-    }
+        String cacheKey = hash(authToken);
+        Claims cached = verifiedTokens.getIfPresent(cacheKey);
+        if (cached != null) {
+            if (cached.getExpiration() != null && cached.getExpiration().before(new Date())) {
+                verifiedTokens.invalidate(cacheKey);
+                logger.error("JWT token is expired: {}", cached.getExpiration());
+                return null;
+            }
+            return cached;
+        }
 
-    public boolean validateJwtToken(String authToken) {
         try {
-            // Updated parser logic
-            Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(authToken);
-            return true;
+            Claims claims = parser.parseClaimsJws(authToken).getBody();
+            verifiedTokens.put(cacheKey, claims);
+            return claims;
         } catch (SignatureException e) { // More specific exception
             logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -65,6 +123,45 @@ public class JwtUtils {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
 
-        return false;
+        return null;
+    }
+
+    public String getUserNameFromJwtToken(String token) {
+        Claims claims = parseAndValidateJwtToken(token);
+        return claims != null ? claims.getSubject() : null;
+    }
+
+    /**
+     * Rebuilds the principal signed into the token, or returns {@code null} for tokens
+     * issued before the id, email and roles claims were added. Tokens without a user version
+     * get a {@code null} one, which {@code UserInvalidationRegistry} never trusts.
+     */
+    public UserDetailsImpl getUserDetailsFromClaims(Claims claims) {
+        Object id = claims.get(CLAIM_USER_ID);
+        Object roles = claims.get(CLAIM_ROLES);
+        Object version = claims.get(CLAIM_USER_VERSION);
+        if (!(id instanceof Number) || !(roles instanceof Collection<?> roleNames)) {
+            return null;
+        }
+
+        return UserDetailsImpl.build(
+                ((Number) id).longValue(),
+                claims.getSubject(),
+                claims.get(CLAIM_EMAIL, String.class),
+                roleNames.stream().map(String::valueOf).toList(),
+                version instanceof Number number ? number.longValue() : null);
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return parseAndValidateJwtToken(authToken) != null;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
-}
\ No newline at end of file
+}
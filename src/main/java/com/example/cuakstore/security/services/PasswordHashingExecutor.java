@@ -0,0 +1,144 @@
+package com.example.cuakstore.security.services;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Runs BCrypt work on a small fixed pool with a bounded queue, so a login burst can use at
+ * most {@code threads} cores and never occupies more than {@code threads + queue-capacity}
+ * request threads. Anything beyond that, or anything that waited in the queue longer than
+ * {@code max-queue-wait-ms}, fails fast with {@link PasswordHashingRejectedException}.
+ *
+ * <p>Metrics: {@code auth.password.hash} (hashing time, by operation),
+ * {@code auth.password.queue.wait}, {@code auth.password.queue.depth} and
+ * {@code auth.password.rejected} (by reason).
+ */
+@Component
+public class PasswordHashingExecutor {
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.password-hashing.threads:0}")
+    private int threads;
+
+    @Value("${auth.password-hashing.queue-capacity:32}")
+    private int queueCapacity;
+
+    @Value("${auth.password-hashing.max-queue-wait-ms:1000}")
+    private long maxQueueWaitMs;
+
+    @Value("${auth.password-hashing.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    private ThreadPoolExecutor executor;
+    private final Map<String, Timer> hashTimers = new ConcurrentHashMap<>();
+    private Timer queueWaitTimer;
+    private Counter queueFullCounter;
+    private Counter queueTimeoutCounter;
+
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        queueWaitTimer = Timer.builder("auth.password.queue.wait")
+                .description("Time password hashing tasks waited for a worker")
+                .register(meterRegistry);
+        queueFullCounter = rejectedCounter("queue_full");
+        queueTimeoutCounter = rejectedCounter("queue_timeout");
+        Gauge.builder("auth.password.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Password hashing tasks waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs {@code work} on the hashing pool and waits for it on the calling thread.
+     */
+    public <T> T execute(String operation, Supplier<T> work) {
+        Timer hashTimer = hashTimers.computeIfAbsent(operation, this::hashTimer);
+        long maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMs);
+        long submittedAt = System.nanoTime();
+
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long waited = System.nanoTime() - submittedAt;
+                queueWaitTimer.record(waited, TimeUnit.NANOSECONDS);
+                if (waited > maxQueueWaitNanos) {
+                    // The caller has likely given up; don't burn a core on a stale request
+                    queueTimeoutCounter.increment();
+                    throw rejection();
+                }
+                return hashTimer.record(work);
+            });
+        } catch (RejectedExecutionException e) {
+            queueFullCounter.increment();
+            throw rejection();
+        }
+
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw rejection();
+        }
+    }
+
+    private PasswordHashingRejectedException rejection() {
+        return new PasswordHashingRejectedException(
+                "Authentication service is busy, please retry shortly", retryAfterSeconds);
+    }
+
+    private Timer hashTimer(String operation) {
+        return Timer.builder("auth.password.hash")
+                .description("Time spent hashing or verifying passwords")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private Counter rejectedCounter(String reason) {
+        return Counter.builder("auth.password.rejected")
+                .description("Password hashing requests rejected by admission control")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.cuakstore.security.services;
+
+/**
+ * Thrown when the password-hashing executor is saturated. Callers should answer 503 with
+ * the suggested {@code Retry-After}.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public PasswordHashingRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.cuakstore.security.services;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.example.cuakstore.model.User;
+
+/**
+ * Entity listener on {@link User}. Role changes bump the user's version, so they come through
+ * {@link PostUpdate} as well. Instantiated by Hibernate through Spring's bean container, which
+ * is what injects the registry.
+ */
+public class UserChangeListener {
+    @Autowired
+    private UserInvalidationRegistry userInvalidationRegistry;
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(User user) {
+        userInvalidationRegistry.userChanged(user.getId());
+    }
+}
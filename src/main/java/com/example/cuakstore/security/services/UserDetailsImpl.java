@@ -24,13 +24,16 @@ public class UserDetailsImpl implements UserDetails {
 
     private Collection<? extends GrantedAuthority> authorities;
 
+    private Long version;
+
     public UserDetailsImpl(Long id, String username, String email, String password,
-                           Collection<? extends GrantedAuthority> authorities) {
+                           Collection<? extends GrantedAuthority> authorities, Long version) {
         this.id = id;
         this.username = username;
         this.email = email;
         this.password = password;
         this.authorities = authorities;
+        this.version = version;
     }
 
     public static UserDetailsImpl build(User user) {
@@ -43,7 +46,22 @@ public class UserDetailsImpl implements UserDetails {
                 user.getUsername(),
                 user.getEmail(),
                 user.getPassword(),
-                authorities);
+                authorities,
+                user.getVersion());
+    }
+
+    /**
+     * Builds a principal from signed token claims. There is no password; the principal is
+     * only used to authorize the current request. {@code version} is the user version the
+     * token was issued with.
+     */
+    public static UserDetailsImpl build(Long id, String username, String email, Collection<String> roles,
+                                        Long version) {
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+
+        return new UserDetailsImpl(id, username, email, null, authorities, version);
     }
 
     @Override
@@ -59,6 +77,10 @@ public class UserDetailsImpl implements UserDetails {
         return email;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     @Override
     public String getPassword() {
         return password;
@@ -0,0 +1,82 @@
+package com.example.cuakstore.security.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.cuakstore.model.User;
+import com.example.cuakstore.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Tells {@code AuthTokenFilter} whether the roles signed into a token are still current, by
+ * comparing the user version the token was issued with against {@link User#getVersion()}.
+ * The version is bumped in the same transaction as any change to the user or its roles. The
+ * check reads a single column by primary key from the primary, instead of loading the user and
+ * its roles.
+ *
+ * <p>Versions read are kept for {@code jwt.user-version-cache.ttl-ms}, so a busy user costs one
+ * primary round trip per TTL rather than one per request. A change saved through this instance
+ * evicts the entry when it commits ({@link UserChangeListener}); one saved through another
+ * instance is only seen here once the entry expires, so a revoked role or deleted user may
+ * still be honoured by other instances for up to that TTL.
+ */
+@Component
+public class UserInvalidationRegistry {
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${jwt.user-version-cache.size:10000}")
+    private int versionCacheSize;
+
+    @Value("${jwt.user-version-cache.ttl-ms:5000}")
+    private long versionCacheTtlMs;
+
+    // Empty for users that no longer exist, so a token of a deleted user is not a query each time
+    private Cache<Long, Optional<Long>> versions;
+
+    @PostConstruct
+    public void init() {
+        versions = Caffeine.newBuilder()
+                .maximumSize(versionCacheSize)
+                .expireAfterWrite(Duration.ofMillis(versionCacheTtlMs))
+                .build();
+    }
+
+    /**
+     * Whether claims about this user signed at {@code tokenVersion} may be stale. Tokens
+     * without a version, issued before it was added, always are, and so are tokens of users
+     * that no longer exist.
+     */
+    public boolean isInvalidated(Long userId, Long tokenVersion) {
+        if (tokenVersion == null) {
+            return true;
+        }
+        return versions.get(userId, userRepository::findVersionById)
+                .map(current -> !current.equals(tokenVersion))
+                .orElse(true);
+    }
+
+    /**
+     * Forgets the cached version of a changed user, right away and again once the surrounding
+     * transaction completes, so a request racing the commit cannot keep the old version cached.
+     */
+    public void userChanged(Long userId) {
+        versions.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    versions.invalidate(userId);
+                }
+            });
+        }
+    }
+}
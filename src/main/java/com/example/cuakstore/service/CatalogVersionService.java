@@ -0,0 +1,182 @@
+package com.example.cuakstore.service;
+
+import com.example.cuakstore.config.CacheConfig;
+import com.example.cuakstore.event.CategoryChangedEvent;
+import com.example.cuakstore.event.ProductChangedEvent;
+import com.example.cuakstore.repository.CategoryRepository;
+import com.example.cuakstore.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * HTTP validators for catalog responses, derived from persisted state so every instance (and
+ * every restart) computes the same ETag for the same data. A product's ETag follows its own
+ * modification time, its stock and its category's modification time; collections follow the
+ * latest modification time and row count of the products and categories tables.
+ *
+ * <p>Stock is deliberately kept out of what collections are keyed on: reservations move it on
+ * every order, and evicting the cached lists and their validators each time would leave nothing
+ * to reuse. A stock change evicts only the product's own entry. Cached lists show stock as of
+ * their load, at most the {@code catalog.cache.spec} TTL old, and collection ETags take stock
+ * changes into account once per {@code catalog.http.max-staleness-ms}.
+ *
+ * <p>Each change evicts the affected catalog cache entries right after its commit, with the
+ * immediate {@code evictIfPresent}/{@code invalidate}: {@code evict}/{@code clear} would be
+ * deferred by the transaction-aware cache manager to a commit callback of its own, and a request
+ * arriving before it ran would pair the new ETag with the old cached body.
+ */
+@Service
+public class CatalogVersionService {
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Value("${catalog.http.max-staleness-ms:600000}")
+    private long maxStalenessMs;
+
+    @Value("${catalog.http.max-age-s:10}")
+    private long maxAgeSeconds;
+
+    @Value("${catalog.http.stale-while-revalidate-s:60}")
+    private long staleWhileRevalidateSeconds;
+
+    /**
+     * ETag for any collection of products or categories: changes whenever a product or category
+     * is added, edited or removed, and at most once per staleness window for stock changes.
+     */
+    public String catalogETag() {
+        Object[] products = productRepository.findCatalogStamp().get(0);
+        Object[] categories = categoryRepository.findCatalogStamp().get(0);
+        return etag("c", part(products[0]), part(products[1]), bucket(products[2]),
+                part(categories[0]), part(categories[1]));
+    }
+
+    public String productETag(Long productId) {
+        // Product responses embed the category name, so category edits count too
+        List<Object[]> stamp = productRepository.findStampById(productId);
+        if (stamp.isEmpty()) {
+            return etag("p" + productId, "none");
+        }
+        Object[] row = stamp.get(0);
+        return etag("p" + productId, part(row[0]), part(row[1]), part(row[2]));
+    }
+
+    public String categoryETag(Long categoryId) {
+        List<LocalDateTime> updatedAt = categoryRepository.findUpdatedAtById(categoryId);
+        return etag("k" + categoryId, updatedAt.isEmpty() ? "none" : part(updatedAt.get(0)));
+    }
+
+    /**
+     * Collections may be reused briefly and then served stale while the client revalidates.
+     */
+    public CacheControl collectionCacheControl() {
+        return CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds))
+                .staleWhileRevalidate(Duration.ofSeconds(staleWhileRevalidateSeconds))
+                .cachePublic();
+    }
+
+    /**
+     * Single entities are revalidated on every use; a match costs a 304 and no query.
+     */
+    public CacheControl entityCacheControl() {
+        return CacheControl.noCache().cachePublic();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evictProduct(event.productId());
+        invalidateLists();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        // Every cached product response may embed the category name
+        invalidate(CacheConfig.PRODUCTS);
+        invalidateLists();
+    }
+
+    /**
+     * Hook for stock changes made with a bulk update, which bypass the {@code @CacheEvict}s on
+     * {@link ProductService}: once the surrounding transaction commits, evicts the product's
+     * cached response. Cached lists keep their stock figures until they expire.
+     */
+    public void stockChanged(Long productId) {
+        afterCommit(() -> evictProduct(productId));
+    }
+
+    /**
+     * Records products added without a {@link ProductChangedEvent}, e.g. by a bulk import.
+     * Existing products are unchanged, so only the cached lists are dropped.
+     */
+    public void productsAdded() {
+        afterCommit(this::invalidateLists);
+    }
+
+    private void evictProduct(Long productId) {
+        Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        if (products != null) {
+            products.evictIfPresent(productId);
+        }
+    }
+
+    private void invalidateLists() {
+        invalidate(CacheConfig.PRODUCT_LIST);
+        invalidate(CacheConfig.PRODUCTS_BY_CATEGORY);
+    }
+
+    private void invalidate(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.invalidate();
+        }
+    }
+
+    private String bucket(Object lastStockChange) {
+        if (!(lastStockChange instanceof LocalDateTime time)) {
+            return "0";
+        }
+        return Long.toString(time.toInstant(ZoneOffset.UTC).toEpochMilli() / Math.max(1, maxStalenessMs), 36);
+    }
+
+    private static String part(Object value) {
+        if (value instanceof LocalDateTime time) {
+            // Microsecond resolution, as stored; ETags may not contain spaces or colons
+            return Long.toString(time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000, 36);
+        }
+        return String.valueOf(value);
+    }
+
+    private static String etag(String entity, String... parts) {
+        return "\"" + entity + "-" + String.join(".", parts) + "\"";
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
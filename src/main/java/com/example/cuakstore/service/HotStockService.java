@@ -0,0 +1,278 @@
+package com.example.cuakstore.service;
+
+import com.example.cuakstore.payload.response.ProductResponse;
+import com.example.cuakstore.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory stock budgets for products under promotion.
+ *
+ * <p>For a hot product the {@code products.stock_quantity} column holds only the stock that
+ * has not been handed to this instance yet. Budget is claimed from it in chunks with the same
+ * conditional update {@link InventoryService} uses, so the row is written once per chunk
+ * instead of once per order, and several instances can share a product without overselling.
+ * A scheduled flush tops budgets up and returns released or surplus stock to the database in
+ * one batched transaction. Budget is only credited after the claiming transaction commits and
+ * reservations are given back when the order transaction rolls back, so the counters follow
+ * the {@link OrderService} lifecycle. If the instance dies, unsold budget is lost from the
+ * column until an operator corrects it; stock can be under-reported but never oversold.
+ */
+@Service
+public class HotStockService {
+    private static final Logger logger = LoggerFactory.getLogger(HotStockService.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Value("${inventory.hot.product-ids:}")
+    private List<Long> configuredHotProductIds;
+
+    @Value("${inventory.hot.chunk-size:50}")
+    private int chunkSize;
+
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, StripedStockCounter> counters = new ConcurrentHashMap<>();
+    private final Map<Long, Long> pendingReturns = new ConcurrentHashMap<>();
+
+    public HotStockService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void markConfiguredProducts() {
+        configuredHotProductIds.forEach(this::markHot);
+    }
+
+    public boolean isHot(Long productId) {
+        return counters.containsKey(productId);
+    }
+
+    public boolean markHot(Long productId) {
+        if (!productRepository.existsById(productId)) {
+            return false;
+        }
+        counters.computeIfAbsent(productId,
+                id -> new StripedStockCounter(Runtime.getRuntime().availableProcessors()));
+        return true;
+    }
+
+    /**
+     * Stops treating the product as hot; its remaining budget goes back to the database
+     * on the next flush.
+     */
+    public boolean unmarkHot(Long productId) {
+        StripedStockCounter counter = counters.remove(productId);
+        if (counter == null) {
+            return false;
+        }
+        scheduleReturn(productId, counter.drain());
+        return true;
+    }
+
+    /**
+     * Budget currently held in memory per hot product, keyed by product id.
+     */
+    public Map<Long, Long> getBudgets() {
+        Map<Long, Long> budgets = new TreeMap<>();
+        counters.forEach((id, counter) -> budgets.put(id, counter.sum()));
+        return budgets;
+    }
+
+    /**
+     * The response with this instance's budget added back to the stock column, so a hot
+     * product is not shown as short while its stock sits in the counters. Budget held by
+     * other instances is not visible here and still reads as sold.
+     */
+    public ProductResponse withBudget(ProductResponse product) {
+        StripedStockCounter counter = counters.get(product.getId());
+        if (counter == null || product.getStockQuantity() == null) {
+            return product;
+        }
+        return product.withStockQuantity(product.getStockQuantity() + Math.toIntExact(counter.sum()));
+    }
+
+    /**
+     * Budget this instance holds for the product; 0 when it is not hot.
+     */
+    public long getBudget(Long productId) {
+        StripedStockCounter counter = counters.get(productId);
+        return counter != null ? counter.sum() : 0L;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Long productId, int quantity) {
+        if (!tryReserve(productId, quantity)) {
+            throw new InsufficientStockException(productId, quantity);
+        }
+    }
+
+    /**
+     * Like {@link #reserve}, but reports a shortage by returning {@code false} instead of
+     * throwing, which would mark the caller's transaction rollback-only.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean tryReserve(Long productId, int quantity) {
+        StripedStockCounter counter = counters.get(productId);
+        if (counter == null) {
+            throw new IllegalStateException("Product " + productId + " is not hot");
+        }
+
+        int taken = Math.toIntExact(counter.acquireUpTo(quantity));
+        if (taken == quantity) {
+            afterCompletion(() -> {}, () -> credit(productId, counter, quantity));
+            return true;
+        }
+
+        // Cells cannot cover the order: claim the rest plus a chunk within the order
+        // transaction, keep the surplus, and put back what the cells gave on a shortfall
+        int missing = quantity - taken;
+        int claimed = claim(productId, missing, Math.max(chunkSize, missing));
+        if (claimed < missing) {
+            credit(productId, counter, taken);
+            return false;
+        }
+        afterCompletion(() -> credit(productId, counter, claimed - missing),
+                () -> credit(productId, counter, taken));
+        return true;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Long productId, int quantity) {
+        StripedStockCounter counter = counters.get(productId);
+        afterCompletion(() -> credit(productId, counter, quantity), () -> {});
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.hot.flush-ms:1000}")
+    public void flush() {
+        Map<Long, Long> returns = new HashMap<>();
+        pendingReturns.keySet().forEach(id -> {
+            Long amount = pendingReturns.remove(id);
+            if (amount != null && amount > 0) {
+                returns.merge(id, amount, Long::sum);
+            }
+        });
+
+        Map<Long, StripedStockCounter> toRefill = new HashMap<>();
+        counters.forEach((id, counter) -> {
+            long budget = counter.sum();
+            if (budget < chunkSize / 2) {
+                toRefill.put(id, counter);
+            } else if (budget > 4L * chunkSize) {
+                // Surplus from cancellations: keep two chunks, give the rest back
+                long drained = counter.drain();
+                long keep = Math.min(drained, 2L * chunkSize);
+                counter.add(keep);
+                returns.merge(id, drained - keep, Long::sum);
+            }
+        });
+
+        if (returns.isEmpty() && toRefill.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Integer> claimed = new HashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                returns.forEach((id, amount) -> {
+                    productRepository.incrementStock(id, Math.toIntExact(amount));
+                    catalogVersionService.stockChanged(id);
+                });
+                toRefill.keySet().stream().sorted().forEach(id -> claimed.put(id, claim(id, 1, chunkSize)));
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Could not flush hot stock counters, retrying on next run", e);
+            returns.forEach(this::scheduleReturn);
+            return;
+        }
+
+        claimed.forEach((id, amount) -> credit(id, toRefill.get(id), amount));
+    }
+
+    @PreDestroy
+    public void returnAllBudgets() {
+        Set<Long> ids = Set.copyOf(counters.keySet());
+        ids.forEach(this::unmarkHot);
+        flush();
+    }
+
+    /**
+     * Takes up to {@code wanted} units from the database row, but never fewer than
+     * {@code minimum}. Returns 0 when not even the minimum is available.
+     */
+    private int claim(Long productId, int minimum, int wanted) {
+        for (int attempt = 0; attempt < 3; attempt++) {
+            int available = productRepository.findStockQuantityById(productId).orElse(0);
+            int amount = Math.min(wanted, available);
+            if (amount < minimum) {
+                return 0;
+            }
+            if (productRepository.decrementStock(productId, amount) == 1) {
+                catalogVersionService.stockChanged(productId);
+                return amount;
+            }
+        }
+        // Another writer keeps moving the row; fall back to the bare minimum
+        if (productRepository.decrementStock(productId, minimum) == 1) {
+            catalogVersionService.stockChanged(productId);
+            return minimum;
+        }
+        return 0;
+    }
+
+    private void credit(Long productId, StripedStockCounter counter, long amount) {
+        if (amount <= 0) {
+            return;
+        }
+        if (counter != null && counters.get(productId) == counter) {
+            counter.add(amount);
+        } else {
+            scheduleReturn(productId, amount);
+        }
+    }
+
+    private void scheduleReturn(Long productId, long amount) {
+        if (amount > 0) {
+            pendingReturns.merge(productId, amount, Long::sum);
+        }
+    }
+
+    private static void afterCompletion(Runnable onCommit, Runnable onRollback) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                // STATUS_UNKNOWN does neither: losing budget is safer than handing it out twice
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                } else if (status == STATUS_ROLLED_BACK) {
+                    onRollback.run();
+                }
+            }
+        });
+    }
+}
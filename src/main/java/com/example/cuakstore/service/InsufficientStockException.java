@@ -0,0 +1,14 @@
+package com.example.cuakstore.service;
+
+public class InsufficientStockException extends RuntimeException {
+    private final Long productId;
+
+    public InsufficientStockException(Long productId, int requested) {
+        super("Insufficient stock for product " + productId + ": requested " + requested);
+        this.productId = productId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.cuakstore.service;
+
+import com.example.cuakstore.event.OrderStatusChangedEvent;
+import com.example.cuakstore.model.Order;
+import com.example.cuakstore.model.OrderItem;
+import com.example.cuakstore.model.OrderStatus;
+import com.example.cuakstore.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reserves stock for orders with a conditional {@code UPDATE ... WHERE stock_quantity >= ?}
+ * per product, so concurrent checkouts only contend on the rows they touch and can never
+ * drive stock below zero. Products are updated in id order to keep row-lock acquisition
+ * order consistent across transactions. Products marked hot are served from
+ * {@link HotStockService} budgets instead of touching their row on every order.
+ */
+@Service
+public class InventoryService {
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private HotStockService hotStockService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Order order) {
+        Map<Long, Integer> quantities = quantitiesByProduct(order);
+        Long shortProductId = reserveAll(quantities);
+        if (shortProductId != null) {
+            throw new InsufficientStockException(shortProductId, quantities.get(shortProductId));
+        }
+    }
+
+    /**
+     * All-or-nothing variant of {@link #reserve} that leaves the transaction usable: when a
+     * product is short, whatever was already reserved for the order is given back and
+     * {@code false} is returned.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean tryReserve(Order order) {
+        return reserveAll(quantitiesByProduct(order)) == null;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Order order) {
+        for (Map.Entry<Long, Integer> line : quantitiesByProduct(order).entrySet()) {
+            release(line.getKey(), line.getValue());
+        }
+    }
+
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        boolean held = holdsStock(event.previousStatus());
+        boolean holds = holdsStock(event.newStatus());
+        if (held && !holds) {
+            release(event.order());
+        } else if (!held && holds && event.previousStatus() != null && !event.stockReserved()) {
+            reserve(event.order());
+        }
+    }
+
+    public static boolean holdsStock(OrderStatus status) {
+        return status != null && status != OrderStatus.CANCELLED && status != OrderStatus.REFUNDED;
+    }
+
+    /**
+     * Reserves every line, undoing the ones already taken when one falls short. Returns the
+     * id of the product that was short, or {@code null} when everything was reserved.
+     */
+    private Long reserveAll(Map<Long, Integer> quantities) {
+        Map<Long, Integer> reserved = new TreeMap<>();
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            Long productId = line.getKey();
+            boolean taken;
+            if (hotStockService.isHot(productId)) {
+                taken = hotStockService.tryReserve(productId, line.getValue());
+            } else {
+                taken = productRepository.decrementStock(productId, line.getValue()) == 1;
+                if (taken) {
+                    catalogVersionService.stockChanged(productId);
+                }
+            }
+            if (!taken) {
+                reserved.forEach(this::release);
+                return productId;
+            }
+            reserved.put(productId, line.getValue());
+        }
+        return null;
+    }
+
+    private void release(Long productId, int quantity) {
+        if (hotStockService.isHot(productId)) {
+            hotStockService.release(productId, quantity);
+            return;
+        }
+        productRepository.incrementStock(productId, quantity);
+        catalogVersionService.stockChanged(productId);
+    }
+
+    private Map<Long, Integer> quantitiesByProduct(Order order) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            if (item.getProduct() == null || item.getProduct().getId() == null
+                    || item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Every order item needs a product and a positive quantity");
+            }
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+}
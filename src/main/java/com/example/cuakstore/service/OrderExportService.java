@@ -0,0 +1,168 @@
+package com.example.cuakstore.service;
+
+import com.example.cuakstore.model.OrderStatus;
+import com.example.cuakstore.payload.response.OrderExportRow;
+import com.example.cuakstore.repository.OrderRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes orders with their items straight from a database cursor to an output stream. Heap
+ * use does not grow with the number of orders: rows are read with a fetch size, never attached
+ * to the persistence context, and written out as they arrive.
+ *
+ * <p>NDJSON has one order per line with its items nested; CSV has one line per item with the
+ * order columns repeated.
+ */
+@Service
+public class OrderExportService {
+    private static final LocalDateTime MIN_DATE = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final int FLUSH_EVERY_ROWS = 1000;
+    private static final String CSV_HEADER = "order_id,user_id,username,order_date,status,total_amount,"
+            + "shipping_address,payment_id,payment_status,item_id,product_id,product_name,quantity,price";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public OrderExportService(PlatformTransactionManager transactionManager) {
+        // The cursor needs an open transaction for as long as the response is being written
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Streams the orders matching the filters (all optional; {@code to} is exclusive).
+     * Called from the response-writing thread, outside any request transaction.
+     */
+    public void export(OrderExportFormat format, OrderStatus status, LocalDateTime from, LocalDateTime to,
+                       OutputStream out) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            try (Stream<OrderExportRow> rows = orderRepository.streamForExport(status,
+                    from != null ? from : MIN_DATE, to != null ? to : MAX_DATE)) {
+                if (format == OrderExportFormat.CSV) {
+                    writeCsv(rows.iterator(), out);
+                } else {
+                    writeNdjson(rows.iterator(), out);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void writeNdjson(Iterator<OrderExportRow> rows, OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        // One order per line: no space between root values, a newline is written after each order
+        json.setRootValueSeparator(null);
+        Long currentOrderId = null;
+        int written = 0;
+        while (rows.hasNext()) {
+            OrderExportRow row = rows.next();
+            if (!row.orderId().equals(currentOrderId)) {
+                if (currentOrderId != null) {
+                    endOrder(json);
+                }
+                startOrder(json, row);
+                currentOrderId = row.orderId();
+            }
+            if (row.itemId() != null) {
+                json.writeStartObject();
+                json.writeNumberField("id", row.itemId());
+                writeNumberOrNull(json, "productId", row.productId());
+                json.writeStringField("productName", row.productName());
+                writeNumberOrNull(json, "quantity", row.quantity() == null ? null : row.quantity().longValue());
+                json.writeNumberField("price", row.price());
+                json.writeEndObject();
+            }
+            if (++written % FLUSH_EVERY_ROWS == 0) {
+                json.flush();
+            }
+        }
+        if (currentOrderId != null) {
+            endOrder(json);
+        }
+        json.flush();
+    }
+
+    private void startOrder(JsonGenerator json, OrderExportRow row) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", row.orderId());
+        json.writeNumberField("userId", row.userId());
+        json.writeStringField("username", row.username());
+        json.writeStringField("orderDate", row.orderDate() == null ? null : row.orderDate().toString());
+        json.writeStringField("status", row.status() == null ? null : row.status().name());
+        json.writeNumberField("totalAmount", row.totalAmount());
+        json.writeStringField("shippingAddress", row.shippingAddress());
+        json.writeStringField("paymentId", row.paymentId());
+        json.writeStringField("paymentStatus", row.paymentStatus());
+        json.writeArrayFieldStart("items");
+    }
+
+    private void endOrder(JsonGenerator json) throws IOException {
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private void writeNumberOrNull(JsonGenerator json, String field, Long value) throws IOException {
+        if (value == null) {
+            json.writeNullField(field);
+        } else {
+            json.writeNumberField(field, value);
+        }
+    }
+
+    private void writeCsv(Iterator<OrderExportRow> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        int written = 0;
+        while (rows.hasNext()) {
+            OrderExportRow row = rows.next();
+            writer.write(csv(row.orderId()) + ',' + csv(row.userId()) + ',' + csv(row.username()) + ','
+                    + csv(row.orderDate()) + ',' + csv(row.status()) + ',' + csv(row.totalAmount()) + ','
+                    + csv(row.shippingAddress()) + ',' + csv(row.paymentId()) + ',' + csv(row.paymentStatus()) + ','
+                    + csv(row.itemId()) + ',' + csv(row.productId()) + ',' + csv(row.productName()) + ','
+                    + csv(row.quantity()) + ',' + csv(row.price()));
+            writer.write("\r\n");
+            if (++written % FLUSH_EVERY_ROWS == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    // RFC 4180: quote fields containing separators, quotes or line breaks, doubling inner quotes
+    static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,53 +1,187 @@
 package com.example.cuakstore.service;
 
+import com.example.cuakstore.event.OrderStatusChangedEvent;
+import com.example.cuakstore.model.ArchivedOrder;
 import com.example.cuakstore.model.Order;
 import com.example.cuakstore.model.OrderItem;
 import com.example.cuakstore.model.OrderStatus;
 import com.example.cuakstore.model.User;
+import com.example.cuakstore.pagination.KeysetCursor;
+import com.example.cuakstore.payload.response.CursorPage;
+import com.example.cuakstore.payment.PaymentInfo;
+import com.example.cuakstore.repository.ArchivedOrderRepository;
 import com.example.cuakstore.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderService {
+    private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+    private static final String PAYMENT_APPROVED = "approved";
+    private static final String PAYMENT_REJECTED = "rejected";
+
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Transactional(readOnly = true)
     public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+        return orderRepository.findAllWithItems();
     }
 
     @Transactional(readOnly = true)
     public Page<Order> getAllOrders(Pageable pageable) {
-        return orderRepository.findAll(pageable);
+        Page<Order> page = orderRepository.findAll(pageable);
+        Map<Long, Order> withItems = loadWithItems(page.getContent());
+        return page.map(order -> withItems.get(order.getId()));
+    }
+
+    /**
+     * Re-reads a page of orders with their user, items and products in one query. Fetch
+     * joins cannot be combined with LIMIT on a collection, so the page is selected first.
+     */
+    private Map<Long, Order> loadWithItems(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> ids = orders.stream().map(Order::getId).collect(Collectors.toList());
+        return orderRepository.findWithItemsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
     }
 
+    /**
+     * Keyset pagination in descending {@code (sortBy, id)} order, newest first. Supported
+     * sort keys are {@code id} and {@code orderDate}; no total count is computed.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Order> getOrdersByCursor(String sortBy, String cursor, int size) {
+        KeysetCursor after = cursor != null ? KeysetCursor.decode(cursor) : null;
+        if (after != null && !after.getSortKey().equals(sortBy)) {
+            throw new IllegalArgumentException("Cursor does not match sort key: " + sortBy);
+        }
+
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Order> rows;
+        switch (sortBy) {
+            case "id" -> rows = after == null
+                    ? orderRepository.findSlice(PageRequest.of(0, size + 1, Sort.by(Sort.Direction.DESC, "id")))
+                    : orderRepository.findNextById(after.getId(), limit);
+            case "orderDate" -> rows = after == null
+                    ? orderRepository.findSlice(PageRequest.of(0, size + 1, Sort.by(Sort.Direction.DESC, "orderDate", "id")))
+                    : orderRepository.findNextByOrderDate(parseOrderDate(after.getValue()), after.getId(), limit);
+            default -> throw new IllegalArgumentException("Unsupported sort key: " + sortBy);
+        }
+
+        CursorPage<Order> page = CursorPage.fromSlice(rows, size, last -> KeysetCursor.of(sortBy, last.getId(),
+                "orderDate".equals(sortBy) ? last.getOrderDate() : last.getId()).encode());
+        Map<Long, Order> withItems = loadWithItems(page.getContent());
+        return page.map(order -> withItems.get(order.getId()));
+    }
+
+    private LocalDateTime parseOrderDate(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Looks in the live orders first, then in the archive. Archived orders come back as
+     * detached copies (see {@link ArchivedOrder#toOrder()}).
+     */
     @Transactional(readOnly = true)
     public Optional<Order> getOrderById(Long id) {
-        return orderRepository.findById(id);
+        return orderRepository.findById(id)
+                .or(() -> archivedOrderRepository.findWithItemsById(id).map(ArchivedOrder::toOrder));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Order> getOrderWithItems(Long id) {
+        return orderRepository.findWithItemsById(id)
+                .or(() -> archivedOrderRepository.findWithItemsById(id).map(ArchivedOrder::toOrder));
     }
 
+    /**
+     * A user's full history: live orders followed by archived ones.
+     */
     @Transactional(readOnly = true)
     public List<Order> getOrdersByUser(User user) {
-        return orderRepository.findByUser(user);
+        List<Order> orders = new ArrayList<>(orderRepository.findByUserWithItems(user));
+        for (ArchivedOrder archived : archivedOrderRepository.findByUserWithItems(user)) {
+            orders.add(archived.toOrder());
+        }
+        return orders;
     }
 
+    /**
+     * Pages over live orders followed by archived ones, each tier sorted by {@code pageable}.
+     * A page that runs past the live orders is filled from the archive; its offset there is
+     * usually not page-aligned, so up to two archive pages are read.
+     */
     @Transactional(readOnly = true)
     public Page<Order> getOrdersByUser(User user, Pageable pageable) {
-        return orderRepository.findByUser(user, pageable);
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(getOrdersByUser(user));
+        }
+        Page<Order> live = orderRepository.findByUser(user, pageable);
+        long archivedCount = archivedOrderRepository.countByUser(user);
+        long total = live.getTotalElements() + archivedCount;
+        int size = pageable.getPageSize();
+        if (live.getNumberOfElements() == size || archivedCount == 0) {
+            return new PageImpl<>(live.getContent(), pageable, total);
+        }
+
+        List<Order> content = new ArrayList<>(live.getContent());
+        long archiveOffset = Math.max(0, pageable.getOffset() - live.getTotalElements());
+        int archivePage = (int) (archiveOffset / size);
+        int skip = (int) (archiveOffset % size);
+        while (content.size() < size) {
+            List<ArchivedOrder> slice = archivedOrderRepository.findByUser(
+                    user, PageRequest.of(archivePage++, size, pageable.getSort()));
+            for (int i = skip; i < slice.size() && content.size() < size; i++) {
+                content.add(slice.get(i).toOrder());
+            }
+            skip = 0;
+            if (slice.size() < size) {
+                break;
+            }
+        }
+        return new PageImpl<>(content, pageable, total);
     }
 
     @Transactional(readOnly = true)
     public List<Order> getOrdersByStatus(OrderStatus status) {
-        return orderRepository.findByStatus(status);
+        return orderRepository.findByStatusWithItems(status);
     }
 
     @Transactional(readOnly = true)
@@ -67,8 +201,12 @@ public class OrderService {
 
     @Transactional
     public Order createOrder(Order order) {
+        order.getOrderItems().forEach(item -> item.setOrder(order));
+        inventoryService.reserve(order);
         order.calculateTotalAmount();
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderStatusChangedEvent(savedOrder, null));
+        return savedOrder;
     }
 
     @Transactional
@@ -77,12 +215,148 @@ public class OrderService {
         return orderRepository.save(order);
     }
 
+    /**
+     * Records a gateway payment on the order and moves the order to PAID or CANCELLED when
+     * the payment was approved or rejected. Applying the same payment status twice is a no-op,
+     * and a payment never undoes an approval made by a different payment. An approval that
+     * arrives after the order was cancelled takes its stock back if it is still there and
+     * otherwise flags the order for review. Concurrent updates to the same order fail with an
+     * optimistic locking exception and are retried by the caller. Archived orders are read-only,
+     * so a payment for one is logged and skipped rather than failing on every retry.
+     */
+    @Transactional
+    public Order applyPayment(Long orderId, String paymentId, String paymentStatus) {
+        Optional<Order> live = orderRepository.findWithItemsById(orderId);
+        if (live.isEmpty()) {
+            return archivedOrderRepository.findById(orderId)
+                    .map(archived -> skipArchived(archived, paymentId, paymentStatus))
+                    .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        }
+        Order order = live.get();
+        applyPayments(List.of(order), Map.of(orderId, new PaymentInfo(paymentId, paymentStatus, orderId.toString())));
+        return order;
+    }
+
+    /**
+     * Applies several gateway payments, keyed by order id, in one transaction. The orders are
+     * loaded with a single query and their updates are flushed together as a JDBC batch.
+     * Payments for archived or unknown orders are logged and skipped. Returns the number of
+     * orders that changed.
+     */
+    @Transactional
+    public int applyPayments(Map<Long, PaymentInfo> paymentsByOrderId) {
+        List<Order> orders = orderRepository.findWithItemsByIdIn(paymentsByOrderId.keySet());
+        if (orders.size() < paymentsByOrderId.size()) {
+            Set<Long> missing = new HashSet<>(paymentsByOrderId.keySet());
+            orders.forEach(order -> missing.remove(order.getId()));
+            for (ArchivedOrder archived : archivedOrderRepository.findAllById(missing)) {
+                PaymentInfo payment = paymentsByOrderId.get(archived.getId());
+                skipArchived(archived, payment.id(), payment.status());
+                missing.remove(archived.getId());
+            }
+            missing.forEach(id -> logger.warn("Ignoring payment {} for order {}, which does not exist",
+                    paymentsByOrderId.get(id).id(), id));
+        }
+        return applyPayments(orders, paymentsByOrderId);
+    }
+
+    /**
+     * A payment the archived order has not recorded is most likely a late approval or a refund
+     * made at the gateway, and needs someone to reconcile it by hand.
+     */
+    private Order skipArchived(ArchivedOrder archived, String paymentId, String paymentStatus) {
+        if (!paymentId.equals(archived.getPaymentId()) || !Objects.equals(paymentStatus, archived.getPaymentStatus())) {
+            logger.warn("Ignoring payment {} ({}) for archived order {} ({}, payment {} {}), reconcile it by hand",
+                    paymentId, paymentStatus, archived.getId(), archived.getStatus(),
+                    archived.getPaymentId(), archived.getPaymentStatus());
+        }
+        return archived.toOrder();
+    }
+
+    /**
+     * Every stock update flushes and clears the persistence context, so the orders are changed
+     * while still managed, then the status events (which release stock) are published, and
+     * late approvals of cancelled orders go last, re-attaching their order.
+     */
+    private int applyPayments(List<Order> orders, Map<Long, PaymentInfo> paymentsByOrderId) {
+        int changed = 0;
+        List<OrderStatusChangedEvent> events = new ArrayList<>();
+        List<Order> lateApprovals = new ArrayList<>();
+        for (Order order : orders) {
+            PaymentInfo payment = paymentsByOrderId.get(order.getId());
+            if (!isNewPayment(order, payment.id(), payment.status())) {
+                continue;
+            }
+            changed++;
+            OrderStatus previousStatus = order.getStatus();
+            if (PAYMENT_APPROVED.equals(payment.status()) && previousStatus == OrderStatus.CANCELLED) {
+                lateApprovals.add(order);
+                continue;
+            }
+            if (PAYMENT_APPROVED.equals(payment.status()) && previousStatus == OrderStatus.PENDING) {
+                order.setStatus(OrderStatus.PAID);
+            } else if (PAYMENT_REJECTED.equals(payment.status()) && previousStatus == OrderStatus.PENDING) {
+                order.setStatus(OrderStatus.CANCELLED);
+            }
+            order.setPaymentId(payment.id());
+            order.setPaymentStatus(payment.status());
+            if (previousStatus != order.getStatus()) {
+                events.add(new OrderStatusChangedEvent(order, previousStatus));
+            }
+        }
+        events.forEach(eventPublisher::publishEvent);
+        for (Order order : lateApprovals) {
+            applyLateApproval(order, paymentsByOrderId.get(order.getId()).id());
+        }
+        return changed;
+    }
+
+    private boolean isNewPayment(Order order, String paymentId, String paymentStatus) {
+        if (paymentId.equals(order.getPaymentId()) && Objects.equals(paymentStatus, order.getPaymentStatus())) {
+            return false;
+        }
+        if (!paymentId.equals(order.getPaymentId()) && PAYMENT_APPROVED.equals(order.getPaymentStatus())) {
+            logger.warn("Ignoring payment {} ({}) for order {}, already paid by payment {}",
+                    paymentId, paymentStatus, order.getId(), order.getPaymentId());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * A payment approved after its order was cancelled. If the stock has been sold meanwhile
+     * the order stays cancelled and is flagged for someone to refund or fulfil it by hand,
+     * instead of failing every other payment applied in the same transaction.
+     */
+    private void applyLateApproval(Order order, String paymentId) {
+        boolean reserved = inventoryService.tryReserve(order);
+        order.setPaymentId(paymentId);
+        order.setPaymentStatus(PAYMENT_APPROVED);
+        if (reserved) {
+            order.setStatus(OrderStatus.PAID);
+        } else {
+            order.setReviewReason("Payment " + paymentId + " approved after cancellation, stock no longer available");
+            logger.warn("Order {} was paid by payment {} after it was cancelled and its stock is gone, flagged for review",
+                    order.getId(), paymentId);
+        }
+        Order saved = orderRepository.save(order);
+        if (reserved) {
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(saved, OrderStatus.CANCELLED, true));
+        }
+    }
+
     @Transactional
     public Order updateOrderStatus(Long orderId, OrderStatus status) {
-        Order order = orderRepository.findById(orderId)
+        // Items are fetched up front: releasing stock clears the persistence context
+        Order order = orderRepository.findWithItemsById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        OrderStatus previousStatus = order.getStatus();
         order.setStatus(status);
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        if (previousStatus != status) {
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(savedOrder, previousStatus));
+        }
+        return savedOrder;
     }
 
     @Transactional
@@ -101,6 +375,10 @@ public class OrderService {
 
     @Transactional
     public void deleteOrder(Long id) {
+        // An order still holding stock gives it back, as cancelling it would
+        orderRepository.findWithItemsById(id)
+                .filter(order -> InventoryService.holdsStock(order.getStatus()))
+                .ifPresent(inventoryService::release);
         orderRepository.deleteById(id);
     }
 
@@ -0,0 +1,284 @@
+package com.example.cuakstore.service;
+
+import com.example.cuakstore.model.Category;
+import com.example.cuakstore.model.Product;
+import com.example.cuakstore.payload.request.ProductImportRow;
+import com.example.cuakstore.payload.response.ProductImportResponse;
+import com.example.cuakstore.repository.CategoryRepository;
+import com.example.cuakstore.search.ProductSearchIndex;
+import com.example.cuakstore.search.SuggestionService;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk catalog import from a CSV or JSON-array upload. The upload is parsed one row at a
+ * time, invalid rows are reported and skipped, and valid rows are inserted in chunks, each in
+ * its own transaction. Product ids come from a pooled sequence, so Hibernate can send the
+ * inserts as JDBC batches ({@code hibernate.jdbc.batch_size}).
+ */
+@Service
+public class ProductImportService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+    private static final List<String> CSV_COLUMNS =
+            List.of("name", "description", "price", "imageurl", "stockquantity", "category");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Value("${catalog.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${catalog.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public ProductImportService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public ProductImportResponse importCsv(InputStream in) throws IOException {
+        ImportRun run = new ImportRun();
+        CsvReader csv = new CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        List<String> header = csv.next();
+        if (header == null) {
+            return run.finish();
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+        }
+        if (!columns.containsKey("name") || !columns.containsKey("price")) {
+            throw new IllegalArgumentException("CSV header must include at least name and price; known columns: " + CSV_COLUMNS);
+        }
+
+        List<String> fields;
+        while ((fields = csv.next()) != null) {
+            long rowNumber = run.nextRow();
+            ProductImportRow row;
+            try {
+                row = new ProductImportRow();
+                row.setName(field(fields, columns, "name"));
+                row.setDescription(field(fields, columns, "description"));
+                String price = field(fields, columns, "price");
+                row.setPrice(price == null ? null : new BigDecimal(price));
+                row.setImageUrl(field(fields, columns, "imageurl"));
+                String stock = field(fields, columns, "stockquantity");
+                row.setStockQuantity(stock == null ? 0 : Integer.valueOf(stock));
+                row.setCategory(field(fields, columns, "category"));
+            } catch (NumberFormatException e) {
+                run.reject(rowNumber, "Invalid number: " + e.getMessage());
+                continue;
+            }
+            run.add(rowNumber, row);
+        }
+        return run.finish();
+    }
+
+    public ProductImportResponse importJson(InputStream in) throws IOException {
+        ImportRun run = new ImportRun();
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("JSON import must be an array of products");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IllegalArgumentException("JSON import ended before the closing ]");
+                }
+                long rowNumber = run.nextRow();
+                if (token != JsonToken.START_OBJECT) {
+                    // Skips a nested array or object whole; scalars are a single token already
+                    parser.skipChildren();
+                    run.reject(rowNumber, "Invalid row: expected a product object but found " + token);
+                    continue;
+                }
+                // Read the whole object first so a bad value only rejects its own row
+                JsonNode node = parser.readValueAsTree();
+                ProductImportRow row;
+                try {
+                    row = objectMapper.treeToValue(node, ProductImportRow.class);
+                } catch (JsonProcessingException e) {
+                    run.reject(rowNumber, "Invalid row: " + e.getOriginalMessage());
+                    continue;
+                }
+                if (row.getStockQuantity() == null) {
+                    row.setStockQuantity(0);
+                }
+                run.add(rowNumber, row);
+            }
+            if (parser.nextToken() != null) {
+                throw new IllegalArgumentException("Unexpected content after the JSON array");
+            }
+        }
+        return run.finish();
+    }
+
+    private String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * State of one import: the category lookup, the chunk being filled and the running result.
+     */
+    private class ImportRun {
+        private final Map<String, Long> categoryIds;
+        private final ProductImportResponse response = new ProductImportResponse();
+        private final List<Product> chunk = new ArrayList<>();
+        private final List<Long> chunkRows = new ArrayList<>();
+        private final List<Long> chunkCategoryIds = new ArrayList<>();
+        private long rowNumber;
+
+        ImportRun() {
+            categoryIds = categoryRepository.findAll().stream()
+                    .collect(Collectors.toMap(category -> category.getName().toLowerCase(Locale.ROOT),
+                            Category::getId, (first, second) -> first));
+        }
+
+        long nextRow() {
+            return ++rowNumber;
+        }
+
+        void reject(long row, String message) {
+            response.addError(row, message, maxReportedErrors);
+        }
+
+        void add(long row, ProductImportRow importRow) {
+            Long categoryId = null;
+            if (importRow.getCategory() != null && !importRow.getCategory().isBlank()) {
+                categoryId = categoryIds.get(importRow.getCategory().trim().toLowerCase(Locale.ROOT));
+                if (categoryId == null) {
+                    reject(row, "Unknown category: " + importRow.getCategory());
+                    return;
+                }
+            }
+
+            Product product = new Product();
+            product.setName(importRow.getName());
+            product.setDescription(importRow.getDescription());
+            product.setPrice(importRow.getPrice());
+            product.setImageUrl(importRow.getImageUrl());
+            product.setStockQuantity(importRow.getStockQuantity());
+            product.setCreatedAt(LocalDateTime.now());
+            String error = validate(product);
+            if (error != null) {
+                reject(row, error);
+                return;
+            }
+
+            chunk.add(product);
+            chunkRows.add(row);
+            chunkCategoryIds.add(categoryId);
+            if (chunk.size() >= chunkSize) {
+                flushChunk();
+            }
+        }
+
+        ProductImportResponse finish() {
+            flushChunk();
+            if (response.getImported() > 0) {
+                // One rebuild instead of an index update per imported product
+                productSearchIndex.rebuild();
+                suggestionService.reload();
+                catalogVersionService.productsAdded();
+            }
+            logger.info("Product import finished: {} imported, {} rejected", response.getImported(), response.getFailed());
+            return response;
+        }
+
+        private void flushChunk() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(tx -> {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        Product product = chunk.get(i);
+                        Long categoryId = chunkCategoryIds.get(i);
+                        if (categoryId != null) {
+                            product.setCategory(entityManager.getReference(Category.class, categoryId));
+                        }
+                        entityManager.persist(product);
+                    }
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+                response.addImported(chunk.size());
+            } catch (RuntimeException e) {
+                logger.warn("Product import chunk of {} rows failed: {}", chunk.size(), e.getMessage());
+                for (Long row : chunkRows) {
+                    reject(row, "Not imported, the batch containing this row failed: " + e.getMessage());
+                }
+            }
+            chunk.clear();
+            chunkRows.clear();
+            chunkCategoryIds.clear();
+        }
+    }
+
+    private String validate(Product product) {
+        Set<ConstraintViolation<Product>> violations = validator.validate(product);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        if (product.getStockQuantity() < 0) {
+            return "stockQuantity must not be negative";
+        }
+        return null;
+    }
+}
@@ -1,27 +1,63 @@
 package com.example.cuakstore.service;
 
+import com.example.cuakstore.config.CacheConfig;
+import com.example.cuakstore.config.ReplicaRoutingDataSource;
+import com.example.cuakstore.event.ProductChangedEvent;
 import com.example.cuakstore.model.Category;
 import com.example.cuakstore.model.Product;
+import com.example.cuakstore.pagination.KeysetCursor;
+import com.example.cuakstore.payload.response.CursorPage;
+import com.example.cuakstore.payload.response.ProductResponse;
 import com.example.cuakstore.repository.ProductRepository;
+import com.example.cuakstore.search.ProductSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${search.max-results:200}")
+    private int maxSearchResults;
+
+    /**
+     * Cached reads hand out immutable {@link ProductResponse} snapshots rather than entities,
+     * so a caller can never modify what other requests are served. The loads that fill a cache
+     * read from the primary, since an entry seeded from a lagging replica would outlive the lag;
+     * the uncached views below are served by the replicas.
+     */
     @Transactional(readOnly = true)
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    @Cacheable(CacheConfig.PRODUCT_LIST)
+    public List<ProductResponse> getAllProducts() {
+        return ReplicaRoutingDataSource.readFromPrimary(
+                () -> List.copyOf(ProductResponse.fromAll(productRepository.findAll())));
     }
 
     @Transactional(readOnly = true)
@@ -29,14 +65,49 @@ public class ProductService {
         return productRepository.findAll(pageable);
     }
 
+    /**
+     * Keyset pagination in ascending {@code (sortBy, id)} order. Supported sort keys are
+     * {@code id}, {@code name} and {@code price}; no total count is computed.
+     */
     @Transactional(readOnly = true)
-    public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+    public CursorPage<Product> getProductsByCursor(String sortBy, String cursor, int size) {
+        KeysetCursor after = cursor != null ? KeysetCursor.decode(cursor) : null;
+        if (after != null && !after.getSortKey().equals(sortBy)) {
+            throw new IllegalArgumentException("Cursor does not match sort key: " + sortBy);
+        }
+
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Product> rows = switch (sortBy) {
+            case "id" -> after == null
+                    ? productRepository.findSlice(PageRequest.of(0, size + 1, Sort.by("id")))
+                    : productRepository.findNextById(after.getId(), limit);
+            case "name" -> after == null
+                    ? productRepository.findSlice(PageRequest.of(0, size + 1, Sort.by("name", "id")))
+                    : productRepository.findNextByName(after.getValue(), after.getId(), limit);
+            case "price" -> after == null
+                    ? productRepository.findSlice(PageRequest.of(0, size + 1, Sort.by("price", "id")))
+                    : productRepository.findNextByPrice(new BigDecimal(after.getValue()), after.getId(), limit);
+            default -> throw new IllegalArgumentException("Unsupported sort key: " + sortBy);
+        };
+
+        return CursorPage.fromSlice(rows, size, last -> KeysetCursor.of(sortBy, last.getId(), switch (sortBy) {
+            case "name" -> last.getName();
+            case "price" -> last.getPrice().toPlainString();
+            default -> last.getId();
+        }).encode());
     }
 
     @Transactional(readOnly = true)
-    public List<Product> getProductsByCategory(Category category) {
-        return productRepository.findByCategory(category);
+    @Cacheable(CacheConfig.PRODUCTS)
+    public Optional<ProductResponse> getProductById(Long id) {
+        return ReplicaRoutingDataSource.readFromPrimary(() -> productRepository.findById(id).map(ProductResponse::from));
+    }
+
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS_BY_CATEGORY, key = "#category.id")
+    public List<ProductResponse> getProductsByCategory(Category category) {
+        return ReplicaRoutingDataSource.readFromPrimary(
+                () -> List.copyOf(ProductResponse.fromAll(productRepository.findByCategory(category))));
     }
 
     @Transactional(readOnly = true)
@@ -46,12 +117,29 @@ public class ProductService {
 
     @Transactional(readOnly = true)
     public List<Product> searchProductsByName(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name);
+        return findAllInOrder(productSearchIndex.search(name, maxSearchResults));
     }
 
     @Transactional(readOnly = true)
     public Page<Product> searchProductsByName(String name, Pageable pageable) {
-        return productRepository.findByNameContainingIgnoreCase(name, pageable);
+        // Ranks every match so the total is right and no page past search.max-results comes back empty
+        List<Long> ids = productSearchIndex.search(name, Integer.MAX_VALUE);
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        int to = Math.min(from + pageable.getPageSize(), ids.size());
+        return new PageImpl<>(findAllInOrder(ids.subList(from, to)), pageable, ids.size());
+    }
+
+    private List<Product> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            rank.put(ids.get(i), i);
+        }
+        return productRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(product -> rank.get(product.getId())))
+                .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
@@ -65,20 +153,39 @@ public class ProductService {
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_LIST, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS_BY_CATEGORY, allEntries = true)
+    })
     public Product createProduct(Product product) {
         product.setCreatedAt(LocalDateTime.now());
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(saved));
+        return saved;
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#product.id"),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_LIST, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS_BY_CATEGORY, allEntries = true)
+    })
     public Product updateProduct(Product product) {
         product.setUpdatedAt(LocalDateTime.now());
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(saved));
+        return saved;
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_LIST, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS_BY_CATEGORY, allEntries = true)
+    })
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
     }
 
     @Transactional
@@ -0,0 +1,91 @@
+package com.example.cuakstore.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Stock budget split across padded cells, in the spirit of {@link java.util.concurrent.atomic.LongAdder}:
+ * each thread starts on its own cell, so concurrent reservations rarely CAS the same slot.
+ * Unlike a LongAdder a cell never goes negative, which is what makes it usable as a budget.
+ */
+final class StripedStockCounter {
+    // 16 longs = 128 bytes between live slots, enough to keep neighbours off the same cache line
+    private static final int PADDING = 16;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    StripedStockCounter(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1) << 1);
+        this.cells = new AtomicLongArray(size * PADDING);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Takes up to {@code quantity} and returns how much was taken. The thread's own cell is
+     * tried first; when it cannot cover the whole amount the other cells are swept and
+     * partial amounts combined, so budget spread thinly over the stripes still serves a
+     * multi-unit order. A short result is the caller's to give back with {@link #add}.
+     */
+    long acquireUpTo(long quantity) {
+        int start = probe();
+        int own = start * PADDING;
+        long available;
+        while ((available = cells.get(own)) >= quantity) {
+            if (cells.compareAndSet(own, available, available - quantity)) {
+                return quantity;
+            }
+        }
+
+        long taken = 0;
+        for (int i = 0; i <= mask && taken < quantity; i++) {
+            int slot = ((start + i) & mask) * PADDING;
+            while ((available = cells.get(slot)) > 0) {
+                long amount = Math.min(available, quantity - taken);
+                if (cells.compareAndSet(slot, available, available - amount)) {
+                    taken += amount;
+                    break;
+                }
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * Adds budget spread over all cells, so threads landing on any cell can use it.
+     */
+    void add(long quantity) {
+        int stripes = mask + 1;
+        long share = quantity / stripes;
+        long remainder = quantity % stripes;
+        int start = probe();
+        for (int i = 0; i < stripes; i++) {
+            long amount = share + (i < remainder ? 1 : 0);
+            if (amount > 0) {
+                cells.getAndAdd(((start + i) & mask) * PADDING, amount);
+            }
+        }
+    }
+
+    long sum() {
+        long sum = 0;
+        for (int i = 0; i <= mask; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    /**
+     * Takes everything out of the counter and returns how much there was.
+     */
+    long drain() {
+        long drained = 0;
+        for (int i = 0; i <= mask; i++) {
+            drained += cells.getAndSet(i * PADDING, 0);
+        }
+        return drained;
+    }
+
+    private int probe() {
+        return Long.hashCode(Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L) & mask;
+    }
+}
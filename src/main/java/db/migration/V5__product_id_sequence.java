@@ -0,0 +1,34 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Moves product ids from the IDENTITY column to the pooled {@code products_seq} (see
+ * {@code Product.ID_SEQUENCE}), so the import can batch its inserts. A Java migration because
+ * the sequence has to start past the ids already issued, which plain DDL cannot compute on
+ * both H2 and Postgres.
+ */
+public class V5__product_id_sequence extends BaseJavaMigration {
+    // Product.ID_ALLOCATION_SIZE at the time of writing; a migration must not follow later edits
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            long maxId;
+            try (ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM products")) {
+                resultSet.next();
+                maxId = resultSet.getLong(1);
+            }
+            // The pooled optimizer hands out the block of ids ending at the first value it reads,
+            // except for the initial value 1, which starts a block at 1
+            long start = maxId == 0 ? 1 : maxId + ALLOCATION_SIZE;
+            statement.execute("CREATE SEQUENCE products_seq START WITH " + start + " INCREMENT BY " + ALLOCATION_SIZE);
+            statement.execute("ALTER TABLE products ALTER COLUMN id DROP IDENTITY");
+        }
+    }
+}
@@ -0,0 +1,3 @@
+-- Identifies the claim currently holding a PROCESSING row, so a worker whose lease expired
+-- cannot overwrite the outcome of the worker that claimed the row after it.
+ALTER TABLE payment_notifications ADD COLUMN lease_id VARCHAR(36);
@@ -0,0 +1,4 @@
+-- Lease on a batch job's checkpoint row, so only one instance runs the job at a time and an
+-- instance that lost the lease cannot advance the checkpoint.
+ALTER TABLE reconciliation_checkpoints ADD COLUMN lease_id VARCHAR(36);
+ALTER TABLE reconciliation_checkpoints ADD COLUMN locked_until TIMESTAMP(6);
@@ -0,0 +1,5 @@
+-- Persisted state behind the catalog ETags (see CatalogVersionService). Categories get a
+-- modification time like products; stock updates stamp their own column so collection
+-- validators can tell them apart from catalog edits. Existing rows start at NULL.
+ALTER TABLE categories ADD COLUMN updated_at TIMESTAMP;
+ALTER TABLE products ADD COLUMN stock_updated_at TIMESTAMP;
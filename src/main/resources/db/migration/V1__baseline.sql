@@ -0,0 +1,67 @@
+-- Schema as previously generated by Hibernate (ddl-auto=update), before any of the later
+-- migrations. Databases created that way are baselined at this version instead of running it
+-- (spring.flyway.baseline-on-migrate), so nothing added since may appear here.
+
+CREATE TABLE roles (
+    id   INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(20)
+);
+
+CREATE TABLE users (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(20)  NOT NULL,
+    email    VARCHAR(50)  NOT NULL,
+    password VARCHAR(120) NOT NULL,
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE user_roles (
+    user_id BIGINT  NOT NULL,
+    role_id INTEGER NOT NULL,
+    PRIMARY KEY (user_id, role_id),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_roles_role FOREIGN KEY (role_id) REFERENCES roles (id)
+);
+
+CREATE TABLE categories (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        VARCHAR(50),
+    description VARCHAR(255),
+    CONSTRAINT uk_categories_name UNIQUE (name)
+);
+
+CREATE TABLE products (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name           VARCHAR(100)   NOT NULL,
+    description    VARCHAR(1000),
+    price          NUMERIC(38, 2) NOT NULL,
+    image_url      VARCHAR(255),
+    stock_quantity INTEGER        NOT NULL,
+    category_id    BIGINT,
+    created_at     TIMESTAMP(6)   NOT NULL,
+    updated_at     TIMESTAMP(6),
+    CONSTRAINT fk_products_category FOREIGN KEY (category_id) REFERENCES categories (id)
+);
+
+CREATE TABLE orders (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id          BIGINT         NOT NULL,
+    order_date       TIMESTAMP(6)   NOT NULL,
+    status           VARCHAR(20),
+    total_amount     NUMERIC(38, 2) NOT NULL,
+    shipping_address VARCHAR(255),
+    payment_id       VARCHAR(255),
+    payment_status   VARCHAR(255),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE order_items (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_id   BIGINT,
+    product_id BIGINT,
+    quantity   INTEGER        NOT NULL,
+    price      NUMERIC(38, 2) NOT NULL,
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_order_items_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
@@ -0,0 +1,18 @@
+-- Durable queue of Mercado Pago webhooks (see PaymentNotificationService). IF NOT EXISTS so a
+-- database that ran an intermediate build with ddl-auto=update still migrates.
+
+CREATE TABLE IF NOT EXISTS payment_notifications (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    payment_id      VARCHAR(64)  NOT NULL,
+    status          VARCHAR(20)  NOT NULL,
+    attempts        INTEGER      NOT NULL,
+    redeliver       BOOLEAN      NOT NULL,
+    received_at     TIMESTAMP(6) NOT NULL,
+    next_attempt_at TIMESTAMP(6),
+    locked_until    TIMESTAMP(6),
+    processed_at    TIMESTAMP(6),
+    last_error      VARCHAR(1000),
+    CONSTRAINT uk_payment_notifications_payment_id UNIQUE (payment_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_payment_notifications_due ON payment_notifications (status, next_attempt_at);
@@ -0,0 +1,2 @@
+-- Optimistic lock on orders (see Order.version). Existing rows start at 0.
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
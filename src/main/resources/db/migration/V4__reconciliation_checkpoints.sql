@@ -0,0 +1,7 @@
+-- Progress of the payment reconciliation job (see PaymentReconciliationJob), one row per job.
+CREATE TABLE IF NOT EXISTS reconciliation_checkpoints (
+    job_name        VARCHAR(50)  NOT NULL PRIMARY KEY,
+    last_id         BIGINT       NOT NULL,
+    pass_started_at TIMESTAMP(6),
+    updated_at      TIMESTAMP(6)
+);
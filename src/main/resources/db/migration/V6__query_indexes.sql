@@ -0,0 +1,32 @@
+-- Indexes for the repository queries. Column order follows each query: equality columns
+-- first, then the range or sort column, then id where it is the keyset tie-breaker.
+-- IF NOT EXISTS because databases baselined at V1 may already have some of them.
+
+-- OrderRepository.findByUser, findByUserAndStatus (a user's orders by status, in date order)
+CREATE INDEX IF NOT EXISTS idx_orders_user_status_date ON orders (user_id, status, order_date);
+
+-- OrderRepository.findByStatus, findPendingPaymentsAfter (status = ? and id > ? order by id)
+CREATE INDEX IF NOT EXISTS idx_orders_status_id ON orders (status, id);
+
+-- OrderRepository.findByOrderDateBetween, findNextByOrderDate, streamForExport
+CREATE INDEX IF NOT EXISTS idx_orders_order_date_id ON orders (order_date, id);
+
+-- Order item lookups by either side (fetch joins from orders, sales rollups by product)
+CREATE INDEX IF NOT EXISTS idx_order_items_order ON order_items (order_id);
+CREATE INDEX IF NOT EXISTS idx_order_items_product ON order_items (product_id);
+
+-- ProductRepository.findByCategory, findByCategoryAndNameContainingIgnoreCase. The name
+-- pattern has a leading wildcard, so it is a filter over the category's index range.
+CREATE INDEX IF NOT EXISTS idx_products_category_name ON products (category_id, name);
+
+-- ProductRepository.findByPriceBetween, findNextByPrice
+CREATE INDEX IF NOT EXISTS idx_products_price_id ON products (price, id);
+
+-- ProductRepository.findNextByName
+CREATE INDEX IF NOT EXISTS idx_products_name_id ON products (name, id);
+
+-- ProductRepository.countByStockQuantityLessThan (low-stock count on the dashboard)
+CREATE INDEX IF NOT EXISTS idx_products_stock_quantity ON products (stock_quantity);
+
+-- Role membership checks from the role side
+CREATE INDEX IF NOT EXISTS idx_user_roles_role ON user_roles (role_id);
@@ -0,0 +1,36 @@
+-- Cold tier for finished orders (see OrderArchiveJob). Rows keep their original ids, so an
+-- order id is unique across both tiers. Plain tables rather than native partitions so the
+-- same migration runs on H2 and Postgres.
+
+CREATE TABLE orders_archive (
+    id               BIGINT         NOT NULL PRIMARY KEY,
+    user_id          BIGINT         NOT NULL,
+    order_date       TIMESTAMP(6)   NOT NULL,
+    status           VARCHAR(20),
+    total_amount     NUMERIC(38, 2) NOT NULL,
+    shipping_address VARCHAR(255),
+    payment_id       VARCHAR(255),
+    payment_status   VARCHAR(255),
+    version          BIGINT         NOT NULL,
+    archived_at      TIMESTAMP(6)   NOT NULL,
+    CONSTRAINT fk_orders_archive_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE order_items_archive (
+    id         BIGINT         NOT NULL PRIMARY KEY,
+    order_id   BIGINT         NOT NULL,
+    product_id BIGINT,
+    quantity   INTEGER        NOT NULL,
+    price      NUMERIC(38, 2) NOT NULL,
+    CONSTRAINT fk_order_items_archive_order FOREIGN KEY (order_id) REFERENCES orders_archive (id),
+    CONSTRAINT fk_order_items_archive_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+-- A user's order history, newest first
+CREATE INDEX idx_orders_archive_user_date ON orders_archive (user_id, order_date);
+
+CREATE INDEX idx_order_items_archive_order ON order_items_archive (order_id);
+CREATE INDEX idx_order_items_archive_product ON order_items_archive (product_id);
+
+-- Selecting the next chunk to archive: terminal status, oldest first
+CREATE INDEX IF NOT EXISTS idx_orders_status_date ON orders (status, order_date);
@@ -0,0 +1,3 @@
+-- Orders that need a person to look at them (see OrderService.applyPayments). Nullable, so
+-- existing rows need no backfill.
+ALTER TABLE orders ADD COLUMN review_reason VARCHAR(255);
@@ -0,0 +1,3 @@
+-- Bumped with every change to a user or its roles; tokens carry the value they were issued
+-- with (see UserInvalidationRegistry). Existing rows start at 0.
+ALTER TABLE users ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
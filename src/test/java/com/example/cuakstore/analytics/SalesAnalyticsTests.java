@@ -0,0 +1,171 @@
+package com.example.cuakstore.analytics;
+
+import com.example.cuakstore.model.Order;
+import com.example.cuakstore.model.OrderItem;
+import com.example.cuakstore.model.OrderStatus;
+import com.example.cuakstore.model.Product;
+import com.example.cuakstore.model.User;
+import com.example.cuakstore.repository.ArchivedOrderRepository;
+import com.example.cuakstore.repository.ProductRepository;
+import com.example.cuakstore.repository.UserRepository;
+import com.example.cuakstore.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest
+class SalesAnalyticsTests {
+    @Autowired
+    private SalesAnalytics salesAnalytics;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @SpyBean
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    private User user;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        user = userRepository.save(new User("analyst-" + suffix, "analyst-" + suffix + "@cuakstore.com", "secret"));
+        product = new Product();
+        product.setName("Golden duck " + suffix);
+        product.setPrice(new BigDecimal("40.00"));
+        product.setStockQuantity(100);
+        product = productRepository.save(product);
+        salesAnalytics.reload();
+    }
+
+    @Test
+    void rollupsFollowOrderLifecycle() {
+        SalesSummary before = salesAnalytics.summary(1, 100);
+
+        Order order = orderService.createOrder(newOrder(3));
+        SalesSummary placed = salesAnalytics.summary(1, 100);
+        assertThat(placed.ordersByStatus().get(OrderStatus.PENDING))
+                .isEqualTo(before.ordersByStatus().get(OrderStatus.PENDING) + 1);
+        assertThat(placed.totalRevenue()).isEqualByComparingTo(before.totalRevenue());
+        assertThat(sales(placed)).isEmpty();
+
+        orderService.updateOrderStatus(order.getId(), OrderStatus.PAID);
+        SalesSummary paid = salesAnalytics.summary(1, 100);
+        assertThat(paid.totalRevenue()).isEqualByComparingTo(before.totalRevenue().add(new BigDecimal("120.00")));
+        assertThat(paid.revenueByDay().get(0).revenue())
+                .isEqualByComparingTo(before.revenueByDay().get(0).revenue().add(new BigDecimal("120.00")));
+        assertThat(sales(paid)).hasValueSatisfying(sales -> {
+            assertThat(sales.units()).isEqualTo(3);
+            assertThat(sales.revenue()).isEqualByComparingTo("120.00");
+        });
+
+        orderService.updateOrderStatus(order.getId(), OrderStatus.SHIPPED);
+        assertThat(salesAnalytics.summary(1, 100).totalRevenue()).isEqualByComparingTo(paid.totalRevenue());
+
+        orderService.updateOrderStatus(order.getId(), OrderStatus.REFUNDED);
+        SalesSummary refunded = salesAnalytics.summary(1, 100);
+        assertThat(refunded.totalRevenue()).isEqualByComparingTo(before.totalRevenue());
+        assertThat(refunded.ordersByStatus().get(OrderStatus.REFUNDED))
+                .isEqualTo(before.ordersByStatus().get(OrderStatus.REFUNDED) + 1);
+        assertThat(sales(refunded)).isEmpty();
+    }
+
+    @Test
+    void incrementalRollupsMatchAFullReload() {
+        Order order = orderService.createOrder(newOrder(2));
+        orderService.updateOrderStatus(order.getId(), OrderStatus.PAID);
+        SalesSummary incremental = salesAnalytics.summary(7, 100);
+
+        salesAnalytics.reload();
+        SalesSummary reloaded = salesAnalytics.summary(7, 100);
+
+        assertThat(reloaded.totalRevenue()).isEqualByComparingTo(incremental.totalRevenue());
+        assertThat(reloaded.ordersByStatus()).isEqualTo(incremental.ordersByStatus());
+        assertThat(sales(reloaded).map(ProductSales::units)).contains(2L);
+    }
+
+    @Test
+    void changesCommittedDuringAReloadAreKept() {
+        Order order = orderService.createOrder(newOrder(3));
+        SalesSummary before = salesAnalytics.summary(1, 100);
+        // Commits the payment from another thread after the reload's first query has run
+        doAnswer(invocation -> {
+            CompletableFuture.runAsync(() -> orderService.updateOrderStatus(order.getId(), OrderStatus.PAID)).join();
+            return invocation.callRealMethod();
+        }).when(archivedOrderRepository).countByStatus();
+
+        salesAnalytics.reload();
+
+        SalesSummary after = salesAnalytics.summary(1, 100);
+        assertThat(after.totalRevenue()).isEqualByComparingTo(before.totalRevenue().add(new BigDecimal("120.00")));
+        assertThat(after.ordersByStatus().get(OrderStatus.PAID))
+                .isEqualTo(before.ordersByStatus().get(OrderStatus.PAID) + 1);
+        assertThat(after.ordersByStatus().get(OrderStatus.PENDING))
+                .isEqualTo(before.ordersByStatus().get(OrderStatus.PENDING) - 1);
+        assertThat(sales(after).map(ProductSales::units)).contains(3L);
+    }
+
+    @Test
+    void catalogCountsFollowStockAndUserChanges() {
+        long products = salesAnalytics.productCount();
+        long lowStock = salesAnalytics.lowStockProductCount();
+        long users = salesAnalytics.userCount();
+
+        Order order = orderService.createOrder(newOrder(97));
+        assertThat(salesAnalytics.lowStockProductCount()).isEqualTo(lowStock + 1);
+        orderService.updateOrderStatus(order.getId(), OrderStatus.CANCELLED);
+        assertThat(salesAnalytics.lowStockProductCount()).isEqualTo(lowStock);
+
+        Product scarce = new Product();
+        scarce.setName("Scarce duck " + UUID.randomUUID().toString().substring(0, 8));
+        scarce.setPrice(new BigDecimal("10.00"));
+        scarce.setStockQuantity(1);
+        scarce = productRepository.save(scarce);
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        userRepository.save(new User("counted-" + suffix, "counted-" + suffix + "@cuakstore.com", "secret"));
+        assertThat(salesAnalytics.productCount()).isEqualTo(products + 1);
+        assertThat(salesAnalytics.lowStockProductCount()).isEqualTo(lowStock + 1);
+        assertThat(salesAnalytics.userCount()).isEqualTo(users + 1);
+
+        salesAnalytics.reload();
+        assertThat(salesAnalytics.productCount()).isEqualTo(products + 1);
+        assertThat(salesAnalytics.lowStockProductCount()).isEqualTo(lowStock + 1);
+        assertThat(salesAnalytics.userCount()).isEqualTo(users + 1);
+
+        productRepository.deleteById(scarce.getId());
+        assertThat(salesAnalytics.productCount()).isEqualTo(products);
+        assertThat(salesAnalytics.lowStockProductCount()).isEqualTo(lowStock);
+    }
+
+    private Optional<ProductSales> sales(SalesSummary summary) {
+        return summary.topProducts().stream()
+                .filter(sales -> sales.productId().equals(product.getId()))
+                .findFirst();
+    }
+
+    private Order newOrder(int quantity) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(OrderStatus.PENDING);
+        order.setShippingAddress("Calle Falsa 123");
+        order.addOrderItem(new OrderItem(product, quantity));
+        return order;
+    }
+}
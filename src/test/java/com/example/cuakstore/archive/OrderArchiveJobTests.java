@@ -0,0 +1,169 @@
+package com.example.cuakstore.archive;
+
+import com.example.cuakstore.analytics.SalesAnalytics;
+import com.example.cuakstore.analytics.SalesSummary;
+import com.example.cuakstore.model.Order;
+import com.example.cuakstore.model.OrderItem;
+import com.example.cuakstore.model.OrderStatus;
+import com.example.cuakstore.model.Product;
+import com.example.cuakstore.model.User;
+import com.example.cuakstore.payment.PaymentInfo;
+import com.example.cuakstore.repository.ArchivedOrderRepository;
+import com.example.cuakstore.repository.OrderRepository;
+import com.example.cuakstore.repository.ProductRepository;
+import com.example.cuakstore.repository.UserRepository;
+import com.example.cuakstore.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "archive.orders.min-age-days=30",
+        "archive.orders.chunk-size=2",
+        "archive.orders.pause-ms=0"
+})
+class OrderArchiveJobTests {
+    @Autowired
+    private OrderArchiveJob archiveJob;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private SalesAnalytics salesAnalytics;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        user = userRepository.save(new User("archived-" + suffix, "archived-" + suffix + "@cuakstore.com", "secret"));
+        product = new Product();
+        product.setName("Vintage duck " + suffix);
+        product.setPrice(new BigDecimal("15.00"));
+        product.setStockQuantity(1000);
+        product = productRepository.save(product);
+    }
+
+    @Test
+    void onlyOldFinishedOrdersMoveAndStayReadable() {
+        Order oldDelivered = placeOrder(OrderStatus.DELIVERED, 90);
+        Order oldPending = placeOrder(OrderStatus.PENDING, 90);
+        Order recentDelivered = placeOrder(OrderStatus.DELIVERED, 1);
+
+        assertThat(archiveJob.run()).isPositive();
+
+        assertThat(orderRepository.existsById(oldDelivered.getId())).isFalse();
+        assertThat(archivedOrderRepository.existsById(oldDelivered.getId())).isTrue();
+        assertThat(orderRepository.existsById(oldPending.getId())).isTrue();
+        assertThat(orderRepository.existsById(recentDelivered.getId())).isTrue();
+
+        Order archived = orderService.getOrderWithItems(oldDelivered.getId()).orElseThrow();
+        assertThat(archived.getStatus()).isEqualTo(OrderStatus.DELIVERED);
+        assertThat(archived.getTotalAmount()).isEqualByComparingTo("45.00");
+        assertThat(archived.getOrderItems()).singleElement()
+                .satisfies(item -> assertThat(item.getProduct().getId()).isEqualTo(product.getId()));
+        assertThat(orderService.getOrderById(oldDelivered.getId())).isPresent();
+
+        assertThat(orderService.getOrdersByUser(user)).extracting(Order::getId)
+                .containsExactlyInAnyOrder(oldDelivered.getId(), oldPending.getId(), recentDelivered.getId());
+    }
+
+    @Test
+    void pagedHistorySpansBothTiers() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(placeOrder(OrderStatus.CANCELLED, 60).getId());
+        }
+        for (int i = 0; i < 2; i++) {
+            ids.add(placeOrder(OrderStatus.PENDING, 0).getId());
+        }
+        archiveJob.run();
+
+        List<Long> seen = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            Page<Order> orders = orderService.getOrdersByUser(user, PageRequest.of(page, 2, Sort.by("id")));
+            assertThat(orders.getTotalElements()).isEqualTo(5);
+            orders.forEach(order -> seen.add(order.getId()));
+        }
+        assertThat(seen).containsExactlyInAnyOrderElementsOf(ids);
+    }
+
+    @Test
+    void dashboardTotalsAreUnchangedByArchiving() {
+        placeOrder(OrderStatus.DELIVERED, 120);
+        placeOrder(OrderStatus.REFUNDED, 120);
+        salesAnalytics.reload();
+        SalesSummary before = salesAnalytics.summary(1, 100);
+
+        archiveJob.run();
+        salesAnalytics.reload();
+        SalesSummary after = salesAnalytics.summary(1, 100);
+
+        assertThat(after.totalRevenue()).isEqualByComparingTo(before.totalRevenue());
+        assertThat(after.ordersByStatus()).isEqualTo(before.ordersByStatus());
+        assertThat(after.topProducts()).isEqualTo(before.topProducts());
+    }
+
+    @Test
+    void paymentsForArchivedOrdersAreSkipped() {
+        Order cancelled = placeOrder(OrderStatus.CANCELLED, 90);
+        archiveJob.run();
+
+        Order result = orderService.applyPayment(cancelled.getId(), "late-archived", "approved");
+        assertThat(result.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(orderService.applyPayments(Map.of(
+                cancelled.getId(), new PaymentInfo("late-archived", "approved", cancelled.getId().toString()))))
+                .isZero();
+        assertThat(archivedOrderRepository.findById(cancelled.getId())).hasValueSatisfying(archived -> {
+            assertThat(archived.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+            assertThat(archived.getPaymentId()).isNull();
+        });
+    }
+
+    private Order placeOrder(OrderStatus status, int daysAgo) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(OrderStatus.PENDING);
+        order.setShippingAddress("Calle Falsa 123");
+        order.addOrderItem(new OrderItem(product, 3));
+        order = orderService.createOrder(order);
+        if (status != OrderStatus.PENDING) {
+            order = orderService.updateOrderStatus(order.getId(), status);
+        }
+        jdbcTemplate.update("update orders set order_date = ? where id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(daysAgo)), order.getId());
+        return order;
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.cuakstore.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes between two separate H2 databases. Each holds a one-row {@code node} table naming
+ * itself, so a query shows which database served it.
+ */
+class ReplicaRoutingDataSourceTests {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OutageDataSource replica;
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readTransaction;
+    private TransactionTemplate writeTransaction;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = h2("primary");
+        replica = new OutageDataSource(h2("replica-0"));
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", replica);
+        routing = new ReplicaRoutingDataSource(primary, replicas, Duration.ofMinutes(1), meterRegistry);
+        routing.setLagQuery("SELECT lag_ms FROM node");
+        routing.setMaxLag(Duration.ofSeconds(5));
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplicaAndWritesThePrimary() {
+        assertThat(readNode()).isEqualTo("replica-0");
+        assertThat(writeTransaction.execute(status -> node())).isEqualTo("primary");
+        assertThat(routed("replica-0", "read")).isEqualTo(1);
+        assertThat(routed("primary", "write")).isEqualTo(1);
+    }
+
+    @Test
+    void userReadsTheirOwnWritesFromThePrimary() {
+        signIn("alice");
+        writeTransaction.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET lag_ms = 0"));
+        assertThat(readNode()).isEqualTo("primary");
+
+        signIn("bob");
+        assertThat(readNode()).isEqualTo("replica-0");
+    }
+
+    @Test
+    void rolledBackWriteDoesNotPinTheUser() {
+        signIn("carol");
+        writeTransaction.executeWithoutResult(status -> {
+            node();
+            status.setRollbackOnly();
+        });
+
+        assertThat(readNode()).isEqualTo("replica-0");
+    }
+
+    @Test
+    void unreachableReplicaFailsOverUntilItIsHealthyAgain() {
+        replica.down = true;
+        assertThat(readNode()).isEqualTo("primary");
+        assertThat(routed("primary", "failover")).isEqualTo(1);
+        assertThat(meterRegistry.get("datasource.replica.available").tag("pool", "replica-0").gauge().value()).isZero();
+
+        replica.down = false;
+        routing.checkReplicas();
+        assertThat(readNode()).isEqualTo("replica-0");
+    }
+
+    @Test
+    void laggingReplicaIsSkipped() {
+        new JdbcTemplate(replica).update("UPDATE node SET lag_ms = 60000");
+        routing.checkReplicas();
+        assertThat(readNode()).isEqualTo("primary");
+
+        new JdbcTemplate(replica).update("UPDATE node SET lag_ms = 100");
+        routing.checkReplicas();
+        assertThat(readNode()).isEqualTo("replica-0");
+    }
+
+    @Test
+    void cacheLoadsReadFromThePrimary() {
+        assertThat(ReplicaRoutingDataSource.readFromPrimary(this::readNode)).isEqualTo("primary");
+        assertThat(routed("primary", "forced")).isEqualTo(1);
+        assertThat(readNode()).isEqualTo("replica-0");
+    }
+
+    @Test
+    void replicaReadsAreReported() {
+        AtomicInteger replicaReads = new AtomicInteger();
+        routing.setReplicaReadListener(replicaReads::incrementAndGet);
+
+        readNode();
+        writeTransaction.execute(status -> node());
+        ReplicaRoutingDataSource.readFromPrimary(this::readNode);
+
+        assertThat(replicaReads).hasValue(1);
+    }
+
+    private String readNode() {
+        return readTransaction.execute(status -> node());
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private double routed(String pool, String reason) {
+        return meterRegistry.get("datasource.routing.connections").tag("pool", pool).tag("reason", reason).counter().count();
+    }
+
+    private static void signIn(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+
+    private static DataSource h2(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20), lag_ms BIGINT)");
+        jdbcTemplate.update("INSERT INTO node VALUES (?, 0)", name);
+        return dataSource;
+    }
+
+    private static class OutageDataSource extends DelegatingDataSource {
+        volatile boolean down;
+
+        OutageDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("Connection refused");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.cuakstore.controller;
+
+import com.example.cuakstore.model.Product;
+import com.example.cuakstore.repository.ProductRepository;
+import com.example.cuakstore.service.CatalogVersionService;
+import com.example.cuakstore.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CatalogConditionalGetTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @SpyBean
+    private ProductService productService;
+
+    @SpyBean
+    private CatalogVersionService catalogVersionService;
+
+    @Test
+    void matchingETagIsAnsweredWithoutLoadingTheProduct() throws Exception {
+        Product product = createProduct();
+        String etag = mockMvc.perform(get("/api/products/{id}", product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, public"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        clearInvocations(productService);
+        mockMvc.perform(get("/api/products/{id}", product.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        verify(productService, never()).getProductById(any());
+    }
+
+    @Test
+    void productUpdateChangesItsETagAndTheCollectionETag() throws Exception {
+        Product product = createProduct();
+        String productETag = etagOf("/api/products/" + product.getId());
+        String listETag = etagOf("/api/products");
+
+        product.setPrice(new BigDecimal("19.99"));
+        productService.updateProduct(product);
+
+        mockMvc.perform(get("/api/products/{id}", product.getId()).header(HttpHeaders.IF_NONE_MATCH, productETag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, listETag))
+                .andExpect(status().isOk());
+        assertThat(etagOf("/api/products/" + product.getId())).isNotEqualTo(productETag);
+    }
+
+    @Test
+    void stockChangeMovesTheProductETagButNotTheCollectionETag() throws Exception {
+        Product product = createProduct();
+        // The first stock stamp may open a new staleness window for the collections
+        takeOne(product);
+        String productETag = etagOf("/api/products/" + product.getId());
+        String listETag = etagOf("/api/products");
+
+        takeOne(product);
+
+        String body = mockMvc.perform(get("/api/products/{id}", product.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, productETag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body).contains("\"stockQuantity\":8");
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, listETag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void requestRightAfterTheStampMovesGetsTheNewBody() throws Exception {
+        Product product = createProduct();
+        String staleETag = etagOf("/api/products/" + product.getId());
+        List<MockHttpServletResponse> racing = new ArrayList<>();
+        doAnswer(invocation -> {
+            invocation.callRealMethod();
+            racing.add(mockMvc.perform(get("/api/products/{id}", product.getId())
+                    .header(HttpHeaders.IF_NONE_MATCH, staleETag)).andReturn().getResponse());
+            return null;
+        }).when(catalogVersionService).onProductChanged(any());
+
+        product.setPrice(new BigDecimal("19.99"));
+        productService.updateProduct(product);
+
+        assertThat(racing).singleElement().satisfies(response -> {
+            assertThat(response.getStatus()).isEqualTo(200);
+            assertThat(response.getHeader(HttpHeaders.ETAG)).isNotEqualTo(staleETag);
+            assertThat(response.getContentAsString()).contains("19.99");
+        });
+    }
+
+    @Test
+    void collectionsAllowStaleWhileRevalidate() throws Exception {
+        String cacheControl = mockMvc.perform(get("/api/categories"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.CACHE_CONTROL);
+
+        assertThat(cacheControl).contains("max-age=", "stale-while-revalidate=", "public");
+    }
+
+    @Test
+    void missingProductCarriesNoValidator() throws Exception {
+        mockMvc.perform(get("/api/products/{id}", Long.MAX_VALUE))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    private String etagOf(String path) throws Exception {
+        return mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private void takeOne(Product product) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            productRepository.decrementStock(product.getId(), 1);
+            catalogVersionService.stockChanged(product.getId());
+        });
+    }
+
+    private Product createProduct() {
+        Product product = new Product();
+        product.setName("Rubber duck " + UUID.randomUUID());
+        product.setPrice(new BigDecimal("9.99"));
+        product.setStockQuantity(10);
+        return productRepository.save(product);
+    }
+}
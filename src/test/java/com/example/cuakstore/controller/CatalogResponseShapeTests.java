@@ -0,0 +1,121 @@
+package com.example.cuakstore.controller;
+
+import com.example.cuakstore.model.Category;
+import com.example.cuakstore.model.Product;
+import com.example.cuakstore.repository.CategoryRepository;
+import com.example.cuakstore.service.ProductService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Catalog endpoints serialize read models, not entities. Open-in-view is off so any lazy
+ * association touched during serialization would fail the request instead of being loaded.
+ */
+@SpringBootTest(properties = "spring.jpa.open-in-view=false")
+@AutoConfigureMockMvc
+class CatalogResponseShapeTests {
+    private static final List<String> PRODUCT_FIELDS = List.of("id", "name", "description", "price", "imageUrl",
+            "stockQuantity", "category", "createdAt", "updatedAt");
+    private static final List<String> CATEGORY_FIELDS = List.of("id", "name", "description");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    private Category category;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Category newCategory = new Category();
+        newCategory.setName("Shape " + suffix);
+        newCategory.setDescription("Response shape fixtures");
+        category = categoryRepository.save(newCategory);
+
+        Product newProduct = new Product();
+        newProduct.setName("Shape duck " + suffix);
+        newProduct.setPrice(new BigDecimal("7.25"));
+        newProduct.setStockQuantity(3);
+        newProduct.setCategory(category);
+        // Through the service so the product is also added to the search index
+        product = productService.createProduct(newProduct);
+    }
+
+    @Test
+    void singleProductIsAFlatReadModel() throws Exception {
+        JsonNode body = getJson("/api/products/" + product.getId());
+
+        assertProduct(body);
+        assertThat(body.get("category").get("name").asText()).isEqualTo(category.getName());
+    }
+
+    @Test
+    void productCollectionsContainOnlyReadModels() throws Exception {
+        assertAllProducts(getJson("/api/products"));
+        assertAllProducts(getJson("/api/products/category/" + category.getId()));
+        assertAllProducts(getJson("/api/products/paged?size=5").get("content"));
+        assertAllProducts(getJson("/api/products/cursor?size=5").get("content"));
+        assertAllProducts(getJson("/api/products/search?name=shape"));
+    }
+
+    @Test
+    void categoriesExposeNoProducts() throws Exception {
+        JsonNode single = getJson("/api/categories/" + category.getId());
+        assertThat(fieldNames(single)).containsExactlyInAnyOrderElementsOf(CATEGORY_FIELDS);
+
+        JsonNode all = getJson("/api/categories");
+        assertThat(all).isNotEmpty();
+        all.forEach(node -> assertThat(fieldNames(node)).containsExactlyInAnyOrderElementsOf(CATEGORY_FIELDS));
+    }
+
+    private void assertAllProducts(JsonNode array) {
+        assertThat(array.isArray()).isTrue();
+        assertThat(array).isNotEmpty();
+        array.forEach(this::assertProduct);
+    }
+
+    private void assertProduct(JsonNode node) {
+        assertThat(fieldNames(node)).containsExactlyInAnyOrderElementsOf(PRODUCT_FIELDS);
+        JsonNode productCategory = node.get("category");
+        if (!productCategory.isNull()) {
+            assertThat(fieldNames(productCategory)).containsExactlyInAnyOrderElementsOf(CATEGORY_FIELDS);
+        }
+    }
+
+    private JsonNode getJson(String path) throws Exception {
+        String body = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+}
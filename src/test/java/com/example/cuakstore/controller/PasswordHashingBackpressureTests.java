@@ -0,0 +1,91 @@
+package com.example.cuakstore.controller;
+
+import com.example.cuakstore.security.services.PasswordHashingExecutor;
+import com.example.cuakstore.security.services.PasswordHashingRejectedException;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Every endpoint that hashes a password answers 503 with Retry-After when the hashing pool
+ * refuses the work, instead of a generic 401 or 500.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PasswordHashingBackpressureTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private GoogleAuthController googleAuthController;
+
+    @SpyBean
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @BeforeEach
+    void rejectAllHashing() {
+        doThrow(new PasswordHashingRejectedException("busy", 7))
+                .when(passwordHashingExecutor).execute(anyString(), any());
+    }
+
+    @Test
+    void signinIsRefusedWithRetryAfter() throws Exception {
+        mockMvc.perform(post("/api/auth/signin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"nobody\",\"password\":\"secret123\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "7"));
+    }
+
+    @Test
+    void signupIsRefusedWithRetryAfter() throws Exception {
+        String name = "bp" + UUID.randomUUID().toString().substring(0, 8);
+        mockMvc.perform(post("/api/auth/signup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + name + "\",\"email\":\"" + name + "@cuakstore.com\","
+                                + "\"password\":\"secret123\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "7"));
+    }
+
+    @Test
+    void firstGoogleLoginIsRefusedWithRetryAfter() throws Exception {
+        GoogleIdToken.Payload payload = new GoogleIdToken.Payload();
+        payload.setEmail("bp" + UUID.randomUUID().toString().substring(0, 8) + "@gmail.com");
+        GoogleIdToken idToken = mock(GoogleIdToken.class);
+        when(idToken.getPayload()).thenReturn(payload);
+        GoogleIdTokenVerifier verifier = mock(GoogleIdTokenVerifier.class);
+        when(verifier.verify("google-credential")).thenReturn(idToken);
+        Object original = ReflectionTestUtils.getField(googleAuthController, "verifier");
+        ReflectionTestUtils.setField(googleAuthController, "verifier", verifier);
+        try {
+            mockMvc.perform(post("/api/auth/google")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"credential\":\"google-credential\"}"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "7"));
+        } finally {
+            ReflectionTestUtils.setField(googleAuthController, "verifier", original);
+        }
+    }
+}
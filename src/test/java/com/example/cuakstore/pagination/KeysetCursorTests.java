@@ -0,0 +1,45 @@
+package com.example.cuakstore.pagination;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTests {
+
+    @Test
+    void roundTripsSortKeyIdAndValue() {
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.of("name", 42L, "Duck | deluxe").encode());
+
+        assertThat(cursor.getSortKey()).isEqualTo("name");
+        assertThat(cursor.getId()).isEqualTo(42L);
+        assertThat(cursor.getValue()).isEqualTo("Duck | deluxe");
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        String token = KeysetCursor.of("name", 1L, "??>>~~ñ").encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not a cursor!"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> KeysetCursor.decode(encode("name|42")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> KeysetCursor.decode(encode("name|forty-two|Duck")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.cuakstore.payment;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the Mercado Pago API. Answers payment lookups and preference creation,
+ * and can be told to delay responses, answer with an error status or answer 200 with no body.
+ */
+public class FakeMercadoPagoServer implements AutoCloseable {
+    private final HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile long latencyMs;
+    private volatile int status = 200;
+    private volatile boolean emptyBodies;
+
+    public FakeMercadoPagoServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/v1/payments/", this::payment);
+        server.createContext("/checkout/preferences", this::preference);
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public void latency(long millis) {
+        this.latencyMs = millis;
+    }
+
+    public void status(int status) {
+        this.status = status;
+    }
+
+    public void emptyBodies(boolean emptyBodies) {
+        this.emptyBodies = emptyBodies;
+    }
+
+    public int requests() {
+        return requests.get();
+    }
+
+    private void payment(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String id = path.substring(path.lastIndexOf('/') + 1);
+        respond(exchange, "{\"id\":" + id + ",\"status\":\"approved\",\"external_reference\":\"42\",\"extra\":true}");
+    }
+
+    private void preference(HttpExchange exchange) throws IOException {
+        respond(exchange, "{\"id\":\"pref-1\",\"init_point\":\"https://mp.test/init\","
+                + "\"sandbox_init_point\":\"https://mp.test/sandbox\"}");
+    }
+
+    private void respond(HttpExchange exchange, String body) throws IOException {
+        requests.incrementAndGet();
+        exchange.getRequestBody().readAllBytes();
+        try {
+            if (latencyMs > 0) {
+                Thread.sleep(latencyMs);
+            }
+            int code = status;
+            byte[] bytes = (code != 200 ? "{\"message\":\"error\"}" : emptyBodies ? "" : body)
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(code, bytes.length == 0 ? -1 : bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // Client gave up (timeout) and closed the connection
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        ((java.util.concurrent.ExecutorService) server.getExecutor()).shutdownNow();
+    }
+}
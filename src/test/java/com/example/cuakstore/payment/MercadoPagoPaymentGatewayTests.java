@@ -0,0 +1,157 @@
+package com.example.cuakstore.payment;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the real gateway against {@link FakeMercadoPagoServer} to check timeouts, the circuit
+ * breaker and the bulkhead.
+ */
+class MercadoPagoPaymentGatewayTests {
+    private FakeMercadoPagoServer server;
+    private MercadoPagoPaymentGateway gateway;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FakeMercadoPagoServer();
+        meterRegistry = new SimpleMeterRegistry();
+        gateway = new MercadoPagoPaymentGateway();
+        ReflectionTestUtils.setField(gateway, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(gateway, "accessToken", "TEST-TOKEN");
+        ReflectionTestUtils.setField(gateway, "baseUrl", server.baseUrl());
+        ReflectionTestUtils.setField(gateway, "connectTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(gateway, "paymentsTimeoutMs", 300L);
+        ReflectionTestUtils.setField(gateway, "preferencesTimeoutMs", 300L);
+        ReflectionTestUtils.setField(gateway, "maxConcurrentCalls", 2);
+        ReflectionTestUtils.setField(gateway, "windowSize", 4);
+        ReflectionTestUtils.setField(gateway, "minimumCalls", 4);
+        ReflectionTestUtils.setField(gateway, "failureRateThreshold", 50f);
+        ReflectionTestUtils.setField(gateway, "slowCallMs", 1000L);
+        ReflectionTestUtils.setField(gateway, "waitOpenMs", 200L);
+        ReflectionTestUtils.setField(gateway, "halfOpenCalls", 2);
+        gateway.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void fetchesPaymentsAndCreatesPreferences() {
+        PaymentInfo payment = gateway.getPayment("123");
+        assertEquals("123", payment.id());
+        assertEquals("approved", payment.status());
+        assertEquals("42", payment.externalReference());
+
+        PaymentPreference preference = gateway.createPreference("Order #42", new BigDecimal("10.50"), "42");
+        assertEquals("pref-1", preference.id());
+        assertEquals("https://mp.test/init", preference.initPoint());
+
+        assertEquals(1, meterRegistry.get("mercadopago.requests")
+                .tag("operation", MercadoPagoPaymentGateway.PAYMENTS).tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void slowResponsesTimeOut() {
+        server.latency(1000);
+        long started = System.nanoTime();
+        assertThrows(PaymentGatewayException.class, () -> gateway.getPayment("1"));
+        assertTrue((System.nanoTime() - started) / 1_000_000 < 900, "read timeout should cut the call short");
+    }
+
+    @Test
+    void circuitOpensOnFailuresAndRecoversThroughHalfOpen() throws Exception {
+        server.status(500);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(PaymentGatewayException.class, () -> gateway.getPayment("1"));
+        }
+        CircuitBreaker breaker = gateway.circuitBreaker(MercadoPagoPaymentGateway.PAYMENTS);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        // Open: fail fast without reaching the server
+        int before = server.requests();
+        assertThrows(PaymentGatewayUnavailableException.class, () -> gateway.getPayment("1"));
+        assertEquals(before, server.requests());
+
+        // Preferences have their own breaker and are unaffected
+        server.status(200);
+        assertNotNull(gateway.createPreference("Order #1", BigDecimal.ONE, "1"));
+
+        Thread.sleep(300);
+        gateway.getPayment("1");
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        gateway.getPayment("1");
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void emptyResponsesAreGatewayErrors() {
+        server.emptyBodies(true);
+
+        PaymentGatewayException error = assertThrows(PaymentGatewayException.class, () -> gateway.getPayment("7"));
+        assertEquals("Mercado Pago returned no payment 7", error.getMessage());
+        assertThrows(PaymentGatewayException.class, () -> gateway.createPreference("Duck", BigDecimal.ONE, "42"));
+    }
+
+    @Test
+    void clientErrorsDoNotTripTheBreaker() {
+        server.status(404);
+        for (int i = 0; i < 6; i++) {
+            assertThrows(PaymentGatewayException.class, () -> gateway.getPayment("1"));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED,
+                gateway.circuitBreaker(MercadoPagoPaymentGateway.PAYMENTS).getState());
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondTheLimit() throws Exception {
+        server.latency(250);
+        ReflectionTestUtils.setField(gateway, "paymentsTimeoutMs", 2000L);
+        gateway.init();
+
+        int callers = 6;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        gateway.getPayment("7");
+                        return true;
+                    } catch (PaymentGatewayUnavailableException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int succeeded = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    succeeded++;
+                }
+            }
+            assertTrue(succeeded >= 1 && succeeded < callers, "succeeded=" + succeeded);
+            assertEquals(succeeded, server.requests());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
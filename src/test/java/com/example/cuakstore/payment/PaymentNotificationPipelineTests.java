@@ -0,0 +1,279 @@
+package com.example.cuakstore.payment;
+
+import com.example.cuakstore.model.Order;
+import com.example.cuakstore.model.OrderStatus;
+import com.example.cuakstore.model.PaymentNotification;
+import com.example.cuakstore.model.PaymentNotificationStatus;
+import com.example.cuakstore.model.User;
+import com.example.cuakstore.repository.OrderRepository;
+import com.example.cuakstore.repository.PaymentNotificationRepository;
+import com.example.cuakstore.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The scheduled poll is pushed out of the way so each test drives the worker explicitly.
+ */
+@SpringBootTest(properties = {
+        "payments.notifications.poll-ms=3600000",
+        "payments.notifications.backoff-base-ms=300",
+        "payments.notifications.max-attempts=3"
+})
+@AutoConfigureMockMvc
+class PaymentNotificationPipelineTests {
+    private static final AtomicLong PAYMENT_IDS = new AtomicLong(System.currentTimeMillis());
+
+    @TestConfiguration
+    static class StubGatewayConfig {
+        @Bean
+        @Primary
+        StubPaymentGateway stubPaymentGateway() {
+            return new StubPaymentGateway();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StubPaymentGateway gateway;
+
+    @Autowired
+    private PaymentNotificationService notificationService;
+
+    @Autowired
+    private PaymentNotificationWorker worker;
+
+    @Autowired
+    private PaymentNotificationRepository notificationRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(new User("payer-" + suffix, "payer-" + suffix + "@cuakstore.com", "secret"));
+        order = new Order();
+        order.setUser(user);
+        order.setStatus(OrderStatus.PENDING);
+        order.setTotalAmount(new BigDecimal("100.00"));
+        order = orderRepository.save(order);
+    }
+
+    @Test
+    void webhookIsAcknowledgedBeforeProcessing() throws Exception {
+        String paymentId = nextPaymentId();
+        gateway.register(paymentId, "approved", order.getId());
+
+        mockMvc.perform(post("/api/payments/webhook").param("type", "payment").param("data_id", paymentId))
+                .andExpect(status().isOk());
+
+        assertThat(gateway.calls(paymentId)).isZero();
+        assertThat(notification(paymentId).getStatus()).isEqualTo(PaymentNotificationStatus.PENDING);
+
+        worker.poll();
+        awaitStatus(paymentId, PaymentNotificationStatus.DONE);
+
+        Order paid = orderRepository.findById(order.getId()).orElseThrow();
+        assertThat(paid.getStatus()).isEqualTo(OrderStatus.PAID);
+        assertThat(paid.getPaymentId()).isEqualTo(paymentId);
+        assertThat(gateway.calls(paymentId)).isEqualTo(1);
+    }
+
+    @Test
+    void duplicateNotificationsAreProcessedOnce() throws Exception {
+        String paymentId = nextPaymentId();
+        gateway.register(paymentId, "approved", order.getId());
+
+        for (int i = 0; i < 3; i++) {
+            notificationService.enqueue(paymentId);
+        }
+        assertThat(notificationRepository.findAll())
+                .filteredOn(notification -> notification.getPaymentId().equals(paymentId))
+                .hasSize(1);
+
+        worker.poll();
+        awaitStatus(paymentId, PaymentNotificationStatus.DONE);
+        worker.poll();
+        Thread.sleep(200);
+
+        assertThat(gateway.calls(paymentId)).isEqualTo(1);
+    }
+
+    @Test
+    void reprocessingAnAppliedPaymentDoesNotWriteTheOrder() throws Exception {
+        String paymentId = nextPaymentId();
+        gateway.register(paymentId, "approved", order.getId());
+        notificationService.enqueue(paymentId);
+        worker.poll();
+        awaitStatus(paymentId, PaymentNotificationStatus.DONE);
+        Long versionAfterPayment = orderRepository.findById(order.getId()).orElseThrow().getVersion();
+
+        // A late retry of the same webhook reopens the notification but changes nothing
+        notificationService.enqueue(paymentId);
+        assertThat(notification(paymentId).getStatus()).isEqualTo(PaymentNotificationStatus.PENDING);
+        worker.poll();
+        awaitStatus(paymentId, PaymentNotificationStatus.DONE);
+
+        assertThat(gateway.calls(paymentId)).isEqualTo(2);
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getVersion()).isEqualTo(versionAfterPayment);
+    }
+
+    @Test
+    void rejectionOfAnotherPaymentDoesNotCancelAPaidOrder() throws Exception {
+        String approved = nextPaymentId();
+        String rejected = nextPaymentId();
+        gateway.register(approved, "approved", order.getId());
+        gateway.register(rejected, "rejected", order.getId());
+
+        notificationService.enqueue(approved);
+        worker.poll();
+        awaitStatus(approved, PaymentNotificationStatus.DONE);
+        notificationService.enqueue(rejected);
+        worker.poll();
+        awaitStatus(rejected, PaymentNotificationStatus.DONE);
+
+        Order paid = orderRepository.findById(order.getId()).orElseThrow();
+        assertThat(paid.getStatus()).isEqualTo(OrderStatus.PAID);
+        assertThat(paid.getPaymentId()).isEqualTo(approved);
+    }
+
+    @Test
+    void failedAttemptsAreRetriedWithBackoff() throws Exception {
+        String paymentId = nextPaymentId();
+        gateway.register(paymentId, "approved", order.getId());
+        gateway.failNextCalls(paymentId, 2);
+        notificationService.enqueue(paymentId);
+
+        worker.poll();
+        awaitAttempts(paymentId, 1);
+        PaymentNotification afterFirstFailure = notification(paymentId);
+        assertThat(afterFirstFailure.getStatus()).isEqualTo(PaymentNotificationStatus.PENDING);
+        assertThat(afterFirstFailure.getNextAttemptAt()).isAfter(afterFirstFailure.getReceivedAt());
+
+        // Not due yet: polling right away must not call the gateway again
+        worker.poll();
+        assertThat(gateway.calls(paymentId)).isEqualTo(1);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (notification(paymentId).getStatus() != PaymentNotificationStatus.DONE
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            worker.poll();
+        }
+
+        assertThat(notification(paymentId).getStatus()).isEqualTo(PaymentNotificationStatus.DONE);
+        assertThat(gateway.calls(paymentId)).isEqualTo(3);
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.PAID);
+    }
+
+    @Test
+    void notificationFailsAfterMaxAttempts() throws Exception {
+        String paymentId = nextPaymentId();
+        gateway.register(paymentId, "approved", order.getId());
+        gateway.failNextCalls(paymentId, 10);
+        notificationService.enqueue(paymentId);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (notification(paymentId).getStatus() != PaymentNotificationStatus.FAILED
+                && System.currentTimeMillis() < deadline) {
+            worker.poll();
+            Thread.sleep(50);
+        }
+
+        PaymentNotification failed = notification(paymentId);
+        assertThat(failed.getStatus()).isEqualTo(PaymentNotificationStatus.FAILED);
+        assertThat(failed.getAttempts()).isEqualTo(3);
+        assertThat(failed.getLastError()).contains("Simulated gateway outage");
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.PENDING);
+    }
+
+    @Test
+    void workerThatLostItsLeaseCannotRecordAnOutcome() {
+        String paymentId = nextPaymentId();
+        notificationService.enqueue(paymentId);
+        Long id = notification(paymentId).getId();
+        LocalDateTime now = LocalDateTime.now();
+        notificationRepository.claim(id, PaymentNotificationStatus.PENDING, PaymentNotificationStatus.PROCESSING,
+                now.minusSeconds(1), "expired-lease");
+        notificationRepository.releaseExpiredLocks(PaymentNotificationStatus.PROCESSING,
+                PaymentNotificationStatus.PENDING, now);
+        notificationRepository.claim(id, PaymentNotificationStatus.PENDING, PaymentNotificationStatus.PROCESSING,
+                now.plusMinutes(2), "current-lease");
+
+        notificationService.markDone(id, "expired-lease");
+        notificationService.markFailed(id, "expired-lease", new RuntimeException("late failure"));
+
+        PaymentNotification stillClaimed = notification(paymentId);
+        assertThat(stillClaimed.getStatus()).isEqualTo(PaymentNotificationStatus.PROCESSING);
+        assertThat(stillClaimed.getLeaseId()).isEqualTo("current-lease");
+        assertThat(stillClaimed.getAttempts()).isZero();
+
+        notificationService.markDone(id, "current-lease");
+        assertThat(notification(paymentId).getStatus()).isEqualTo(PaymentNotificationStatus.DONE);
+        assertThat(notification(paymentId).getLeaseId()).isNull();
+    }
+
+    @Test
+    void redeliveryDuringProcessingIsRequeuedInsteadOfFinished() {
+        String paymentId = nextPaymentId();
+        notificationService.enqueue(paymentId);
+        Long id = notification(paymentId).getId();
+        notificationRepository.claim(id, PaymentNotificationStatus.PENDING, PaymentNotificationStatus.PROCESSING,
+                LocalDateTime.now().plusMinutes(2), "lease");
+
+        notificationService.enqueue(paymentId);
+        notificationService.markDone(id, "lease");
+
+        PaymentNotification requeued = notification(paymentId);
+        assertThat(requeued.getStatus()).isEqualTo(PaymentNotificationStatus.PENDING);
+        assertThat(requeued.isRedeliver()).isFalse();
+        assertThat(requeued.getLeaseId()).isNull();
+    }
+
+    private PaymentNotification notification(String paymentId) {
+        return notificationRepository.findByPaymentId(paymentId).orElseThrow();
+    }
+
+    private void awaitStatus(String paymentId, PaymentNotificationStatus expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (notification(paymentId).getStatus() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(notification(paymentId).getStatus()).isEqualTo(expected);
+    }
+
+    private void awaitAttempts(String paymentId, int attempts) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (notification(paymentId).getAttempts() < attempts && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(notification(paymentId).getAttempts()).isEqualTo(attempts);
+    }
+
+    private static String nextPaymentId() {
+        return String.valueOf(PAYMENT_IDS.incrementAndGet());
+    }
+}
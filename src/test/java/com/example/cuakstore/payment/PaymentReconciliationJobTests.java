@@ -0,0 +1,168 @@
+package com.example.cuakstore.payment;
+
+import com.example.cuakstore.model.Order;
+import com.example.cuakstore.model.OrderStatus;
+import com.example.cuakstore.model.ReconciliationCheckpoint;
+import com.example.cuakstore.model.User;
+import com.example.cuakstore.repository.OrderRepository;
+import com.example.cuakstore.repository.ReconciliationCheckpointRepository;
+import com.example.cuakstore.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A small chunk size makes each pass span several chunks. The scheduled run is pushed out
+ * of the way so each test drives the job explicitly.
+ */
+@SpringBootTest(properties = {
+        "payments.reconciliation.initial-delay-ms=3600000",
+        "payments.reconciliation.chunk-size=2",
+        "payments.reconciliation.min-age-ms=0",
+        "payments.notifications.poll-ms=3600000"
+})
+class PaymentReconciliationJobTests {
+    private static final AtomicLong PAYMENT_IDS = new AtomicLong(System.currentTimeMillis());
+
+    @TestConfiguration
+    static class StubGatewayConfig {
+        @Bean
+        @Primary
+        StubPaymentGateway stubPaymentGateway() {
+            return new StubPaymentGateway();
+        }
+    }
+
+    @Autowired
+    private StubPaymentGateway gateway;
+
+    @Autowired
+    private PaymentReconciliationJob job;
+
+    @Autowired
+    private ReconciliationCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        gateway.setUnavailable(false);
+        checkpointRepository.deleteAll();
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        user = userRepository.save(new User("recon-" + suffix, "recon-" + suffix + "@cuakstore.com", "secret"));
+    }
+
+    @Test
+    void appliesSettledPaymentsAndLeavesTheRest() {
+        Order approved = pendingOrder("approved");
+        Order rejected = pendingOrder("rejected");
+        Order stillPending = pendingOrder("in_process");
+        Order unknown = pendingOrder(null);
+
+        job.run();
+
+        assertThat(reload(approved).getStatus()).isEqualTo(OrderStatus.PAID);
+        assertThat(reload(approved).getPaymentStatus()).isEqualTo("approved");
+        assertThat(reload(rejected).getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(reload(stillPending).getStatus()).isEqualTo(OrderStatus.PENDING);
+        assertThat(reload(stillPending).getVersion()).isEqualTo(stillPending.getVersion());
+        assertThat(reload(unknown).getStatus()).isEqualTo(OrderStatus.PENDING);
+        assertThat(checkpointRepository.findById(PaymentReconciliationJob.JOB_NAME))
+                .hasValueSatisfying(checkpoint -> assertThat(checkpoint.getLastId()).isZero());
+    }
+
+    @Test
+    void resumesAfterTheCheckpoint() {
+        Order before = pendingOrder("approved");
+        Order after = pendingOrder("approved");
+        checkpointRepository.save(new ReconciliationCheckpoint(PaymentReconciliationJob.JOB_NAME,
+                before.getId(), LocalDateTime.now(), LocalDateTime.now()));
+
+        job.run();
+
+        assertThat(gateway.calls(before.getPaymentId())).isZero();
+        assertThat(reload(before).getStatus()).isEqualTo(OrderStatus.PENDING);
+        assertThat(reload(after).getStatus()).isEqualTo(OrderStatus.PAID);
+    }
+
+    @Test
+    void stopsWithoutAdvancingWhenTheGatewayIsDown() {
+        Order order = pendingOrder("approved");
+        gateway.setUnavailable(true);
+
+        job.run();
+
+        assertThat(reload(order).getStatus()).isEqualTo(OrderStatus.PENDING);
+        assertThat(checkpointRepository.findById(PaymentReconciliationJob.JOB_NAME))
+                .hasValueSatisfying(checkpoint -> assertThat(checkpoint.getLastId()).isZero());
+
+        gateway.setUnavailable(false);
+        job.run();
+
+        assertThat(reload(order).getStatus()).isEqualTo(OrderStatus.PAID);
+    }
+
+    @Test
+    void skipsThePassWhileAnotherInstanceHoldsTheLease() {
+        Order order = pendingOrder("approved");
+        ReconciliationCheckpoint held = new ReconciliationCheckpoint(PaymentReconciliationJob.JOB_NAME,
+                0L, LocalDateTime.now(), LocalDateTime.now());
+        held.setLeaseId("other-instance");
+        held.setLockedUntil(LocalDateTime.now().plusMinutes(5));
+        checkpointRepository.save(held);
+
+        assertThat(job.run()).isEqualTo(-1);
+        assertThat(gateway.calls(order.getPaymentId())).isZero();
+        assertThat(checkpointRepository.findById(PaymentReconciliationJob.JOB_NAME).orElseThrow().getLeaseId())
+                .isEqualTo("other-instance");
+
+        // The other instance died: once its lease runs out the pass goes ahead
+        held.setLockedUntil(LocalDateTime.now().minusSeconds(1));
+        checkpointRepository.save(held);
+
+        job.run();
+
+        assertThat(reload(order).getStatus()).isEqualTo(OrderStatus.PAID);
+        assertThat(checkpointRepository.findById(PaymentReconciliationJob.JOB_NAME).orElseThrow().getLeaseId()).isNull();
+    }
+
+    /**
+     * A PENDING order whose payment is still "in_process" locally; the gateway reports
+     * {@code remoteStatus}, or does not know the payment when it is null.
+     */
+    private Order pendingOrder(String remoteStatus) {
+        String paymentId = String.valueOf(PAYMENT_IDS.incrementAndGet());
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(OrderStatus.PENDING);
+        order.setTotalAmount(new BigDecimal("25.00"));
+        order.setPaymentId(paymentId);
+        order.setPaymentStatus("in_process");
+        order = orderRepository.save(order);
+        if (remoteStatus != null) {
+            gateway.register(paymentId, remoteStatus, order.getId());
+        }
+        return order;
+    }
+
+    private Order reload(Order order) {
+        return orderRepository.findById(order.getId()).orElseThrow();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.cuakstore.payment;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stands in for Mercado Pago in tests: serves registered payments and can be told to fail
+ * a number of times before answering.
+ */
+public class StubPaymentGateway implements PaymentGateway {
+    private final Map<String, PaymentInfo> payments = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> failuresLeft = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    private volatile boolean unavailable;
+
+    public void register(String paymentId, String status, Long orderId) {
+        payments.put(paymentId, new PaymentInfo(paymentId, status, String.valueOf(orderId)));
+    }
+
+    public void failNextCalls(String paymentId, int failures) {
+        failuresLeft.put(paymentId, new AtomicInteger(failures));
+    }
+
+    public void setUnavailable(boolean unavailable) {
+        this.unavailable = unavailable;
+    }
+
+    public int calls(String paymentId) {
+        AtomicInteger count = calls.get(paymentId);
+        return count == null ? 0 : count.get();
+    }
+
+    @Override
+    public PaymentInfo getPayment(String paymentId) {
+        calls.computeIfAbsent(paymentId, id -> new AtomicInteger()).incrementAndGet();
+        if (unavailable) {
+            throw new PaymentGatewayUnavailableException("Simulated open circuit", null);
+        }
+        AtomicInteger failures = failuresLeft.get(paymentId);
+        if (failures != null && failures.getAndDecrement() > 0) {
+            throw new PaymentGatewayException("Simulated gateway outage", null);
+        }
+        PaymentInfo payment = payments.get(paymentId);
+        if (payment == null) {
+            throw new PaymentGatewayException("Unknown payment " + paymentId, null);
+        }
+        return payment;
+    }
+
+    @Override
+    public PaymentPreference createPreference(String title, BigDecimal amount, String externalReference) {
+        return new PaymentPreference("pref-" + externalReference, "https://example.test/checkout", "https://example.test/sandbox");
+    }
+}
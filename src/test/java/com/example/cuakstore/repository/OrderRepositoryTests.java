@@ -0,0 +1,120 @@
+package com.example.cuakstore.repository;
+
+import com.example.cuakstore.model.Category;
+import com.example.cuakstore.model.Order;
+import com.example.cuakstore.model.OrderItem;
+import com.example.cuakstore.model.OrderStatus;
+import com.example.cuakstore.model.Product;
+import com.example.cuakstore.model.User;
+import com.example.cuakstore.payload.response.OrderResponse;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class OrderRepositoryTests {
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private Statistics statistics;
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findAllWithItemsUsesConstantNumberOfStatements() {
+        createOrders(5);
+        long fewOrders = countStatements(() -> orderRepository.findAllWithItems());
+
+        createOrders(45);
+        long manyOrders = countStatements(() -> orderRepository.findAllWithItems());
+
+        assertThat(manyOrders).isEqualTo(fewOrders);
+    }
+
+    @Test
+    void findByUserWithItemsUsesConstantNumberOfStatements() {
+        createOrders(5);
+        User user = users.get(0);
+        long fewOrders = countStatements(() -> orderRepository.findByUserWithItems(user));
+
+        createOrders(45);
+        long manyOrders = countStatements(() -> orderRepository.findByUserWithItems(user));
+
+        assertThat(manyOrders).isEqualTo(fewOrders);
+    }
+
+    @Test
+    void findByStatusWithItemsUsesConstantNumberOfStatements() {
+        createOrders(5);
+        long fewOrders = countStatements(() -> orderRepository.findByStatusWithItems(OrderStatus.PENDING));
+
+        createOrders(45);
+        long manyOrders = countStatements(() -> orderRepository.findByStatusWithItems(OrderStatus.PENDING));
+
+        assertThat(manyOrders).isEqualTo(fewOrders);
+    }
+
+    /**
+     * Runs the query against a cleared persistence context and maps the result to the
+     * response DTOs, counting every statement prepared along the way.
+     */
+    private long countStatements(Supplier<List<Order>> query) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<OrderResponse> responses = OrderResponse.fromAll(query.get());
+        assertThat(responses).isNotEmpty();
+        assertThat(responses).allSatisfy(response -> assertThat(response.getItems()).hasSize(3));
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Every order gets its own user and its own category, so anything the graphs miss costs
+     * one extra statement per order rather than being absorbed by the persistence context.
+     */
+    private void createOrders(int count) {
+        for (int i = 0; i < count; i++) {
+            int n = users.size();
+            User user = entityManager.persist(new User("user" + n, "user" + n + "@cuakstore.com", "secret"));
+            users.add(user);
+            Category category = new Category();
+            category.setName("Category " + n);
+            entityManager.persist(category);
+
+            Order order = new Order();
+            order.setUser(user);
+            order.setShippingAddress("Calle Falsa " + n);
+            for (int j = 0; j < 3; j++) {
+                Product product = new Product();
+                product.setName("Product " + n + "-" + j);
+                product.setPrice(new BigDecimal("10.00").add(BigDecimal.valueOf(j)));
+                product.setStockQuantity(100);
+                product.setCategory(category);
+                order.addOrderItem(new OrderItem(entityManager.persist(product), j + 1));
+            }
+            order.calculateTotalAmount();
+            entityManager.persist(order);
+        }
+    }
+}
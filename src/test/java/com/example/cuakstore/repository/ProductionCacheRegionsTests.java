@@ -0,0 +1,41 @@
+package com.example.cuakstore.repository;
+
+import com.example.cuakstore.model.CacheRegions;
+import com.example.cuakstore.model.ERole;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts against the regions of ehcache.xml exactly as production does: no region prefix and
+ * {@code missing_cache_strategy=fail}, so a region missing from the file fails the context.
+ * This is the only context without a prefix, so no other test shares its regions.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=fail",
+        "spring.jpa.properties.hibernate.cache.region_prefix="
+})
+class ProductionCacheRegionsTests {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Test
+    void startsWithTheRegionsOfEhcacheXml() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        assertThat(statistics.getSecondLevelCacheRegionNames()).contains(
+                CacheRegions.ROLES, CacheRegions.CATEGORIES, CacheRegions.REFERENCE_QUERIES);
+
+        roleRepository.findByName(ERole.ROLE_USER).orElseThrow();
+        statistics.clear();
+        assertThat(roleRepository.findByName(ERole.ROLE_USER)).isPresent();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+}
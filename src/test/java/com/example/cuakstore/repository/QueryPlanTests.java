@@ -0,0 +1,210 @@
+package com.example.cuakstore.repository;
+
+import com.example.cuakstore.model.Category;
+import com.example.cuakstore.model.Order;
+import com.example.cuakstore.model.OrderStatus;
+import com.example.cuakstore.model.Product;
+import com.example.cuakstore.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs {@code EXPLAIN} on the SQL Hibernate generates for the repository queries, against the
+ * schema built by the Flyway migrations, and fails if any of them scans a whole table. Each test
+ * calls the repository method it is named after and explains every statement that call sent,
+ * as captured by {@link RecordingStatementInspector}.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.cuakstore.repository.RecordingStatementInspector")
+class QueryPlanTests {
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private User user;
+    private Category category;
+    private Product product;
+    private Order order;
+
+    @BeforeEach
+    void seed() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            users.add(entityManager.persist(new User("planner" + i, "planner" + i + "@cuakstore.com", "secret")));
+        }
+        user = users.get(0);
+
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Category seeded = new Category();
+            seeded.setName("Plan category " + i);
+            categories.add(entityManager.persist(seeded));
+        }
+        category = categories.get(0);
+
+        for (int i = 0; i < 200; i++) {
+            Product seeded = new Product();
+            seeded.setName("Plan product " + i);
+            seeded.setPrice(BigDecimal.valueOf(1 + i % 50));
+            seeded.setStockQuantity(i % 30);
+            seeded.setCategory(categories.get(i % categories.size()));
+            entityManager.persist(seeded);
+            if (product == null) {
+                product = seeded;
+            }
+        }
+
+        OrderStatus[] statuses = OrderStatus.values();
+        for (int i = 0; i < 300; i++) {
+            Order seeded = new Order();
+            seeded.setUser(users.get(i % users.size()));
+            seeded.setStatus(statuses[i % statuses.length]);
+            seeded.setTotalAmount(BigDecimal.TEN);
+            seeded.setPaymentId(i % 2 == 0 ? "pay-" + i : null);
+            entityManager.persist(seeded);
+            if (order == null) {
+                order = seeded;
+            }
+        }
+        entityManager.flush();
+        RecordingStatementInspector.drain();
+    }
+
+    @Test
+    void findByUserAndStatus() {
+        assertIndexed(() -> orderRepository.findByUserAndStatus(user, OrderStatus.PAID));
+    }
+
+    @Test
+    void findByUser() {
+        assertIndexed(() -> orderRepository.findByUser(user));
+    }
+
+    @Test
+    void findByStatus() {
+        assertIndexed(() -> orderRepository.findByStatus(OrderStatus.SHIPPED));
+    }
+
+    @Test
+    void findByOrderDateBetween() {
+        assertIndexed(() -> orderRepository.findByOrderDateBetween(NOW.minusDays(7), NOW));
+    }
+
+    @Test
+    void findPendingPaymentsAfter() {
+        assertIndexed(() -> orderRepository.findPendingPaymentsAfter(OrderStatus.PENDING, 0L, NOW, PageRequest.of(0, 100)));
+    }
+
+    @Test
+    void findByCategoryAndNameContainingIgnoreCase() {
+        assertIndexed(() -> productRepository.findByCategoryAndNameContainingIgnoreCase(category, "product 1"));
+    }
+
+    @Test
+    void findByCategory() {
+        assertIndexed(() -> productRepository.findByCategory(category));
+    }
+
+    @Test
+    void findByPriceBetween() {
+        assertIndexed(() -> productRepository.findByPriceBetween(new BigDecimal("10.00"), new BigDecimal("20.00")));
+    }
+
+    @Test
+    void findNextByName() {
+        assertIndexed(() -> productRepository.findNextByName("Plan product 5", 0L, PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void countByStockQuantityLessThan() {
+        assertIndexed(() -> productRepository.countByStockQuantityLessThan(5));
+    }
+
+    @Test
+    void findByOrder() {
+        assertIndexed(() -> orderItemRepository.findByOrder(order));
+    }
+
+    @Test
+    void findByProduct() {
+        assertIndexed(() -> orderItemRepository.findByProduct(product));
+    }
+
+    private void assertIndexed(Runnable repositoryCall) {
+        repositoryCall.run();
+        List<String> statements = RecordingStatementInspector.drain();
+        assertThat(statements).as("statements sent").isNotEmpty();
+        statements.forEach(this::assertIndexed);
+    }
+
+    private void assertIndexed(String sql) {
+        List<String> rows = jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement explain = connection.prepareStatement("explain " + sql)) {
+                bindSampleValues(explain);
+                List<String> plan = new ArrayList<>();
+                try (ResultSet resultSet = explain.executeQuery()) {
+                    while (resultSet.next()) {
+                        plan.add(resultSet.getString(1));
+                    }
+                }
+                return plan;
+            }
+        });
+        String plan = String.join("\n", rows);
+        // H2 reports a full scan as "<table>.tableScan", Postgres as "Seq Scan"
+        assertThat(plan)
+                .as("plan for %s", sql)
+                .doesNotContainIgnoringCase("tableScan")
+                .doesNotContain("Seq Scan");
+    }
+
+    /**
+     * The inspector only sees placeholders; any value of the right type gives the same plan,
+     * since the plan is chosen when the statement is prepared.
+     */
+    private static void bindSampleValues(PreparedStatement statement) throws SQLException {
+        ParameterMetaData parameters = statement.getParameterMetaData();
+        for (int i = 1; i <= parameters.getParameterCount(); i++) {
+            switch (parameters.getParameterType(i)) {
+                case Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR -> statement.setString(i, "%sample%");
+                case Types.DATE, Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE ->
+                        statement.setTimestamp(i, Timestamp.valueOf(NOW));
+                case Types.DECIMAL, Types.NUMERIC -> statement.setBigDecimal(i, BigDecimal.TEN);
+                case Types.BOOLEAN -> statement.setBoolean(i, true);
+                default -> statement.setLong(i, 1L);
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.cuakstore.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps every SQL statement Hibernate prepares, unchanged, so a test can look at exactly what a
+ * repository method sent. Registered by class name, hence the shared static list.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+    private static final List<String> STATEMENTS = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (STATEMENTS) {
+            STATEMENTS.add(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Returns the statements recorded since the last call and forgets them.
+     */
+    public static List<String> drain() {
+        synchronized (STATEMENTS) {
+            List<String> recorded = List.copyOf(STATEMENTS);
+            STATEMENTS.clear();
+            return recorded;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.cuakstore.repository;
+
+import com.example.cuakstore.model.CacheRegions;
+import com.example.cuakstore.model.Category;
+import com.example.cuakstore.model.ERole;
+import com.example.cuakstore.model.Product;
+import jakarta.persistence.EntityManagerFactory;
+import org.ehcache.xml.XmlConfiguration;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Repeated reads of roles and categories are served by the second-level cache without
+ * preparing a statement.
+ */
+@SpringBootTest
+class ReferenceDataCacheTests {
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void roleLookupByNameHitsTheQueryCache() {
+        roleRepository.findByName(ERole.ROLE_USER).orElseThrow();
+
+        statistics.clear();
+        assertThat(roleRepository.findByName(ERole.ROLE_USER)).isPresent();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void categoriesAreCachedAndInvalidatedOnWrite() {
+        Category category = new Category();
+        category.setName("Cached " + UUID.randomUUID().toString().substring(0, 8));
+        category = categoryRepository.save(category);
+        categoryRepository.findAll();
+
+        statistics.clear();
+        assertThat(categoryRepository.findById(category.getId())).isPresent();
+        assertThat(categoryRepository.findByName(category.getName())).isPresent();
+        categoryRepository.findByName(category.getName());
+        assertThat(categoryRepository.findAll()).extracting(Category::getId).contains(category.getId());
+
+        // Only the first findByName runs a query; everything else comes from the cache
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        Category added = new Category();
+        added.setName("Added " + UUID.randomUUID().toString().substring(0, 8));
+        added = categoryRepository.save(added);
+        assertThat(categoryRepository.findAll()).extracting(Category::getId).contains(added.getId());
+    }
+
+    @Test
+    void stockUpdatesLeaveTheCachedRegionsAlone() {
+        Category category = new Category();
+        category.setName("Stocked " + UUID.randomUUID().toString().substring(0, 8));
+        category = categoryRepository.save(category);
+        Product product = new Product();
+        product.setName("Stocked duck " + UUID.randomUUID());
+        product.setPrice(new BigDecimal("5.00"));
+        product.setStockQuantity(3);
+        product.setCategory(category);
+        product = productRepository.save(product);
+        categoryRepository.findById(category.getId());
+
+        Long productId = product.getId();
+        new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> productRepository.decrementStock(productId, 1));
+
+        statistics.clear();
+        assertThat(categoryRepository.findById(category.getId())).isPresent();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void everyRegionIsDeclaredInEhcacheXml() {
+        XmlConfiguration configuration = new XmlConfiguration(getClass().getResource("/ehcache.xml"));
+        assertThat(configuration.getCacheConfigurations()).containsKeys(
+                CacheRegions.ROLES, CacheRegions.CATEGORIES, CacheRegions.REFERENCE_QUERIES,
+                "default-update-timestamps-region", "default-query-results-region");
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.cuakstore.repository;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Upgrades a database that already holds the schema of V1 with data in it, as one created by
+ * the earlier ddl-auto=update setup would.
+ */
+class SchemaMigrationTests {
+    @Test
+    void upgradesADatabaseWithExistingProducts() {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:migration-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        flyway(dataSource).target("1").load().migrate();
+        for (int i = 0; i < 3; i++) {
+            jdbcTemplate.update("insert into products (name, price, stock_quantity, created_at) "
+                    + "values (?, 1.00, 1, current_timestamp)", "Legacy duck " + i);
+        }
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from products", Long.class);
+
+        flyway(dataSource).load().migrate();
+
+        // The pooled optimizer's first block ends at the first value, so it starts right after maxId
+        assertThat(jdbcTemplate.queryForObject("select next value for products_seq", Long.class))
+                .isEqualTo(maxId + 50);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from payment_notifications", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from reconciliation_checkpoints", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from orders where version <> 0", Long.class)).isZero();
+    }
+
+    private static FluentConfiguration flyway(DataSource dataSource) {
+        return Flyway.configure().dataSource(dataSource).locations("classpath:db/migration");
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.cuakstore.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixCompletionIndexTests {
+    private final PrefixCompletionIndex index = PrefixCompletionIndex.build(List.of(
+            product(1L, "Duck", 5),
+            product(2L, "Ducky", 5),
+            product(3L, "Duckz", 9),
+            product(4L, "Due date planner", 1),
+            product(5L, "Custom Logo Keychain", 3),
+            product(6L, "Apple", 0),
+            product(7L, "Zebra", 0)));
+
+    @Test
+    void prefixRangeStopsAtTheFirstKeyThatNoLongerMatches() {
+        assertThat(ids(index.lookup("duck", 10))).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(ids(index.lookup("du", 10))).containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+        assertThat(ids(index.lookup("ducky", 10))).containsExactly(2L);
+    }
+
+    @Test
+    void prefixesAtEitherEndOfTheKeyRange() {
+        assertThat(ids(index.lookup("a", 10))).containsExactly(6L);
+        assertThat(ids(index.lookup("zebra", 10))).containsExactly(7L);
+        assertThat(index.lookup("zz", 10)).isEmpty();
+        assertThat(index.lookup("0", 10)).isEmpty();
+        assertThat(index.lookup("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void matchesAtEveryWordStart() {
+        assertThat(ids(index.lookup("key", 10))).containsExactly(5L);
+        assertThat(ids(index.lookup("logo k", 10))).containsExactly(5L);
+        assertThat(ids(index.lookup("date", 10))).containsExactly(4L);
+    }
+
+    @Test
+    void returnsTheMostPopularFirstThenShorterTexts() {
+        assertThat(ids(index.lookup("d", 10))).containsExactly(3L, 1L, 2L, 4L);
+        assertThat(ids(index.lookup("d", 2))).containsExactly(3L, 1L);
+        assertThat(index.lookup("d", 0)).isEmpty();
+    }
+
+    @Test
+    void textMatchingSeveralTimesIsReturnedOnce() {
+        PrefixCompletionIndex repeated = PrefixCompletionIndex.build(List.of(
+                product(1L, "Duck duck goose", 1),
+                product(2L, "Duckling", 0)));
+
+        assertThat(ids(repeated.lookup("duck", 10))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void longPrefixesAreTruncatedLikeKeys() {
+        String name = "Extraordinarily long product name for testing";
+        PrefixCompletionIndex longNames = PrefixCompletionIndex.build(List.of(product(1L, name, 0)));
+
+        assertThat(ids(longNames.lookup(name, 10))).containsExactly(1L);
+    }
+
+    private static Suggestion product(Long id, String text, long popularity) {
+        return new Suggestion(text, Suggestion.PRODUCT, id, popularity);
+    }
+
+    private static List<Long> ids(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::id).toList();
+    }
+}
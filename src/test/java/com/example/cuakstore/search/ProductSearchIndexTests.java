@@ -0,0 +1,130 @@
+package com.example.cuakstore.search;
+
+import com.example.cuakstore.event.CategoryChangedEvent;
+import com.example.cuakstore.model.Category;
+import com.example.cuakstore.model.Product;
+import com.example.cuakstore.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTests {
+    private ProductRepository productRepository;
+    private ProductSearchIndex index;
+    private Category toys;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        index = new ProductSearchIndex();
+        ReflectionTestUtils.setField(index, "productRepository", productRepository);
+        toys = category(1L, "Toys");
+    }
+
+    @Test
+    void queryTokensMatchAsPrefixesOfIndexedTerms() {
+        index.index(product(1L, "Rubber duck", "Squeaks", toys));
+        index.index(product(2L, "Duckling plush", null, toys));
+        index.index(product(3L, "Rubber band", null, toys));
+
+        assertThat(index.search("duck", 10)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("rub duc", 10)).containsExactly(1L);
+        assertThat(index.search("Dúck", 10)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("goose", 10)).isEmpty();
+    }
+
+    @Test
+    void exactMatchesRankAbovePrefixMatchesAndNamesAboveDescriptions() {
+        index.index(product(1L, "Duckling plush", null, toys));
+        index.index(product(2L, "Bath toy", "A yellow duck", toys));
+        index.index(product(3L, "Duck", null, toys));
+
+        // Exact name match, then a prefix match in the name, then an exact match in the description
+        assertThat(index.search("duck", 10)).containsExactly(3L, 1L, 2L);
+        assertThat(index.search("duck", 2)).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void equalScoresAreOrderedById() {
+        index.index(product(7L, "Duck", null, toys));
+        index.index(product(3L, "Duck", null, toys));
+
+        assertThat(index.search("duck", 10)).containsExactly(3L, 7L);
+    }
+
+    @Test
+    void removedProductsNoLongerMatch() {
+        index.index(product(1L, "Rubber duck", null, toys));
+        index.remove(1L);
+
+        assertThat(index.search("duck", 10)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void renamingACategoryReindexesItsProducts() {
+        Product duck = product(1L, "Rubber duck", null, toys);
+        index.index(duck);
+        Category renamed = category(1L, "Bath");
+        duck.setCategory(renamed);
+        when(productRepository.findByCategory(renamed)).thenReturn(List.of(duck));
+
+        index.onCategoryChanged(CategoryChangedEvent.saved(renamed));
+
+        assertThat(index.search("bath", 10)).containsExactly(1L);
+        assertThat(index.search("toys", 10)).isEmpty();
+    }
+
+    @Test
+    void deletingACategoryDropsItsProducts() {
+        index.index(product(1L, "Rubber duck", null, toys));
+        index.index(product(2L, "Duck pond", null, category(2L, "Garden")));
+
+        index.onCategoryChanged(CategoryChangedEvent.deleted(1L));
+
+        assertThat(index.search("duck", 10)).containsExactly(2L);
+    }
+
+    @Test
+    void changesDuringARebuildSurviveIt() {
+        Product stale = product(1L, "Rubber duck", null, toys);
+        Product renamed = product(1L, "Rubber goose", null, toys);
+        when(productRepository.findSlice(any(Pageable.class))).thenAnswer(invocation -> {
+            // The rebuild has read the old row when the rename commits
+            index.index(renamed);
+            index.remove(2L);
+            return List.of(stale, product(2L, "Duck pond", null, toys));
+        });
+        when(productRepository.findNextById(anyLong(), any(Pageable.class))).thenReturn(List.of());
+
+        index.rebuild();
+
+        assertThat(index.search("goose", 10)).containsExactly(1L);
+        assertThat(index.search("duck", 10)).isEmpty();
+    }
+
+    private static Product product(Long id, String name, String description, Category category) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        product.setCategory(category);
+        return product;
+    }
+
+    private static Category category(Long id, String name) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        return category;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.cuakstore.search;
+
+import com.example.cuakstore.event.CategoryChangedEvent;
+import com.example.cuakstore.event.ProductChangedEvent;
+import com.example.cuakstore.model.Category;
+import com.example.cuakstore.model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Catalog writes are visible to lookups straight away, before the index is rebuilt.
+ */
+class SuggestionServiceTests {
+    private SuggestionService suggestionService;
+
+    @BeforeEach
+    void setUp() {
+        suggestionService = new SuggestionService();
+        ReflectionTestUtils.setField(suggestionService, "maxResults", 10);
+        ReflectionTestUtils.setField(suggestionService, "maxPending", 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        suggestionService.shutdown();
+    }
+
+    @Test
+    void savedProductsAreSuggestedImmediately() {
+        suggestionService.onProductChanged(ProductChangedEvent.saved(product(1L, "Rubber duck")));
+
+        assertThat(suggestionService.suggest("rub", 10)).extracting(Suggestion::id).containsExactly(1L);
+        assertThat(suggestionService.suggest("duck", 10)).extracting(Suggestion::id).containsExactly(1L);
+    }
+
+    @Test
+    void renamesAndDeletionsReplaceWhatWasIndexed() {
+        suggestionService.onProductChanged(ProductChangedEvent.saved(product(1L, "Rubber duck")));
+        suggestionService.onProductChanged(ProductChangedEvent.saved(product(2L, "Rubber band")));
+        ReflectionTestUtils.invokeMethod(suggestionService, "rebuild");
+
+        suggestionService.onProductChanged(ProductChangedEvent.saved(product(1L, "Bath goose")));
+        suggestionService.onProductChanged(ProductChangedEvent.deleted(2L));
+
+        assertThat(suggestionService.suggest("rub", 10)).isEmpty();
+        assertThat(suggestionService.suggest("goose", 10)).extracting(Suggestion::text).containsExactly("Bath goose");
+    }
+
+    @Test
+    void overlayIsFoldedIntoTheIndexOnRebuild() {
+        Category category = new Category();
+        category.setId(3L);
+        category.setName("Bath toys");
+        suggestionService.onCategoryChanged(CategoryChangedEvent.saved(category));
+        ReflectionTestUtils.invokeMethod(suggestionService, "rebuild");
+
+        assertThat(suggestionService.suggest("toys", 10))
+                .containsExactly(new Suggestion("Bath toys", Suggestion.CATEGORY, 3L, 0));
+    }
+
+    @Test
+    void deletingACategoryDropsItsProducts() {
+        Category category = new Category();
+        category.setId(4L);
+        category.setName("Bath toys");
+        suggestionService.onCategoryChanged(CategoryChangedEvent.saved(category));
+        Product duck = product(1L, "Bath duck");
+        duck.setCategory(category);
+        suggestionService.onProductChanged(ProductChangedEvent.saved(duck));
+        suggestionService.onProductChanged(ProductChangedEvent.saved(product(2L, "Bath sponge")));
+        ReflectionTestUtils.invokeMethod(suggestionService, "rebuild");
+
+        suggestionService.onCategoryChanged(CategoryChangedEvent.deleted(4L));
+
+        assertThat(suggestionService.suggest("bath", 10)).extracting(Suggestion::text).containsExactly("Bath sponge");
+    }
+
+    private static Product product(Long id, String name) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        return product;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.cuakstore.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextAnalyzerTests {
+
+    @Test
+    void lowercasesAndStripsAccents() {
+        assertThat(TextAnalyzer.tokenize("Cámara ÑANDÚ")).containsExactly("camara", "nandu");
+    }
+
+    @Test
+    void splitsOnPunctuationAndKeepsDigits() {
+        assertThat(TextAnalyzer.tokenize("  USB-C cable, 2m (x3)!")).containsExactly("usb", "c", "cable", "2m", "x3");
+    }
+
+    @Test
+    void blankOrMissingTextHasNoTokens() {
+        assertThat(TextAnalyzer.tokenize(null)).isEmpty();
+        assertThat(TextAnalyzer.tokenize(" -- ")).isEmpty();
+    }
+}
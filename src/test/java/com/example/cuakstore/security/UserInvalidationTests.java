@@ -0,0 +1,144 @@
+package com.example.cuakstore.security;
+
+import com.example.cuakstore.model.ERole;
+import com.example.cuakstore.model.Role;
+import com.example.cuakstore.model.User;
+import com.example.cuakstore.repository.RoleRepository;
+import com.example.cuakstore.repository.UserRepository;
+import com.example.cuakstore.security.jwt.JwtUtils;
+import com.example.cuakstore.security.services.UserDetailsImpl;
+import com.example.cuakstore.security.services.UserInvalidationRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tokens sign the user's roles and version; these check that a change to the user is seen by
+ * the next request carrying a token issued before it.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserInvalidationTests {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private UserInvalidationRegistry userInvalidationRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void revokedRoleIsNotTrustedFromAnOlderToken() throws Exception {
+        User user = createUser(ERole.ROLE_USER, ERole.ROLE_ADMIN);
+        String token = tokenFor(user);
+        adminRequest(token).andExpect(status().isOk());
+
+        user.getRoles().removeIf(role -> role.getName() == ERole.ROLE_ADMIN);
+        userRepository.save(user);
+
+        adminRequest(token).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void deletedUserIsNotAuthenticatedByAnOlderToken() throws Exception {
+        // There is no disabled flag on users; deleting one is how an account is shut off
+        User user = createUser(ERole.ROLE_USER, ERole.ROLE_ADMIN);
+        String token = tokenFor(user);
+        adminRequest(token).andExpect(status().isOk());
+
+        userRepository.delete(user);
+
+        adminRequest(token).andExpect(status().isUnauthorized());
+        assertThat(userInvalidationRegistry.isInvalidated(user.getId(), user.getVersion())).isTrue();
+    }
+
+    @Test
+    void tokenIssuedBeforeAChangeIsReloadedAndANewOneIsTrusted() throws Exception {
+        User user = createUser(ERole.ROLE_USER, ERole.ROLE_ADMIN);
+        String oldToken = tokenFor(user);
+        Long oldVersion = user.getVersion();
+        assertThat(userInvalidationRegistry.isInvalidated(user.getId(), oldVersion)).isFalse();
+
+        user.setEmail("changed-" + user.getEmail());
+        user = userRepository.save(user);
+
+        assertThat(user.getVersion()).isGreaterThan(oldVersion);
+        assertThat(userInvalidationRegistry.isInvalidated(user.getId(), oldVersion)).isTrue();
+        assertThat(userInvalidationRegistry.isInvalidated(user.getId(), user.getVersion())).isFalse();
+        // Unrelated changes only cost a reload: the current roles still allow the request
+        adminRequest(oldToken).andExpect(status().isOk());
+        adminRequest(tokenFor(user)).andExpect(status().isOk());
+    }
+
+    @Test
+    void currentVersionIsReusedUntilTheUserChanges() {
+        User user = createUser(ERole.ROLE_USER);
+        Long version = user.getVersion();
+        userInvalidationRegistry.isInvalidated(user.getId(), version);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertThat(userInvalidationRegistry.isInvalidated(user.getId(), version)).isFalse();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        user.setEmail("changed-" + user.getEmail());
+        userRepository.save(user);
+        assertThat(userInvalidationRegistry.isInvalidated(user.getId(), version)).isTrue();
+    }
+
+    @Test
+    void tokenWithoutAVersionIsNeverTrusted() {
+        User user = createUser(ERole.ROLE_USER);
+
+        assertThat(userInvalidationRegistry.isInvalidated(user.getId(), null)).isTrue();
+    }
+
+    private ResultActions adminRequest(String token) throws Exception {
+        return mockMvc.perform(get("/api/orders/status/{status}", "PENDING")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+    }
+
+    private String tokenFor(User user) {
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        return jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private User createUser(ERole... roleNames) {
+        String name = "inv" + UUID.randomUUID().toString().substring(0, 8);
+        User user = new User(name, name + "@cuakstore.com", "password");
+        Set<Role> roles = new HashSet<>();
+        for (ERole roleName : List.of(roleNames)) {
+            roles.add(roleRepository.findByName(roleName).orElseThrow());
+        }
+        user.setRoles(roles);
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.cuakstore.security.jwt;
+
+import com.example.cuakstore.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verified claims are reused from the cache, but never past the token's own expiry and never
+ * for a token that differs from the one verified.
+ */
+class JwtUtilsTests {
+    private static final String SECRET = secret("cuakstore-jwt-utils-test-secret");
+    private static final String OTHER_SECRET = secret("cuakstore-jwt-utils-other-secret");
+
+    @Test
+    void recentlyVerifiedTokenIsServedFromTheCache() {
+        JwtUtils jwtUtils = jwtUtils(3_600_000, 10, 300_000);
+        String token = token(jwtUtils);
+
+        Claims first = jwtUtils.parseAndValidateJwtToken(token);
+        Claims second = jwtUtils.parseAndValidateJwtToken(token);
+
+        assertThat(first).isNotNull();
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void cacheEntryIsVerifiedAgainAfterItsTtl() throws InterruptedException {
+        JwtUtils jwtUtils = jwtUtils(3_600_000, 10, 50);
+        String token = token(jwtUtils);
+        Claims first = jwtUtils.parseAndValidateJwtToken(token);
+
+        Thread.sleep(100);
+
+        Claims second = jwtUtils.parseAndValidateJwtToken(token);
+        assertThat(second).isNotNull().isNotSameAs(first);
+    }
+
+    @Test
+    void tokenExpiringInsideTheTtlIsRejectedFromTheCache() throws InterruptedException {
+        // JWT timestamps have second precision, so the token lives for one to two seconds
+        JwtUtils jwtUtils = jwtUtils(2_000, 10, 300_000);
+        String token = token(jwtUtils);
+        assertThat(jwtUtils.parseAndValidateJwtToken(token)).isNotNull();
+
+        Thread.sleep(2_100);
+
+        assertThat(jwtUtils.parseAndValidateJwtToken(token)).isNull();
+        assertThat(jwtUtils.parseAndValidateJwtToken(token)).isNull();
+    }
+
+    @Test
+    void tamperedTokensAreRejectedEvenWhenTheOriginalIsCached() {
+        JwtUtils jwtUtils = jwtUtils(3_600_000, 10, 300_000);
+        String token = token(jwtUtils);
+        assertThat(jwtUtils.parseAndValidateJwtToken(token)).isNotNull();
+
+        String[] parts = token.split("\\.");
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                "{\"sub\":\"owner\",\"id\":1,\"roles\":[\"ROLE_OWNER\"]}".getBytes());
+        String otherSignature = token(jwtUtils(3_600_000, 0, 300_000, OTHER_SECRET)).split("\\.")[2];
+
+        assertThat(jwtUtils.parseAndValidateJwtToken(parts[0] + "." + forgedPayload + "." + parts[2])).isNull();
+        assertThat(jwtUtils.parseAndValidateJwtToken(parts[0] + "." + parts[1] + "." + otherSignature)).isNull();
+        assertThat(jwtUtils.parseAndValidateJwtToken(parts[0] + "." + parts[1] + ".")).isNull();
+    }
+
+    private static String token(JwtUtils jwtUtils) {
+        UserDetailsImpl principal = UserDetailsImpl.build(1L, "duck", "duck@cuakstore.com", List.of("ROLE_USER"), 0L);
+        return jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static JwtUtils jwtUtils(int expirationMs, int cacheSize, long cacheTtlMs) {
+        return jwtUtils(expirationMs, cacheSize, cacheTtlMs, SECRET);
+    }
+
+    private static JwtUtils jwtUtils(int expirationMs, int cacheSize, long cacheTtlMs, String secret) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", secret);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", expirationMs);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheSize", cacheSize);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheTtlMs", cacheTtlMs);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    // HS512 needs a key of at least 64 bytes
+    private static String secret(String seed) {
+        return Base64.getEncoder().encodeToString((seed + "-".repeat(64)).getBytes());
+    }
+}
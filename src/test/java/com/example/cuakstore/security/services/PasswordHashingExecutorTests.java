@@ -0,0 +1,126 @@
+package com.example.cuakstore.security.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Admission control of the hashing pool: a full queue and a stale queued task are both
+ * refused with the configured Retry-After, and neither runs the hashing work.
+ */
+class PasswordHashingExecutorTests {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHashingExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void fullQueueIsRejectedWithoutWaiting() throws Exception {
+        executor = executor(1, 1, 60_000);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        CompletableFuture<String> busy = CompletableFuture.supplyAsync(() -> executor.execute("encode", () -> {
+            running.countDown();
+            await(release);
+            return "busy";
+        }));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> executor.execute("encode", () -> "queued"));
+        awaitQueueDepth(1);
+
+        AtomicBoolean ran = new AtomicBoolean();
+        assertThatThrownBy(() -> executor.execute("matches", () -> ran.getAndSet(true)))
+                .isInstanceOf(PasswordHashingRejectedException.class)
+                .extracting("retryAfterSeconds").isEqualTo(3L);
+
+        release.countDown();
+        assertThat(busy.get(5, TimeUnit.SECONDS)).isEqualTo("busy");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+        assertThat(ran).isFalse();
+        assertThat(rejected("queue_full")).isEqualTo(1.0);
+    }
+
+    @Test
+    void taskThatWaitedTooLongIsRejectedWhenItReachesAWorker() throws Exception {
+        executor = executor(1, 8, 50);
+        CountDownLatch running = new CountDownLatch(1);
+        CompletableFuture<String> busy = CompletableFuture.supplyAsync(() -> executor.execute("encode", () -> {
+            running.countDown();
+            sleep(200);
+            return "busy";
+        }));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        AtomicBoolean ran = new AtomicBoolean();
+        assertThatThrownBy(() -> executor.execute("matches", () -> ran.getAndSet(true)))
+                .isInstanceOf(PasswordHashingRejectedException.class);
+
+        assertThat(busy.get(5, TimeUnit.SECONDS)).isEqualTo("busy");
+        assertThat(ran).isFalse();
+        assertThat(rejected("queue_timeout")).isEqualTo(1.0);
+    }
+
+    @Test
+    void hashingTimeIsRecordedPerOperation() {
+        executor = executor(1, 1, 60_000);
+
+        executor.execute("encode", () -> "a");
+        executor.execute("encode", () -> "b");
+        executor.execute("matches", () -> true);
+
+        assertThat(meterRegistry.get("auth.password.hash").tag("operation", "encode").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("auth.password.hash").tag("operation", "matches").timer().count()).isEqualTo(1);
+    }
+
+    private PasswordHashingExecutor executor(int threads, int queueCapacity, long maxQueueWaitMs) {
+        PasswordHashingExecutor executor = new PasswordHashingExecutor();
+        ReflectionTestUtils.setField(executor, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(executor, "threads", threads);
+        ReflectionTestUtils.setField(executor, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(executor, "maxQueueWaitMs", maxQueueWaitMs);
+        ReflectionTestUtils.setField(executor, "retryAfterSeconds", 3L);
+        executor.init();
+        return executor;
+    }
+
+    private void awaitQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("auth.password.queue.depth").gauge().value() < depth) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("auth.password.rejected").tag("reason", reason).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
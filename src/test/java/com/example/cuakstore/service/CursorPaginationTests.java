@@ -0,0 +1,150 @@
+package com.example.cuakstore.service;
+
+import com.example.cuakstore.model.Order;
+import com.example.cuakstore.model.Product;
+import com.example.cuakstore.model.User;
+import com.example.cuakstore.pagination.KeysetCursor;
+import com.example.cuakstore.payload.response.CursorPage;
+import com.example.cuakstore.repository.OrderRepository;
+import com.example.cuakstore.repository.ProductRepository;
+import com.example.cuakstore.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Keyset pages follow {@code (sortKey, id)} order across page boundaries, including rows that
+ * share a sort value, and end with a page that carries no cursor.
+ */
+@SpringBootTest
+class CursorPaginationTests {
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void nextCursorContinuesWhereThePreviousPageEnded() {
+        createProduct("Cursor " + UUID.randomUUID(), "3.00");
+        createProduct("Cursor " + UUID.randomUUID(), "3.00");
+
+        CursorPage<Product> first = productService.getProductsByCursor("id", null, 1);
+        CursorPage<Product> second = productService.getProductsByCursor("id", first.getNextCursor(), 1);
+
+        assertThat(first.getNextCursor()).isNotNull();
+        assertThat(second.getContent().get(0).getId()).isGreaterThan(first.getContent().get(0).getId());
+    }
+
+    @Test
+    void productsWithEqualNamesAreOrderedByIdAcrossPages() {
+        // '~' sorts after letters and digits, so nothing else follows these names
+        String name = "~tie " + UUID.randomUUID();
+        List<Long> ids = List.of(
+                createProduct(name, "5.00").getId(),
+                createProduct(name, "5.00").getId(),
+                createProduct(name, "5.00").getId());
+
+        List<Long> walked = walkProducts("name", KeysetCursor.of("name", 0L, name).encode());
+
+        assertThat(walked).startsWith(ids.toArray(new Long[0]));
+    }
+
+    @Test
+    void productsWithEqualPricesAreOrderedByIdAcrossPages() {
+        String price = "987654.32";
+        List<Long> ids = List.of(
+                createProduct("Pricey " + UUID.randomUUID(), price).getId(),
+                createProduct("Pricey " + UUID.randomUUID(), price).getId(),
+                createProduct("Pricey " + UUID.randomUUID(), price).getId());
+
+        List<Long> walked = walkProducts("price", KeysetCursor.of("price", 0L, price).encode());
+
+        assertThat(walked).startsWith(ids.toArray(new Long[0]));
+    }
+
+    @Test
+    void ordersWithEqualDatesAreOrderedByIdDescendingUpToTheLastPage() {
+        LocalDateTime sameInstant = LocalDateTime.of(2001, 1, 1, 0, 0);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(createOrderAt(sameInstant).getId());
+        }
+
+        String start = KeysetCursor.of("orderDate", Long.MAX_VALUE, sameInstant).encode();
+        CursorPage<Order> first = orderService.getOrdersByCursor("orderDate", start, 2);
+        CursorPage<Order> last = orderService.getOrdersByCursor("orderDate", first.getNextCursor(), 2);
+
+        assertThat(first.getContent()).extracting(Order::getId).containsExactly(ids.get(2), ids.get(1));
+        assertThat(last.getContent()).extracting(Order::getId).containsExactly(ids.get(0));
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    @Test
+    void malformedOrMismatchedCursorsAreRejected() {
+        String priceCursor = KeysetCursor.of("price", 1L, "1.00").encode();
+        String badDate = KeysetCursor.of("orderDate", 1L, "yesterday").encode();
+
+        assertThatThrownBy(() -> productService.getProductsByCursor("name", "%%%", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> productService.getProductsByCursor("name", priceCursor, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> orderService.getOrdersByCursor("orderDate", badDate, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Follows cursors two rows at a time until a page comes back without one.
+     */
+    private List<Long> walkProducts(String sortBy, String cursor) {
+        List<Long> ids = new ArrayList<>();
+        do {
+            CursorPage<Product> page = productService.getProductsByCursor(sortBy, cursor, 2);
+            page.getContent().forEach(product -> ids.add(product.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private Product createProduct(String name, String price) {
+        Product product = new Product();
+        product.setName(name);
+        product.setPrice(new BigDecimal(price));
+        product.setStockQuantity(1);
+        return productRepository.save(product);
+    }
+
+    private Order createOrderAt(LocalDateTime orderDate) {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Order order = new Order();
+        order.setUser(userRepository.save(new User("cursor-" + suffix, "cursor-" + suffix + "@cuakstore.com", "secret")));
+        order.setTotalAmount(BigDecimal.TEN);
+        order = orderRepository.save(order);
+        // orderDate is stamped on insert, so backdate it afterwards
+        jdbcTemplate.update("update orders set order_date = ? where id = ?", Timestamp.valueOf(orderDate), order.getId());
+        return order;
+    }
+}
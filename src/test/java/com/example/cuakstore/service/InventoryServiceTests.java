@@ -0,0 +1,255 @@
+package com.example.cuakstore.service;
+
+import com.example.cuakstore.model.Order;
+import com.example.cuakstore.model.OrderItem;
+import com.example.cuakstore.model.OrderStatus;
+import com.example.cuakstore.model.Product;
+import com.example.cuakstore.model.User;
+import com.example.cuakstore.payment.PaymentInfo;
+import com.example.cuakstore.repository.OrderRepository;
+import com.example.cuakstore.repository.ProductRepository;
+import com.example.cuakstore.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class InventoryServiceTests {
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS = 400;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private HotStockService hotStockService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        user = userRepository.save(new User("buyer-" + suffix, "buyer-" + suffix + "@cuakstore.com", "secret"));
+    }
+
+    @Test
+    void concurrentOrdersNeverOversell() throws Exception {
+        Product scarce = createProduct(50);
+        Product plentiful = createProduct(1000);
+
+        assertThat(placeConcurrently(scarce, plentiful)).isEqualTo(50);
+        assertThat(stockOf(scarce)).isZero();
+        assertThat(stockOf(plentiful)).isEqualTo(950);
+    }
+
+    @Test
+    void concurrentOrdersNeverOversellHotProduct() throws Exception {
+        Product scarce = createProduct(50);
+        Product plentiful = createProduct(1000);
+        hotStockService.markHot(scarce.getId());
+        try {
+            assertThat(placeConcurrently(scarce, plentiful)).isEqualTo(50);
+        } finally {
+            hotStockService.unmarkHot(scarce.getId());
+            hotStockService.flush();
+        }
+        assertThat(stockOf(scarce)).isZero();
+        assertThat(stockOf(plentiful)).isEqualTo(950);
+    }
+
+    @Test
+    void hotProductReleasesStockToBudgetAndBackToDatabase() {
+        Product product = createProduct(10);
+        hotStockService.markHot(product.getId());
+        Order order = orderService.createOrder(newOrder(product));
+        // The first order claims the whole row as budget
+        assertThat(stockOf(product)).isZero();
+        assertThat(hotStockService.getBudgets()).containsEntry(product.getId(), 9L);
+
+        orderService.updateOrderStatus(order.getId(), OrderStatus.CANCELLED);
+        assertThat(hotStockService.getBudgets()).containsEntry(product.getId(), 10L);
+
+        hotStockService.unmarkHot(product.getId());
+        hotStockService.flush();
+        assertThat(stockOf(product)).isEqualTo(10);
+    }
+
+    @Test
+    void hotProductCombinesBudgetSpreadOverCellsForMultiUnitOrders() {
+        Product product = createProduct(10);
+        hotStockService.markHot(product.getId());
+        try {
+            orderService.createOrder(newOrder(product));
+            assertThat(stockOf(product)).isZero();
+
+            // The remaining nine units sit spread over the cells with the row drained
+            Order bulk = newOrder();
+            bulk.addOrderItem(new OrderItem(product, 9));
+            orderService.createOrder(bulk);
+            assertThat(hotStockService.getBudgets()).containsEntry(product.getId(), 0L);
+
+            assertThatThrownBy(() -> orderService.createOrder(newOrder(product)))
+                    .isInstanceOf(InsufficientStockException.class);
+            assertThat(hotStockService.getBudgets()).containsEntry(product.getId(), 0L);
+        } finally {
+            hotStockService.unmarkHot(product.getId());
+            hotStockService.flush();
+        }
+        assertThat(stockOf(product)).isZero();
+    }
+
+    /**
+     * Races {@link #ATTEMPTS} orders for one unit of each product and returns how many went through.
+     */
+    private int placeConcurrently(Product scarce, Product plentiful) throws Exception {
+        AtomicInteger rejected = new AtomicInteger();
+        Queue<Order> placed = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < ATTEMPTS; i++) {
+                // Alternate item order so reservations would deadlock without ordered row locking
+                boolean scarceFirst = i % 2 == 0;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        placed.add(orderService.createOrder(scarceFirst
+                                ? newOrder(scarce, plentiful) : newOrder(plentiful, scarce)));
+                    } catch (InsufficientStockException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(placed.size() + rejected.get()).isEqualTo(ATTEMPTS);
+        return placed.size();
+    }
+
+    @Test
+    void cancellingOrRefundingReleasesStock() {
+        Product product = createProduct(3);
+        Order first = orderService.createOrder(newOrder(product));
+        Order second = orderService.createOrder(newOrder(product));
+        orderService.createOrder(newOrder(product));
+        assertThat(stockOf(product)).isZero();
+        assertThatThrownBy(() -> orderService.createOrder(newOrder(product)))
+                .isInstanceOf(InsufficientStockException.class);
+
+        orderService.updateOrderStatus(first.getId(), OrderStatus.CANCELLED);
+        assertThat(stockOf(product)).isEqualTo(1);
+
+        orderService.updateOrderStatus(second.getId(), OrderStatus.PAID);
+        orderService.updateOrderStatus(second.getId(), OrderStatus.REFUNDED);
+        assertThat(stockOf(product)).isEqualTo(2);
+
+        orderService.updateOrderStatus(first.getId(), OrderStatus.CANCELLED);
+        assertThat(stockOf(product)).isEqualTo(2);
+    }
+
+    @Test
+    void deletingAnOrderReleasesTheStockItStillHolds() {
+        Product product = createProduct(2);
+        Order pending = orderService.createOrder(newOrder(product));
+        Order cancelled = orderService.createOrder(newOrder(product));
+        orderService.updateOrderStatus(cancelled.getId(), OrderStatus.CANCELLED);
+        assertThat(stockOf(product)).isEqualTo(1);
+
+        orderService.deleteOrder(pending.getId());
+        assertThat(stockOf(product)).isEqualTo(2);
+
+        orderService.deleteOrder(cancelled.getId());
+        assertThat(stockOf(product)).isEqualTo(2);
+    }
+
+    @Test
+    void lateApprovalOfCancelledOrderTakesItsStockBackOnce() {
+        Product product = createProduct(5);
+        Order order = orderService.createOrder(newOrder(product));
+        orderService.updateOrderStatus(order.getId(), OrderStatus.CANCELLED);
+
+        orderService.applyPayments(Map.of(order.getId(), new PaymentInfo("late-1", "approved", null)));
+
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.PAID);
+        assertThat(stockOf(product)).isEqualTo(4);
+    }
+
+    @Test
+    void lateApprovalWithoutStockFlagsTheOrderAndKeepsTheRestOfTheBatch() {
+        Product product = createProduct(1);
+        Order cancelled = orderService.createOrder(newOrder(product));
+        orderService.updateOrderStatus(cancelled.getId(), OrderStatus.CANCELLED);
+        orderService.createOrder(newOrder(product));
+        Product other = createProduct(1);
+        Order pending = orderService.createOrder(newOrder(other));
+
+        int changed = orderService.applyPayments(Map.of(
+                cancelled.getId(), new PaymentInfo("late-2", "approved", null),
+                pending.getId(), new PaymentInfo("on-time", "approved", null)));
+
+        assertThat(changed).isEqualTo(2);
+        Order flagged = orderRepository.findById(cancelled.getId()).orElseThrow();
+        assertThat(flagged.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(flagged.getPaymentStatus()).isEqualTo("approved");
+        assertThat(flagged.getReviewReason()).contains("late-2");
+        assertThat(orderRepository.findById(pending.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.PAID);
+        assertThat(stockOf(product)).isZero();
+    }
+
+    private Order newOrder(Product... products) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(OrderStatus.PENDING);
+        order.setShippingAddress("Calle Falsa 123");
+        for (Product product : products) {
+            order.addOrderItem(new OrderItem(product, 1));
+        }
+        return order;
+    }
+
+    private Product createProduct(int stock) {
+        Product product = new Product();
+        product.setName("Flash sale " + UUID.randomUUID());
+        product.setPrice(new BigDecimal("9.99"));
+        product.setStockQuantity(stock);
+        return productRepository.save(product);
+    }
+
+    private int stockOf(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getStockQuantity();
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.cuakstore.service;
+
+import com.example.cuakstore.model.Order;
+import com.example.cuakstore.model.OrderItem;
+import com.example.cuakstore.model.OrderStatus;
+import com.example.cuakstore.model.Product;
+import com.example.cuakstore.model.User;
+import com.example.cuakstore.repository.ProductRepository;
+import com.example.cuakstore.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class OrderExportServiceTests {
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User user;
+    private Order withItems;
+    private Order cancelled;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        user = userRepository.save(new User("exporter-" + suffix, "exporter-" + suffix + "@cuakstore.com", "secret"));
+        withItems = orderService.createOrder(newOrder("Calle \"Falsa\" 123, Springfield", createProduct(), createProduct()));
+        cancelled = orderService.createOrder(newOrder("Av. Siempre Viva 742", createProduct()));
+        orderService.updateOrderStatus(cancelled.getId(), OrderStatus.CANCELLED);
+    }
+
+    @Test
+    void ndjsonHasOneOrderPerLineWithItsItems() throws Exception {
+        List<JsonNode> orders = ndjson(null, null, null);
+
+        assertThat(orders).extracting(order -> order.get("id").asLong())
+                .containsExactly(withItems.getId(), cancelled.getId());
+        JsonNode first = orders.get(0);
+        assertThat(first.get("shippingAddress").asText()).isEqualTo("Calle \"Falsa\" 123, Springfield");
+        assertThat(first.get("items")).hasSize(2);
+        assertThat(first.get("items").get(0).get("price").decimalValue()).isEqualByComparingTo("9.99");
+        assertThat(orders.get(1).get("status").asText()).isEqualTo("CANCELLED");
+    }
+
+    @Test
+    void filtersByStatusAndDate() throws Exception {
+        assertThat(ndjson(OrderStatus.CANCELLED, null, null)).extracting(order -> order.get("id").asLong())
+                .containsExactly(cancelled.getId());
+        assertThat(ndjson(null, LocalDateTime.now().plusDays(1), null)).isEmpty();
+        assertThat(ndjson(null, null, LocalDateTime.now().minusDays(1))).isEmpty();
+    }
+
+    @Test
+    void csvHasOneLinePerItemAndQuotesSpecialCharacters() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderExportService.export(OrderExportFormat.CSV, null, null, null, out);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+
+        assertThat(lines[0]).startsWith("order_id,user_id,username,");
+        List<String> mine = List.of(lines).stream()
+                .filter(line -> line.contains("," + user.getUsername() + ","))
+                .collect(Collectors.toList());
+        assertThat(mine).hasSize(3);
+        assertThat(mine.get(0)).startsWith(withItems.getId() + ",")
+                .contains(",\"Calle \"\"Falsa\"\" 123, Springfield\",");
+    }
+
+    private List<JsonNode> ndjson(OrderStatus status, LocalDateTime from, LocalDateTime to) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderExportService.export(OrderExportFormat.NDJSON, status, from, to, out);
+        List<JsonNode> orders = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            JsonNode order = objectMapper.readTree(line);
+            if (user.getUsername().equals(order.get("username").asText())) {
+                orders.add(order);
+            }
+        }
+        return orders;
+    }
+
+    private Order newOrder(String shippingAddress, Product... products) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(OrderStatus.PENDING);
+        order.setShippingAddress(shippingAddress);
+        for (Product product : products) {
+            order.addOrderItem(new OrderItem(product, 1));
+        }
+        return order;
+    }
+
+    private Product createProduct() {
+        Product product = new Product();
+        product.setName("Export " + UUID.randomUUID());
+        product.setPrice(new BigDecimal("9.99"));
+        product.setStockQuantity(10);
+        return productRepository.save(product);
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.cuakstore.service;
+
+import com.example.cuakstore.config.CacheConfig;
+import com.example.cuakstore.model.Category;
+import com.example.cuakstore.model.Order;
+import com.example.cuakstore.model.OrderItem;
+import com.example.cuakstore.model.OrderStatus;
+import com.example.cuakstore.model.Product;
+import com.example.cuakstore.model.User;
+import com.example.cuakstore.payload.response.ProductResponse;
+import com.example.cuakstore.repository.CategoryRepository;
+import com.example.cuakstore.repository.ProductRepository;
+import com.example.cuakstore.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The catalog cache serves repeated reads, hands out snapshots nobody can modify and drops
+ * the cached response of a product whose stock changed.
+ */
+@SpringBootTest
+class ProductCacheTests {
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HotStockService hotStockService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Category category;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Category newCategory = new Category();
+        newCategory.setName("Cache " + suffix);
+        category = categoryRepository.save(newCategory);
+
+        Product newProduct = new Product();
+        newProduct.setName("Cached duck " + suffix);
+        newProduct.setPrice(new BigDecimal("4.50"));
+        newProduct.setStockQuantity(5);
+        newProduct.setCategory(category);
+        product = productRepository.save(newProduct);
+    }
+
+    @Test
+    void firstReadMissesAndLaterReadsHit() {
+        assertThat(cache(CacheConfig.PRODUCTS).get(product.getId())).isNull();
+
+        ProductResponse first = productService.getProductById(product.getId()).orElseThrow();
+        assertThat(cache(CacheConfig.PRODUCTS).get(product.getId())).isNotNull();
+
+        ProductResponse second = productService.getProductById(product.getId()).orElseThrow();
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void cachedListsCannotBeModified() {
+        List<ProductResponse> products = productService.getProductsByCategory(category);
+
+        assertThatThrownBy(() -> products.clear()).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(productService.getProductsByCategory(category)).hasSize(1);
+    }
+
+    @Test
+    void reservingStockEvictsTheProductButKeepsTheLists() {
+        productService.getProductById(product.getId());
+        List<ProductResponse> all = productService.getAllProducts();
+        List<ProductResponse> inCategory = productService.getProductsByCategory(category);
+
+        orderService.createOrder(newOrder(2));
+
+        assertThat(cache(CacheConfig.PRODUCTS).get(product.getId())).isNull();
+        assertThat(productService.getProductById(product.getId()).orElseThrow().getStockQuantity()).isEqualTo(3);
+        // Lists show stock as of their load until they expire
+        assertThat(productService.getAllProducts()).isSameAs(all);
+        assertThat(productService.getProductsByCategory(category)).isSameAs(inCategory)
+                .extracting(ProductResponse::getStockQuantity).containsExactly(5);
+    }
+
+    @Test
+    void claimingHotStockBudgetEvictsTheProduct() {
+        hotStockService.markHot(product.getId());
+        try {
+            productService.getProductById(product.getId());
+
+            // The first order claims the whole row as budget
+            orderService.createOrder(newOrder(1));
+
+            assertThat(cache(CacheConfig.PRODUCTS).get(product.getId())).isNull();
+            assertThat(productService.getProductById(product.getId()).orElseThrow().getStockQuantity()).isZero();
+        } finally {
+            hotStockService.unmarkHot(product.getId());
+            hotStockService.flush();
+        }
+        assertThat(productService.getProductById(product.getId()).orElseThrow().getStockQuantity()).isEqualTo(4);
+    }
+
+    private Order newOrder(int quantity) {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(new User("cache-" + suffix, "cache-" + suffix + "@cuakstore.com", "secret"));
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(OrderStatus.PENDING);
+        order.setShippingAddress("Calle Falsa 123");
+        order.addOrderItem(new OrderItem(product, quantity));
+        return order;
+    }
+
+    private Cache cache(String name) {
+        return cacheManager.getCache(name);
+    }
+}
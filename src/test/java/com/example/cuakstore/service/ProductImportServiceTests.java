@@ -0,0 +1,124 @@
+package com.example.cuakstore.service;
+
+import com.example.cuakstore.model.Category;
+import com.example.cuakstore.model.Product;
+import com.example.cuakstore.payload.response.ProductImportResponse;
+import com.example.cuakstore.repository.CategoryRepository;
+import com.example.cuakstore.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A chunk size of 3 makes small uploads span several transactions.
+ */
+@SpringBootTest(properties = "catalog.import.chunk-size=3")
+class ProductImportServiceTests {
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private String tag;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        tag = UUID.randomUUID().toString().substring(0, 8);
+        Category newCategory = new Category();
+        newCategory.setName("Ducks " + tag);
+        category = categoryRepository.save(newCategory);
+    }
+
+    @Test
+    void importsValidCsvRowsAndReportsTheRest() throws Exception {
+        String csv = "name,price,stock_quantity,category,description\r\n"
+                + "Rubber duck " + tag + ",9.99,10,ducks " + tag + ",\"Yellow, squeaky\"\r\n"
+                + "Pirate duck " + tag + ",12.50,5,Ducks " + tag + ",\"Says \"\"arr\"\"\"\r\n"
+                + "Broken duck " + tag + ",free,1,,\r\n"
+                + "Lost duck " + tag + ",3.00,1,Geese " + tag + ",\r\n"
+                + "," + "1.00,1,,\r\n"
+                + "Plain duck " + tag + ",1.00,,,\r\n"
+                + "Negative duck " + tag + ",1.00,-4,,\r\n"
+                + "Last duck " + tag + ",2.00,7,,\n";
+
+        ProductImportResponse result = productImportService.importCsv(stream(csv));
+
+        assertThat(result.getImported()).isEqualTo(4);
+        assertThat(result.getFailed()).isEqualTo(4);
+        assertThat(result.getErrors()).extracting(ProductImportResponse.RowError::getRow)
+                .containsExactly(3L, 4L, 5L, 7L);
+        assertThat(result.getErrors().get(1).getMessage()).contains("Unknown category");
+
+        List<Product> imported = productRepository.findByNameContainingIgnoreCase(tag);
+        assertThat(imported).extracting(Product::getName).containsExactlyInAnyOrder(
+                "Rubber duck " + tag, "Pirate duck " + tag, "Plain duck " + tag, "Last duck " + tag);
+        Product rubber = imported.stream().filter(p -> p.getName().startsWith("Rubber")).findFirst().orElseThrow();
+        assertThat(rubber.getDescription()).isEqualTo("Yellow, squeaky");
+        assertThat(rubber.getCategory().getId()).isEqualTo(category.getId());
+        Product pirate = imported.stream().filter(p -> p.getName().startsWith("Pirate")).findFirst().orElseThrow();
+        assertThat(pirate.getDescription()).isEqualTo("Says \"arr\"");
+    }
+
+    @Test
+    void importsJsonArrayRowByRow() throws Exception {
+        String json = "[" +
+                "{\"name\":\"Json duck " + tag + "\",\"price\":4.5,\"stockQuantity\":3,\"category\":\"Ducks " + tag + "\"}," +
+                "{\"name\":\"Typo duck " + tag + "\",\"price\":\"cheap\"}," +
+                "{\"name\":\"Free duck " + tag + "\",\"price\":0}," +
+                "{\"name\":\"Other duck " + tag + "\",\"price\":1,\"ignored\":true}" +
+                "]";
+
+        ProductImportResponse result = productImportService.importJson(stream(json));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(ProductImportResponse.RowError::getRow).containsExactly(2L, 3L);
+        assertThat(productRepository.findByNameContainingIgnoreCase(tag)).extracting(Product::getName)
+                .containsExactlyInAnyOrder("Json duck " + tag, "Other duck " + tag);
+    }
+
+    @Test
+    void rejectsNonObjectElementsRowByRow() throws Exception {
+        String json = "[" +
+                "{\"name\":\"First duck " + tag + "\",\"price\":1}," +
+                "\"not a product\"," +
+                "[{\"name\":\"Nested duck " + tag + "\",\"price\":1}]," +
+                "42," +
+                "{\"name\":\"Last duck " + tag + "\",\"price\":2}" +
+                "]";
+
+        ProductImportResponse result = productImportService.importJson(stream(json));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(ProductImportResponse.RowError::getRow).containsExactly(2L, 3L, 4L);
+        assertThat(productRepository.findByNameContainingIgnoreCase(tag)).extracting(Product::getName)
+                .containsExactlyInAnyOrder("First duck " + tag, "Last duck " + tag);
+    }
+
+    @Test
+    void failsOnContentAfterTheArray() {
+        String json = "[{\"name\":\"Trailing duck " + tag + "\",\"price\":1}] {\"name\":\"Stray\"}";
+
+        assertThatThrownBy(() -> productImportService.importJson(stream(json)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("after the JSON array");
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}